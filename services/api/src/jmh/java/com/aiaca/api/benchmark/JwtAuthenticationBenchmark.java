@@ -0,0 +1,75 @@
+package com.aiaca.api.benchmark;
+
+import com.aiaca.api.model.User;
+import com.aiaca.api.security.JwtService;
+import com.aiaca.api.security.TokenBlacklist;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-request token authentication cost as done by {@code JwtAuthenticationFilter}: the blacklist check plus
+ * resolving the user id from the bearer token, with and without the verified-claims cache. Requests cycle
+ * over {@code sessions} live tokens, as concurrent dashboard sessions would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtAuthenticationBenchmark {
+    private static final String SECRET = "benchmark-secret-value-with-enough-entropy-0123456789";
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    @Param({"16", "1024"})
+    public int sessions;
+
+    private JwtService jwtService;
+    private TokenBlacklist tokenBlacklist;
+    private String[] tokens;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void start() {
+        jwtService = new JwtService(SECRET, TimeUnit.HOURS.toMillis(1), new SimpleMeterRegistry(), cached, 10_000);
+        // No benchmark token is revoked, so every check stops at the Bloom filter and the repository is never used
+        tokenBlacklist = new TokenBlacklist(null, new SimpleMeterRegistry(), 100_000, 0.01, 30);
+        tokens = new String[sessions];
+        for (int i = 0; i < sessions; i++) {
+            User user = new User();
+            user.setId(UUID.randomUUID());
+            user.setEmail("bench-" + i + "@example.com");
+            tokens[i] = jwtService.generateToken(user);
+        }
+    }
+
+    @Benchmark
+    public UUID authenticate(Cursor cursor) {
+        String token = tokens[cursor.next++ % tokens.length];
+        if (tokenBlacklist.isBlacklisted(token)) {
+            return null;
+        }
+        return jwtService.extractUserId(token);
+    }
+}
@@ -0,0 +1,60 @@
+package com.aiaca.api.benchmark;
+
+import com.aiaca.api.service.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link RateLimiter} throughput under heavy contention. With {@code keys=1} every thread CASes the same cell
+ * (one client hammering an endpoint); larger key counts spread the load as many client addresses would, and
+ * {@code keys} above {@code MAX_KEYS} exercise eviction. The limit is set high enough that nothing is rejected.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+public class RateLimiterBenchmark {
+    private static final long MAX_KEYS = 100_000;
+
+    @Param({"1", "1024", "1000000"})
+    public int keys;
+
+    private RateLimiter limiter;
+    private String[] addresses;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void start() {
+        limiter = new RateLimiter("bench", Integer.MAX_VALUE, 60_000, MAX_KEYS, new SimpleMeterRegistry());
+        addresses = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            addresses[i] = "10." + ((i >> 16) & 0xff) + "." + ((i >> 8) & 0xff) + "." + (i & 0xff);
+        }
+    }
+
+    @Benchmark
+    public long acquire(Cursor cursor) {
+        cursor.next = (cursor.next + 7919) % addresses.length;
+        return limiter.tryAcquire(addresses[cursor.next]);
+    }
+}
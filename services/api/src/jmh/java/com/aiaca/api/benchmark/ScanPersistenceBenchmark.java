@@ -0,0 +1,161 @@
+package com.aiaca.api.benchmark;
+
+import com.aiaca.api.ApiApplication;
+import com.aiaca.api.model.AiSuggestion;
+import com.aiaca.api.model.IssueSeverity;
+import com.aiaca.api.model.Scan;
+import com.aiaca.api.model.ScanIssue;
+import com.aiaca.api.model.ScanStatus;
+import com.aiaca.api.model.Site;
+import com.aiaca.api.model.User;
+import com.aiaca.api.model.billing.enums.SubscriptionStatus;
+import com.aiaca.api.repository.ScanIssueBulkWriter;
+import com.aiaca.api.repository.ScanRepository;
+import com.aiaca.api.repository.SiteRepository;
+import com.aiaca.api.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Compares persisting one scan's results through the JPA cascade on {@code Scan.issues} with the
+ * {@link ScanIssueBulkWriter} path. The {@code rows} counter reports inserted issue + suggestion rows per
+ * second. Runs on in-memory H2 by default; pass {@code -Dbench.datasource.url=jdbc:postgresql://...}
+ * (plus {@code bench.datasource.username}/{@code password}) to measure PostgreSQL and its COPY path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class ScanPersistenceBenchmark {
+    private static final int SUGGESTIONS_PER_ISSUE = 2;
+
+    @Param({"10", "100", "1000"})
+    public int issues;
+
+    @Param({"cascade", "bulk"})
+    public String path;
+
+    private ConfigurableApplicationContext context;
+    private ScanRepository scanRepository;
+    private ScanIssueBulkWriter bulkWriter;
+    private TransactionTemplate transactionTemplate;
+    private Site site;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RowCounter {
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void start() {
+        String url = System.getProperty("bench.datasource.url",
+                "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.datasource.url=" + url,
+                "spring.jpa.show-sql=false",
+                "logging.level.root=WARN",
+                "security.jwt.secret=benchmark-secret-value-with-enough-entropy-0123456789"));
+        if (url.startsWith("jdbc:postgresql:")) {
+            properties.add("spring.datasource.driver-class-name=org.postgresql.Driver");
+            properties.add("spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect");
+            properties.add("spring.datasource.username=" + System.getProperty("bench.datasource.username", "postgres"));
+            properties.add("spring.datasource.password=" + System.getProperty("bench.datasource.password", ""));
+        }
+        context = new SpringApplicationBuilder(ApiApplication.class)
+                .properties(properties.toArray(String[]::new))
+                .run();
+        scanRepository = context.getBean(ScanRepository.class);
+        bulkWriter = context.getBean(ScanIssueBulkWriter.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        User user = new User();
+        user.setEmail("bench-" + UUID.randomUUID() + "@example.com");
+        user.setPasswordHash("not-used");
+        user.setSubscriptionStatus(SubscriptionStatus.ACTIVE);
+        user = context.getBean(UserRepository.class).save(user);
+
+        Site newSite = new Site();
+        newSite.setName("Benchmark Site");
+        newSite.setUrl("https://example.com");
+        newSite.setOwner(user);
+        site = context.getBean(SiteRepository.class).save(newSite);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public UUID persistScan(RowCounter counter) {
+        UUID scanId = transactionTemplate.execute(status -> {
+            Scan scan = new Scan();
+            scan.setSite(site);
+            scan.setPageUrl("https://example.com/page");
+            scan.setStatus(ScanStatus.COMPLETED);
+            scan.setScore(50.0);
+            List<ScanIssue> built = buildIssues(scan);
+            if ("cascade".equals(path)) {
+                scan.getIssues().addAll(built);
+                return scanRepository.saveAndFlush(scan).getId();
+            }
+            Scan saved = scanRepository.saveAndFlush(scan);
+            bulkWriter.insert(saved.getId(), built);
+            return saved.getId();
+        });
+        counter.rows += (long) issues * (1 + SUGGESTIONS_PER_ISSUE);
+        return scanId;
+    }
+
+    private List<ScanIssue> buildIssues(Scan scan) {
+        List<ScanIssue> built = new ArrayList<>(issues);
+        for (int i = 0; i < issues; i++) {
+            ScanIssue issue = new ScanIssue();
+            issue.setScan(scan);
+            issue.setType("image-alt");
+            issue.setSeverity(i % 2 == 0 ? IssueSeverity.ERROR : IssueSeverity.WARNING);
+            issue.setDescription("Images must have alternate text");
+            issue.setSelector("main img:nth-of-type(" + i + ")");
+            issue.setPageUrl("https://example.com/page");
+            for (int j = 0; j < SUGGESTIONS_PER_ISSUE; j++) {
+                AiSuggestion suggestion = new AiSuggestion();
+                suggestion.setScanIssue(issue);
+                suggestion.setSuggestion("<img alt=\"Company logo\">");
+                suggestion.setRationale("Describe the image content");
+                issue.getAiSuggestions().add(suggestion);
+            }
+            built.add(issue);
+        }
+        return built;
+    }
+}
@@ -0,0 +1,249 @@
+package com.aiaca.api.benchmark;
+
+import com.aiaca.api.ApiApplication;
+import com.aiaca.api.model.IssueSeverity;
+import com.aiaca.api.model.Scan;
+import com.aiaca.api.model.ScanIssue;
+import com.aiaca.api.model.ScanStatus;
+import com.aiaca.api.model.Site;
+import com.aiaca.api.model.User;
+import com.aiaca.api.model.billing.enums.SubscriptionStatus;
+import com.aiaca.api.repository.ScanRepository;
+import com.aiaca.api.repository.SiteRepository;
+import com.aiaca.api.repository.UserRepository;
+import com.aiaca.api.security.JwtService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Compares platform vs virtual request threads on the scan and list endpoints. Each operation fires
+ * {@link #CONCURRENT_REQUESTS} requests at once and waits for all of them, so the score is batches per second.
+ * The scanner and AI orchestrator are replaced by an in-process stub with a fixed latency. Every scan request
+ * targets a new page URL so none of them is deduplicated into an active scan, and admission control is off so
+ * the thread model rather than the edge caps limits throughput. The {@code succeeded} and {@code rejected}
+ * secondary results count 2xx and other responses; a run with rejections is not comparable to one without.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class ThreadModelBenchmark {
+    private static final int CONCURRENT_REQUESTS = 256;
+    private static final long UPSTREAM_LATENCY_MS = 200;
+    private static final int SEEDED_SCANS = 50;
+    private static final int ISSUES_PER_SCAN = 10;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    private HttpServer upstreamStub;
+    private ExecutorService upstreamExecutor;
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private String baseUrl;
+    private String token;
+    private UUID siteId;
+    private final AtomicLong pageSequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        upstreamExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        upstreamStub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        upstreamStub.setExecutor(upstreamExecutor);
+        upstreamStub.createContext("/scan", exchange -> respondAfterDelay(exchange, scannerPayload()));
+        upstreamStub.createContext("/suggest-fixes", exchange -> respondAfterDelay(exchange, aiPayload()));
+        upstreamStub.start();
+        String upstream = "http://127.0.0.1:" + upstreamStub.getAddress().getPort();
+
+        context = new SpringApplicationBuilder(ApiApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "scanner.service-url=" + upstream + "/scan",
+                        "ai-orchestrator.service-url=" + upstream + "/suggest-fixes",
+                        "security.jwt.secret=benchmark-secret-value-with-enough-entropy-0123456789",
+                        "security.public-scan.rate-limit.max-requests=" + Integer.MAX_VALUE,
+                        "admission.enabled=false",
+                        "scan.worker.queue-capacity=1000000",
+                        "scan.scheduler.max-queued=1000000",
+                        "scan.scheduler.per-tenant-max-concurrent=" + CONCURRENT_REQUESTS)
+                .run();
+        baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port") + "/api/v1";
+        seed();
+
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newFixedThreadPool(8))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+        if (upstreamStub != null) {
+            upstreamStub.stop(0);
+        }
+        if (upstreamExecutor != null) {
+            upstreamExecutor.shutdownNow();
+        }
+    }
+
+    /** Per-thread response tallies, reported by JMH as secondary results next to the batch score. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Responses {
+        public long succeeded;
+        public long rejected;
+    }
+
+    @Benchmark
+    public int listScans(Responses responses) {
+        HttpRequest request = authorized(baseUrl + "/sites/" + siteId + "/scans").GET().build();
+        return fire(() -> request, responses);
+    }
+
+    @Benchmark
+    public int createScan(Responses responses) {
+        return fire(() -> authorized(baseUrl + "/sites/" + siteId + "/scans")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"pageUrl\":\"" + nextPageUrl() + "\"}"))
+                .build(), responses);
+    }
+
+    @Benchmark
+    public int publicScan(Responses responses) {
+        return fire(() -> HttpRequest.newBuilder(URI.create(baseUrl + "/public/scans"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"url\":\"" + nextPageUrl() + "\"}"))
+                .build(), responses);
+    }
+
+    private String nextPageUrl() {
+        return "https://example.com/bench-" + pageSequence.incrementAndGet();
+    }
+
+    private int fire(Supplier<HttpRequest> requests, Responses tally) {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(CONCURRENT_REQUESTS);
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            responses.add(httpClient.sendAsync(requests.get(), HttpResponse.BodyHandlers.discarding()));
+        }
+        int succeeded = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            int status = response.join().statusCode();
+            if (status >= 200 && status < 300) {
+                succeeded++;
+            }
+        }
+        tally.succeeded += succeeded;
+        tally.rejected += CONCURRENT_REQUESTS - succeeded;
+        return succeeded;
+    }
+
+    private HttpRequest.Builder authorized(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).header("Authorization", "Bearer " + token);
+    }
+
+    private void seed() {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        SiteRepository siteRepository = context.getBean(SiteRepository.class);
+        ScanRepository scanRepository = context.getBean(ScanRepository.class);
+
+        User user = new User();
+        user.setEmail("bench-" + UUID.randomUUID() + "@example.com");
+        user.setPasswordHash(context.getBean(PasswordEncoder.class).encode("Password123"));
+        user.setSubscriptionStatus(SubscriptionStatus.ACTIVE);
+        user = userRepository.save(user);
+
+        Site site = new Site();
+        site.setName("Benchmark Site");
+        site.setUrl("https://example.com");
+        site.setOwner(user);
+        site = siteRepository.save(site);
+        siteId = site.getId();
+
+        for (int i = 0; i < SEEDED_SCANS; i++) {
+            Scan scan = new Scan();
+            scan.setSite(site);
+            scan.setPageUrl("https://example.com/page-" + i);
+            scan.setStatus(ScanStatus.COMPLETED);
+            scan.setScore(80.0);
+            for (int j = 0; j < ISSUES_PER_SCAN; j++) {
+                ScanIssue issue = new ScanIssue();
+                issue.setScan(scan);
+                issue.setType("image-alt");
+                issue.setSeverity(IssueSeverity.ERROR);
+                issue.setDescription("Images must have alternate text");
+                issue.setSelector("img:nth-of-type(" + j + ")");
+                scan.getIssues().add(issue);
+            }
+            scanRepository.save(scan);
+        }
+
+        token = context.getBean(JwtService.class).generateToken(user);
+    }
+
+    private static void respondAfterDelay(HttpExchange exchange, String body) throws IOException {
+        try {
+            Thread.sleep(UPSTREAM_LATENCY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String scannerPayload() {
+        return "{\"url\":\"https://example.com/page\",\"issues\":[{\"id\":\"issue-1\",\"type\":\"image-alt\"," +
+                "\"severity\":\"error\",\"selector\":\"img.hero\",\"description\":\"Missing alt text\"}]}";
+    }
+
+    private static String aiPayload() {
+        return "{\"provider\":\"stub\",\"requestId\":\"req-1\",\"suggestions\":[{\"issueId\":\"issue-1\"," +
+                "\"selector\":\"img.hero\",\"explanation\":\"Add alt text\",\"suggestedFix\":\"Add alt text\"}]}";
+    }
+}
@@ -5,55 +5,118 @@ import com.aiaca.api.exception.UpstreamServiceException;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
-import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
 
 @Component
 public class AiOrchestratorClient {
+    private static final ParameterizedTypeReference<ServerSentEvent<SuggestedFix>> SUGGESTION_EVENT =
+            new ParameterizedTypeReference<>() {};
+
     private final WebClient webClient;
     private final String orchestratorUrl;
     private final Duration timeout;
+    private final Duration itemTimeout;
+    private final UpstreamGuard guard;
 
-    public AiOrchestratorClient(WebClient externalWebClient,
+    public AiOrchestratorClient(@Qualifier("aiOrchestratorWebClient") WebClient webClient,
                                 @Value("${ai-orchestrator.service-url}") String orchestratorUrl,
-                                @Value("${external.http.timeout-ms:8000}") long timeoutMs) {
-        this.webClient = externalWebClient;
+                                @Value("${external.http.timeout-ms:8000}") long timeoutMs,
+                                @Qualifier("aiOrchestratorGuard") UpstreamGuard guard,
+                                @Value("${ai-orchestrator.streaming.item-timeout-ms:10000}") long itemTimeoutMs) {
+        this.webClient = webClient;
         this.orchestratorUrl = orchestratorUrl;
         this.timeout = Duration.ofMillis(timeoutMs);
+        this.itemTimeout = Duration.ofMillis(itemTimeoutMs);
+        this.guard = guard;
     }
 
-    public SuggestionResponse requestSuggestions(String pageUrl, List<IssueContext> issues, boolean useStub) {
-        try {
-            return webClient.post()
-                    .uri(orchestratorUrl)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .header(CorrelationIdFilter.CORRELATION_HEADER, correlationId())
-                    .bodyValue(Map.of(
-                            "pageUrl", pageUrl,
-                            "issues", issues,
-                            "useStub", useStub
-                    ))
-                    .retrieve()
-                    .onStatus(status -> status.isError(), response -> response.bodyToMono(String.class)
-                            .defaultIfEmpty("ai orchestrator error")
-                            .flatMap(body -> Mono.error(new UpstreamServiceException(
-                                    "AI orchestrator error: " + body, HttpStatus.BAD_GATEWAY))))
-                    .bodyToMono(SuggestionResponse.class)
-                    .timeout(timeout)
-                    .block();
-        } catch (Exception e) {
-            throw new UpstreamServiceException("Failed to contact AI orchestrator", HttpStatus.BAD_GATEWAY, e);
-        }
+    public Mono<SuggestionResponse> requestSuggestionsAsync(String pageUrl, List<IssueContext> issues, boolean useStub) {
+        return Mono.deferContextual(context -> guard.protect(webClient.post()
+                .uri(orchestratorUrl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(CorrelationIdFilter.CORRELATION_HEADER, CorrelationIdFilter.correlationId(context))
+                .bodyValue(Map.of(
+                        "pageUrl", pageUrl,
+                        "issues", issues,
+                        "useStub", useStub
+                ))
+                .retrieve()
+                .onStatus(status -> status.isError(), response -> response.bodyToMono(String.class)
+                        .defaultIfEmpty("ai orchestrator error")
+                        .flatMap(body -> Mono.error(new UpstreamServiceException(
+                                "AI orchestrator error: " + body, HttpStatus.BAD_GATEWAY,
+                                response.statusCode().value()))))
+                .bodyToMono(SuggestionResponse.class)
+                .timeout(timeout)
+                .onErrorMap(e -> !(e instanceof UpstreamServiceException),
+                        e -> new UpstreamServiceException("Failed to contact AI orchestrator", HttpStatus.BAD_GATEWAY, e))));
+    }
+
+    /**
+     * Requests suggestions over the streaming contract and emits each fix as soon as it arrives. The orchestrator
+     * may answer with NDJSON (one {@link SuggestedFix} per line), SSE ({@code data:} carrying a fix, an
+     * {@code error} event failing the call) or the plain {@link SuggestionResponse}. The timeout applies to each
+     * fix rather than to the whole response, so a long list of slow generations does not time out as one, and
+     * only counts while the consumer is waiting for the next fix.
+     */
+    public Flux<SuggestedFix> streamSuggestions(String pageUrl, List<IssueContext> issues, boolean useStub) {
+        return Flux.deferContextual(context -> guard.protect(webClient.post()
+                .uri(orchestratorUrl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON, MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_JSON)
+                .header(CorrelationIdFilter.CORRELATION_HEADER, CorrelationIdFilter.correlationId(context))
+                // The pool-wide read timeout would cut off a stream that pauses between fixes, and it keeps running
+                // while the consumer applies backpressure; zero disables it in favour of the idle timeout below
+                .httpRequest(request -> request.<HttpClientRequest>getNativeRequest().responseTimeout(Duration.ZERO))
+                .bodyValue(Map.of(
+                        "pageUrl", pageUrl,
+                        "issues", issues,
+                        "useStub", useStub
+                ))
+                .exchangeToFlux(this::decodeSuggestions)
+                .transform(fixes -> IdleTimeout.apply(fixes, itemTimeout))
+                .onErrorMap(e -> !(e instanceof UpstreamServiceException),
+                        e -> new UpstreamServiceException("Failed to contact AI orchestrator", HttpStatus.BAD_GATEWAY, e))));
     }
 
-    private String correlationId() {
-        String value = MDC.get("correlationId");
-        return value != null ? value : "api-request";
+    private Flux<SuggestedFix> decodeSuggestions(ClientResponse response) {
+        if (response.statusCode().isError()) {
+            return response.bodyToMono(String.class)
+                    .defaultIfEmpty("ai orchestrator error")
+                    .flatMapMany(body -> Flux.error(new UpstreamServiceException(
+                            "AI orchestrator error: " + body, HttpStatus.BAD_GATEWAY,
+                            response.statusCode().value())));
+        }
+        MediaType contentType = response.headers().contentType().orElse(MediaType.APPLICATION_JSON);
+        if (MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+            return response.bodyToFlux(SuggestedFix.class);
+        }
+        if (MediaType.TEXT_EVENT_STREAM.isCompatibleWith(contentType)) {
+            return response.bodyToFlux(SUGGESTION_EVENT)
+                    .handle((event, sink) -> {
+                        if ("error".equals(event.event())) {
+                            sink.error(new UpstreamServiceException("AI orchestrator stream failed",
+                                    HttpStatus.BAD_GATEWAY));
+                        } else if (event.data() != null) {
+                            sink.next(event.data());
+                        }
+                    });
+        }
+        // Orchestrators without streaming support answer with the whole response
+        return response.bodyToMono(SuggestionResponse.class)
+                .filter(suggestionResponse -> suggestionResponse.suggestions() != null)
+                .flatMapIterable(SuggestionResponse::suggestions);
     }
 
     public record IssueContext(String id, String type, String severity, String description, String selector, String pageUrl) {}
@@ -0,0 +1,114 @@
+package com.aiaca.api.client;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Idle timeout for streamed response bodies that only runs while the consumer is waiting for data. Reactor's
+ * {@code timeout} and Netty's read timeout also count the time a slow consumer spends not requesting, which
+ * fails a healthy stream whenever processing one batch takes longer than the timeout. Here the clock starts
+ * when demand is outstanding and restarts with every element, so it measures how long the upstream keeps a
+ * consumer that wants more waiting.
+ */
+final class IdleTimeout {
+    private final Duration timeout;
+    private final Scheduler scheduler;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long outstanding;
+    private MonoSink<Long> waiting;
+    private Disposable scheduled;
+
+    private IdleTimeout(Duration timeout, Scheduler scheduler) {
+        this.timeout = timeout;
+        this.scheduler = scheduler;
+    }
+
+    static <T> Flux<T> apply(Flux<T> source, Duration timeout) {
+        return apply(source, timeout, Schedulers.parallel());
+    }
+
+    static <T> Flux<T> apply(Flux<T> source, Duration timeout, Scheduler scheduler) {
+        return Flux.defer(() -> {
+            IdleTimeout idle = new IdleTimeout(timeout, scheduler);
+            return source
+                    .doOnNext(item -> idle.received())
+                    .timeout(idle.expiry(), item -> idle.expiry())
+                    .doOnRequest(idle::requested);
+        });
+    }
+
+    // A fresh expiry per element, as Flux#timeout expects; it only fires once demand is outstanding
+    private Mono<Long> expiry() {
+        return Mono.create(sink -> {
+            lock.lock();
+            try {
+                cancelScheduled();
+                waiting = sink;
+                if (outstanding > 0) {
+                    schedule(sink);
+                }
+            } finally {
+                lock.unlock();
+            }
+            sink.onDispose(() -> {
+                lock.lock();
+                try {
+                    if (waiting == sink) {
+                        waiting = null;
+                        cancelScheduled();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            });
+        });
+    }
+
+    private void requested(long n) {
+        lock.lock();
+        try {
+            boolean wasIdle = outstanding == 0;
+            outstanding = Operators.addCap(outstanding, n);
+            if (wasIdle && waiting != null) {
+                schedule(waiting);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void received() {
+        lock.lock();
+        try {
+            if (outstanding != Long.MAX_VALUE) {
+                outstanding--;
+            }
+            // The element resets the clock; Flux#timeout subscribes the next expiry right after it
+            cancelScheduled();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with the lock held
+    private void schedule(MonoSink<Long> sink) {
+        cancelScheduled();
+        scheduled = scheduler.schedule(() -> sink.success(0L), timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Called with the lock held
+    private void cancelScheduled() {
+        if (scheduled != null) {
+            scheduled.dispose();
+            scheduled = null;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.aiaca.api.client;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Discovers crawl pages from a seed URL: the seed itself plus same-host http(s) links found on it,
+ * one level deep. Falls back to the seed alone when the page cannot be fetched.
+ * <p>
+ * This is the one place the API process fetches a customer URL itself, so the seed host must resolve to public
+ * addresses only: loopback, private, link-local (cloud metadata), unique-local and similar ranges are refused
+ * before any request is made. Redirects are not followed (the external client's default), so a public seed
+ * cannot bounce the fetch to an internal host.
+ */
+@Component
+public class PageDiscoveryClient {
+    private static final Logger log = LoggerFactory.getLogger(PageDiscoveryClient.class);
+    private static final Pattern HREF = Pattern.compile("href\\s*=\\s*[\"']([^\"'#]+)", Pattern.CASE_INSENSITIVE);
+
+    private final WebClient webClient;
+    private final Duration timeout;
+
+    public PageDiscoveryClient(@Qualifier("externalWebClient") WebClient externalWebClient,
+                               @Value("${external.http.timeout-ms:8000}") long timeoutMs) {
+        this.webClient = externalWebClient;
+        this.timeout = Duration.ofMillis(timeoutMs);
+    }
+
+    public Mono<List<String>> discover(String seedUrl, int maxPages) {
+        return Mono.fromRunnable(() -> requirePublicHost(seedUrl))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(Mono.defer(() -> webClient.get()
+                        .uri(seedUrl)
+                        .accept(MediaType.TEXT_HTML)
+                        .retrieve()
+                        .bodyToMono(String.class)
+                        .timeout(timeout)))
+                .map(html -> extractLinks(seedUrl, html, maxPages))
+                .defaultIfEmpty(List.of(seedUrl))
+                .onErrorResume(ex -> {
+                    if (ex instanceof NonPublicHostException) {
+                        log.warn("Page discovery refused for {}: {}", seedUrl, ex.getMessage());
+                    } else if (causedBy(ex, DataBufferLimitException.class)) {
+                        log.warn("Page discovery skipped for {}: the seed page exceeds the in-memory size limit", seedUrl);
+                    } else {
+                        log.warn("Page discovery failed for {}: {}", seedUrl, ex.getMessage());
+                    }
+                    return Mono.just(List.of(seedUrl));
+                });
+    }
+
+    private static boolean causedBy(Throwable ex, Class<? extends Throwable> type) {
+        for (Throwable current = ex; current != null; current = current.getCause()) {
+            if (type.isInstance(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Blocking DNS lookup; every address must be public, or one private record would be enough to get in
+    private static void requirePublicHost(String seedUrl) {
+        String host = URI.create(seedUrl).getHost();
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(host);
+        } catch (UnknownHostException ex) {
+            throw new NonPublicHostException("cannot resolve " + host);
+        }
+        for (InetAddress address : addresses) {
+            if (!isPublic(address)) {
+                throw new NonPublicHostException(host + " resolves to non-public address " + address.getHostAddress());
+            }
+        }
+    }
+
+    static boolean isPublic(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet4Address) {
+            int first = bytes[0] & 0xff;
+            int second = bytes[1] & 0xff;
+            // 0.0.0.0/8, carrier-grade NAT 100.64.0.0/10, 198.18.0.0/15 benchmarking, 240.0.0.0/4 reserved
+            return first != 0
+                    && !(first == 100 && second >= 64 && second < 128)
+                    && !(first == 198 && (second == 18 || second == 19))
+                    && first < 240;
+        }
+        if (address instanceof Inet6Address) {
+            // Unique-local fc00::/7
+            return (bytes[0] & 0xfe) != 0xfc;
+        }
+        return false;
+    }
+
+    static List<String> extractLinks(String seedUrl, String html, int maxPages) {
+        URI seed = URI.create(seedUrl);
+        Set<String> pages = new LinkedHashSet<>();
+        pages.add(seedUrl);
+        Matcher matcher = HREF.matcher(html);
+        while (pages.size() < maxPages && matcher.find()) {
+            try {
+                URI link = seed.resolve(matcher.group(1).trim());
+                String scheme = link.getScheme();
+                if (("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))
+                        && seed.getHost().equalsIgnoreCase(link.getHost())) {
+                    pages.add(link.toString());
+                }
+            } catch (IllegalArgumentException ignored) {
+                // Malformed href; skip it
+            }
+        }
+        return List.copyOf(pages);
+    }
+
+    private static final class NonPublicHostException extends RuntimeException {
+        private NonPublicHostException(String message) {
+            super(message);
+        }
+    }
+}
@@ -2,54 +2,94 @@ package com.aiaca.api.client;
 
 import com.aiaca.api.config.CorrelationIdFilter;
 import com.aiaca.api.exception.UpstreamServiceException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
-import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
 
 @Component
 public class ScannerClient {
     private final WebClient webClient;
     private final String scannerServiceUrl;
     private final Duration timeout;
+    private final UpstreamGuard guard;
+    private final ObjectMapper objectMapper;
 
-    public ScannerClient(WebClient externalWebClient,
+    public ScannerClient(@Qualifier("scannerWebClient") WebClient webClient,
                          @Value("${scanner.service-url}") String scannerServiceUrl,
-                         @Value("${external.http.timeout-ms:8000}") long timeoutMs) {
-        this.webClient = externalWebClient;
+                         @Value("${external.http.timeout-ms:8000}") long timeoutMs,
+                         @Qualifier("scannerGuard") UpstreamGuard guard,
+                         ObjectMapper objectMapper) {
+        this.webClient = webClient;
         this.scannerServiceUrl = scannerServiceUrl;
         this.timeout = Duration.ofMillis(timeoutMs);
+        this.guard = guard;
+        this.objectMapper = objectMapper;
     }
 
-    public ScannerResponse scan(String url) {
-        try {
-            return webClient.post()
-                    .uri(scannerServiceUrl)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .header(CorrelationIdFilter.CORRELATION_HEADER, correlationId())
-                    .bodyValue(Map.of("url", url))
-                    .retrieve()
-                    .onStatus(status -> status.isError(), response -> response.bodyToMono(String.class)
-                            .defaultIfEmpty("scanner error")
-                            .flatMap(body -> Mono.error(new UpstreamServiceException(
-                                    "Scanner service error: " + body, HttpStatus.BAD_GATEWAY))))
-                    .bodyToMono(ScannerResponse.class)
-                    .timeout(timeout)
-                    .block();
-        } catch (Exception e) {
-            throw new UpstreamServiceException("Failed to contact scanner service", HttpStatus.BAD_GATEWAY, e);
-        }
+    public Mono<ScannerResponse> scanAsync(String url) {
+        return Mono.deferContextual(context -> guard.protect(webClient.post()
+                .uri(scannerServiceUrl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(CorrelationIdFilter.CORRELATION_HEADER, CorrelationIdFilter.correlationId(context))
+                .bodyValue(Map.of("url", url))
+                .retrieve()
+                .onStatus(status -> status.isError(), response -> response.bodyToMono(String.class)
+                        .defaultIfEmpty("scanner error")
+                        .flatMap(body -> Mono.error(new UpstreamServiceException(
+                                "Scanner service error: " + body, HttpStatus.BAD_GATEWAY,
+                                response.statusCode().value()))))
+                .bodyToMono(ScannerResponse.class)
+                .timeout(timeout)
+                .onErrorMap(e -> !(e instanceof UpstreamServiceException),
+                        e -> new UpstreamServiceException("Failed to contact scanner service", HttpStatus.BAD_GATEWAY, e))));
     }
 
-    private String correlationId() {
-        String value = MDC.get("correlationId");
-        return value != null ? value : "api-request";
+    /**
+     * Scans {@code url} and emits the reported issues in batches of up to {@code batchSize} while the response
+     * is still arriving. The body is never held in memory as a whole, so it is not subject to the codec's
+     * in-memory size limit; {@link #scanAsync(String)} is still preferred for ordinary pages.
+     */
+    public Flux<List<ScannerIssue>> scanIssuesAsync(String url, int batchSize) {
+        return guard.protect(Flux.deferContextual(context -> {
+                    ScannerIssueStreamDecoder decoder = new ScannerIssueStreamDecoder(objectMapper);
+                    return webClient.post()
+                            .uri(scannerServiceUrl)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .header(CorrelationIdFilter.CORRELATION_HEADER, CorrelationIdFilter.correlationId(context))
+                            // Netty's read timeout keeps running while the consumer applies backpressure; a zero
+                            // timeout disables it and the demand-aware idle timeout below takes over
+                            .httpRequest(request -> request.<HttpClientRequest>getNativeRequest()
+                                    .responseTimeout(Duration.ZERO))
+                            .bodyValue(Map.of("url", url))
+                            .retrieve()
+                            .onStatus(status -> status.isError(), response -> response.bodyToMono(String.class)
+                                    .defaultIfEmpty("scanner error")
+                                    .flatMap(body -> Mono.error(new UpstreamServiceException(
+                                            "Scanner service error: " + body, HttpStatus.BAD_GATEWAY,
+                                            response.statusCode().value()))))
+                            .bodyToFlux(DataBuffer.class)
+                            // Counts only while the decoder is asking for the next chunk (the first one included),
+                            // not while a slow batch downstream holds the stream back
+                            .transform(body -> IdleTimeout.apply(body, timeout))
+                            .concatMapIterable(decoder::decode, 1)
+                            .concatWith(Flux.defer(() -> Flux.fromIterable(decoder.finish())))
+                            .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+                })
+                .buffer(batchSize)
+                .onErrorMap(e -> !(e instanceof UpstreamServiceException),
+                        e -> new UpstreamServiceException("Failed to contact scanner service", HttpStatus.BAD_GATEWAY, e)));
     }
 
     public record ScannerIssue(String id, String type, String severity, String selector, String description, String helpUrl) {}
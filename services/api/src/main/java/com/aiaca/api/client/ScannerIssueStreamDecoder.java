@@ -0,0 +1,114 @@
+package com.aiaca.api.client;
+
+import com.aiaca.api.exception.UpstreamServiceException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Incrementally decodes the {@code issues} array of a scanner response as body chunks arrive, using Jackson's
+ * non-blocking parser. Only the issue currently being parsed is buffered, so memory does not grow with the
+ * number of issues; other top-level fields are skipped. Not thread-safe: one instance per response.
+ */
+final class ScannerIssueStreamDecoder {
+    private static final String ISSUES_FIELD = "issues";
+
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    // Open containers outside the issue being buffered; the root object is depth 1
+    private int depth;
+    private boolean inIssues;
+    private boolean rootClosed;
+    private TokenBuffer currentIssue;
+    private int issueDepth;
+
+    ScannerIssueStreamDecoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        try {
+            this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create streaming JSON parser", e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Feeds one body chunk, releasing it, and returns the issues completed by it.
+     */
+    List<ScannerClient.ScannerIssue> decode(DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            feeder.feedInput(bytes, 0, bytes.length);
+            return drain();
+        } catch (IOException e) {
+            throw malformed(e);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    /**
+     * Signals the end of the body and returns any issues still pending.
+     */
+    List<ScannerClient.ScannerIssue> finish() {
+        try {
+            feeder.endOfInput();
+            List<ScannerClient.ScannerIssue> issues = drain();
+            if (!rootClosed) {
+                throw malformed(null);
+            }
+            return issues;
+        } catch (IOException e) {
+            throw malformed(e);
+        }
+    }
+
+    private List<ScannerClient.ScannerIssue> drain() throws IOException {
+        List<ScannerClient.ScannerIssue> issues = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (currentIssue != null) {
+                currentIssue.copyCurrentEvent(parser);
+                if (token.isStructStart()) {
+                    issueDepth++;
+                } else if (token.isStructEnd() && --issueDepth == 0) {
+                    issues.add(objectMapper.readValue(currentIssue.asParser(objectMapper), ScannerClient.ScannerIssue.class));
+                    currentIssue = null;
+                }
+            } else if (token.isStructStart()) {
+                if (inIssues && depth == 2 && token == JsonToken.START_OBJECT) {
+                    currentIssue = new TokenBuffer(parser);
+                    currentIssue.copyCurrentEvent(parser);
+                    issueDepth = 1;
+                    continue;
+                }
+                if (depth == 1 && token == JsonToken.START_ARRAY && ISSUES_FIELD.equals(parser.currentName())) {
+                    inIssues = true;
+                }
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+                if (depth == 1) {
+                    inIssues = false;
+                } else if (depth == 0) {
+                    rootClosed = true;
+                }
+            }
+        }
+        return issues;
+    }
+
+    private static UpstreamServiceException malformed(IOException cause) {
+        return new UpstreamServiceException("Malformed scanner response", HttpStatus.BAD_GATEWAY, cause);
+    }
+}
@@ -0,0 +1,310 @@
+package com.aiaca.api.client;
+
+import com.aiaca.api.exception.UpstreamServiceException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Circuit breaker plus adaptive bulkhead for one upstream service. Calls beyond the current concurrency
+ * limit, or made while the breaker is open, fail immediately with a 503 {@link UpstreamServiceException}
+ * instead of waiting out the HTTP timeout.
+ *
+ * <p>The limit follows AIMD: it grows by one when a call succeeds under the latency threshold while the
+ * upstream is busy, and shrinks by {@code backoffRatio} on a failure or a slow call. The breaker opens when
+ * the failure rate over the last {@code windowSize} calls reaches the threshold, stays open for
+ * {@code openDuration}, then lets {@code halfOpenCalls} probes through; all must succeed to close it.
+ *
+ * <p>Only errors that say the upstream itself is unhealthy count as failures: transport errors, timeouts and
+ * 502/503/504 answers. Other error responses, such as the scanner's 400 for an invalid URL or its 500 when the
+ * customer's site is down, are the upstream working normally and count like a success.
+ */
+public class UpstreamGuard {
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    public record Settings(int failureRateThreshold,
+                           int windowSize,
+                           int minimumCalls,
+                           Duration openDuration,
+                           int halfOpenCalls,
+                           int initialLimit,
+                           int minLimit,
+                           int maxLimit,
+                           Duration latencyThreshold,
+                           double backoffRatio) {}
+
+    private final String upstream;
+    private final Settings settings;
+    private final LongSupplier nanoClock;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Ring buffer of recent outcomes, true for failure
+    private final boolean[] outcomes;
+    private final Counter circuitOpenRejections;
+    private final Counter limitRejections;
+    private int recorded;
+    private int next;
+    private int failures;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenStarted;
+    private int halfOpenSucceeded;
+    private double limit;
+    private int inFlight;
+
+    public UpstreamGuard(String upstream, Settings settings, MeterRegistry meterRegistry) {
+        this(upstream, settings, meterRegistry, System::nanoTime);
+    }
+
+    UpstreamGuard(String upstream, Settings settings, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.upstream = upstream;
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.outcomes = new boolean[settings.windowSize()];
+        this.limit = settings.initialLimit();
+        Tags tags = Tags.of("upstream", upstream);
+        meterRegistry.gauge("api_upstream_circuit_state", tags, this, guard -> guard.state().ordinal());
+        meterRegistry.gauge("api_upstream_concurrency_limit", tags, this, UpstreamGuard::limit);
+        meterRegistry.gauge("api_upstream_in_flight", tags, this, guard -> guard.inFlight);
+        this.circuitOpenRejections = meterRegistry.counter("api_upstream_rejected_total",
+                tags.and("reason", "circuit_open"));
+        this.limitRejections = meterRegistry.counter("api_upstream_rejected_total",
+                tags.and("reason", "concurrency_limit"));
+    }
+
+    /**
+     * Runs {@code call} if the breaker and the concurrency limit allow it. The permit is taken on subscription
+     * and returned when the call completes, fails or is cancelled.
+     */
+    public <T> Mono<T> protect(Mono<T> call) {
+        return Mono.defer(() -> {
+            Permit permit = acquire();
+            return call
+                    .doOnSuccess(value -> permit.succeeded())
+                    .doOnError(permit::errored)
+                    .doOnCancel(permit::cancelled);
+        });
+    }
+
+    /**
+     * Streaming variant of {@link #protect(Mono)}. The permit is held until the stream ends, but its latency is
+     * the time to the first element: the rest of a stream's duration depends mostly on how fast the consumer
+     * requests, and would otherwise shrink the limit of a healthy upstream.
+     */
+    public <T> Flux<T> protect(Flux<T> call) {
+        return Flux.defer(() -> {
+            Permit permit = acquire();
+            return call
+                    .doOnNext(item -> permit.firstElement())
+                    .doOnComplete(permit::succeeded)
+                    .doOnError(permit::errored)
+                    .doOnCancel(permit::cancelled);
+        });
+    }
+
+    static boolean isUpstreamFailure(Throwable ex) {
+        if (ex instanceof UpstreamServiceException upstreamEx && upstreamEx.getUpstreamStatus() != null) {
+            int status = upstreamEx.getUpstreamStatus();
+            return status == 502 || status == 503 || status == 504;
+        }
+        return true;
+    }
+
+    private Permit acquire() {
+        lock.lock();
+        try {
+            if (!admit()) {
+                throw new UpstreamServiceException(
+                        upstream + " is unavailable, please retry shortly", HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            inFlight++;
+            return new Permit(state == State.HALF_OPEN, nanoClock.getAsLong());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State state() {
+        lock.lock();
+        try {
+            if (state == State.OPEN && openElapsed()) {
+                return State.HALF_OPEN;
+            }
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with the lock held
+    private boolean admit() {
+        if (state == State.OPEN) {
+            if (!openElapsed()) {
+                circuitOpenRejections.increment();
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenStarted = 0;
+            halfOpenSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenStarted >= settings.halfOpenCalls()) {
+                circuitOpenRejections.increment();
+                return false;
+            }
+            halfOpenStarted++;
+            return true;
+        }
+        if (inFlight >= (int) limit) {
+            limitRejections.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private void onSuccess(boolean probe, long latencyNanos) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (latencyNanos > settings.latencyThreshold().toNanos()) {
+                decreaseLimit();
+            } else if (inFlight * 2 >= (int) limit) {
+                // Only grow while the limit is actually being used, or it drifts up during quiet periods
+                limit = Math.min(settings.maxLimit(), limit + 1);
+            }
+            if (probe) {
+                if (state == State.HALF_OPEN && ++halfOpenSucceeded >= settings.halfOpenCalls()) {
+                    close();
+                }
+            } else if (state == State.CLOSED) {
+                record(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onFailure(boolean probe) {
+        lock.lock();
+        try {
+            inFlight--;
+            decreaseLimit();
+            if (probe) {
+                if (state == State.HALF_OPEN) {
+                    open();
+                }
+            } else if (state == State.CLOSED) {
+                record(true);
+                if (recorded >= settings.minimumCalls()
+                        && failures * 100 >= settings.failureRateThreshold() * recorded) {
+                    open();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onCancel(boolean probe) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (probe && state == State.HALF_OPEN) {
+                // Give the slot back so another probe can decide
+                halfOpenStarted--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(boolean failure) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void decreaseLimit() {
+        limit = Math.max(settings.minLimit(), Math.floor(limit * settings.backoffRatio()));
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoClock.getAsLong();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+    }
+
+    private boolean openElapsed() {
+        return nanoClock.getAsLong() - openedAt >= settings.openDuration().toNanos();
+    }
+
+    private final class Permit {
+        private final boolean probe;
+        private final long startedAt;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private final AtomicBoolean started = new AtomicBoolean();
+        private volatile long firstElementAt;
+
+        private Permit(boolean probe, long startedAt) {
+            this.probe = probe;
+            this.startedAt = startedAt;
+        }
+
+        void firstElement() {
+            if (started.compareAndSet(false, true)) {
+                firstElementAt = nanoClock.getAsLong();
+            }
+        }
+
+        void succeeded() {
+            if (done.compareAndSet(false, true)) {
+                long endedAt = started.get() ? firstElementAt : nanoClock.getAsLong();
+                onSuccess(probe, endedAt - startedAt);
+            }
+        }
+
+        void errored(Throwable ex) {
+            if (!isUpstreamFailure(ex)) {
+                succeeded();
+            } else if (done.compareAndSet(false, true)) {
+                onFailure(probe);
+            }
+        }
+
+        void cancelled() {
+            if (done.compareAndSet(false, true)) {
+                onCancel(probe);
+            }
+        }
+    }
+}
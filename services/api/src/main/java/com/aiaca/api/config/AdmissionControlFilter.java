@@ -0,0 +1,217 @@
+package com.aiaca.api.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Sheds load at the edge instead of letting Tomcat queue requests until they time out. Each route class has
+ * an in-flight cap, halved while the class's smoothed latency is above its target; requests over the cap get
+ * 503 with {@code Retry-After} before authentication or any controller work. Stripe webhooks are tracked but
+ * never shed, and health/metrics probes bypass the filter entirely.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private static final Pattern SCAN_CREATE_PATH = Pattern.compile("^/api/v1/sites/[^/]+/scans(/crawl)?$");
+    private static final double LATENCY_SMOOTHING = 0.1;
+
+    enum RouteClass { SCAN_CREATE, READ, BILLING, WEBHOOK, OTHER }
+
+    private final boolean enabled;
+    private final long retryAfterSeconds;
+    private final byte[] shedBody;
+    private final Map<RouteClass, ClassState> classes = new EnumMap<>(RouteClass.class);
+
+    public AdmissionControlFilter(MeterRegistry meterRegistry,
+                                  @Value("${admission.enabled:true}") boolean enabled,
+                                  @Value("${admission.retry-after-seconds:5}") long retryAfterSeconds,
+                                  @Value("${admission.scan-create.max-in-flight:50}") int scanCreateLimit,
+                                  @Value("${admission.scan-create.latency-target-ms:2000}") long scanCreateTargetMs,
+                                  @Value("${admission.read.max-in-flight:150}") int readLimit,
+                                  @Value("${admission.read.latency-target-ms:500}") long readTargetMs,
+                                  @Value("${admission.billing.max-in-flight:50}") int billingLimit,
+                                  @Value("${admission.billing.latency-target-ms:2000}") long billingTargetMs,
+                                  @Value("${admission.other.max-in-flight:100}") int otherLimit,
+                                  @Value("${admission.other.latency-target-ms:1000}") long otherTargetMs) {
+        this.enabled = enabled;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.shedBody = "{\"code\":\"service_unavailable\",\"message\":\"Server is busy, please retry shortly\"}"
+                .getBytes(StandardCharsets.UTF_8);
+        classes.put(RouteClass.SCAN_CREATE, new ClassState(RouteClass.SCAN_CREATE, scanCreateLimit, scanCreateTargetMs, meterRegistry));
+        classes.put(RouteClass.READ, new ClassState(RouteClass.READ, readLimit, readTargetMs, meterRegistry));
+        classes.put(RouteClass.BILLING, new ClassState(RouteClass.BILLING, billingLimit, billingTargetMs, meterRegistry));
+        classes.put(RouteClass.WEBHOOK, new ClassState(RouteClass.WEBHOOK, Integer.MAX_VALUE, Long.MAX_VALUE, meterRegistry));
+        classes.put(RouteClass.OTHER, new ClassState(RouteClass.OTHER, otherLimit, otherTargetMs, meterRegistry));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        return path.startsWith("/health") || path.startsWith("/metrics") || path.startsWith("/prometheus");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ClassState state = classes.get(classify(request));
+        if (!state.tryAcquire()) {
+            state.shedCounter.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(shedBody);
+            return;
+        }
+
+        Permit permit = new Permit(state, System.nanoTime());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // Async requests (Mono results) hold their slot until they finish; event streams are long-lived
+            // and only count while the initial dispatch runs.
+            if (request.isAsyncStarted() && !isEventStream(request)) {
+                request.getAsyncContext().addListener(permit);
+            } else {
+                permit.release();
+            }
+        }
+    }
+
+    static RouteClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        String method = request.getMethod();
+        if (path.startsWith("/api/v1/webhooks/")) {
+            return RouteClass.WEBHOOK;
+        }
+        if (path.startsWith("/api/v1/billing/") || path.equals("/api/v1/users/me/subscription")) {
+            return RouteClass.BILLING;
+        }
+        if ("POST".equals(method) && (path.equals("/api/v1/public/scans") || SCAN_CREATE_PATH.matcher(path).matches())) {
+            return RouteClass.SCAN_CREATE;
+        }
+        if ("GET".equals(method) || "HEAD".equals(method)) {
+            return RouteClass.READ;
+        }
+        return RouteClass.OTHER;
+    }
+
+    private static boolean isEventStream(HttpServletRequest request) {
+        return request.getRequestURI().endsWith("/events");
+    }
+
+    private static final class ClassState {
+        private final int maxInFlight;
+        private final long latencyTargetNanos;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        // Smoothed latency in nanos, stored as double bits
+        private final AtomicLong smoothedLatency = new AtomicLong(Double.doubleToLongBits(0));
+        private final Timer latencyTimer;
+        private final Counter shedCounter;
+
+        private ClassState(RouteClass routeClass, int maxInFlight, long latencyTargetMs, MeterRegistry meterRegistry) {
+            this.maxInFlight = maxInFlight;
+            this.latencyTargetNanos = latencyTargetMs == Long.MAX_VALUE ? Long.MAX_VALUE
+                    : TimeUnit.MILLISECONDS.toNanos(latencyTargetMs);
+            Tags tags = Tags.of("class", routeClass.name().toLowerCase());
+            meterRegistry.gauge("api_admission_in_flight", tags, inFlight);
+            this.latencyTimer = meterRegistry.timer("api_admission_request_seconds", tags);
+            this.shedCounter = meterRegistry.counter("api_admission_shed_total", tags);
+            if (maxInFlight != Integer.MAX_VALUE) {
+                meterRegistry.gauge("api_admission_limit", tags, this, ClassState::effectiveLimit);
+            }
+        }
+
+        boolean tryAcquire() {
+            int limit = effectiveLimit();
+            while (true) {
+                int current = inFlight.get();
+                if (current >= limit) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void release(long latencyNanos) {
+            inFlight.decrementAndGet();
+            latencyTimer.record(latencyNanos, TimeUnit.NANOSECONDS);
+            smoothedLatency.getAndUpdate(bits -> Double.doubleToLongBits(
+                    Double.longBitsToDouble(bits) * (1 - LATENCY_SMOOTHING) + latencyNanos * LATENCY_SMOOTHING));
+        }
+
+        int effectiveLimit() {
+            if (maxInFlight == Integer.MAX_VALUE) {
+                return maxInFlight;
+            }
+            boolean slow = Double.longBitsToDouble(smoothedLatency.get()) > latencyTargetNanos;
+            return slow ? Math.max(1, maxInFlight / 2) : maxInFlight;
+        }
+    }
+
+    private static final class Permit implements AsyncListener {
+        private final ClassState state;
+        private final long startedAt;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(ClassState state, long startedAt) {
+            this.state = state;
+            this.startedAt = startedAt;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                state.release(System.nanoTime() - startedAt);
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -7,6 +7,8 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.MDC;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
 
 import java.io.IOException;
 import java.util.Optional;
@@ -15,6 +17,9 @@ import java.util.UUID;
 @Component
 public class CorrelationIdFilter extends OncePerRequestFilter {
     public static final String CORRELATION_HEADER = "X-Request-Id";
+    // MDC key, and the Reactor context key that carries the id across thread hops such as a ScanScheduler admission
+    public static final String CORRELATION_KEY = "correlationId";
+    private static final String FALLBACK_ID = "api-request";
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -23,15 +28,43 @@ public class CorrelationIdFilter extends OncePerRequestFilter {
                 .filter(header -> !header.isBlank())
                 .orElse(UUID.randomUUID().toString());
 
-        MDC.put("correlationId", correlationId);
+        MDC.put(CORRELATION_KEY, correlationId);
         MDC.put("requestPath", request.getRequestURI());
         response.addHeader(CORRELATION_HEADER, correlationId);
 
         try {
             filterChain.doFilter(request, response);
         } finally {
-            MDC.remove("correlationId");
+            MDC.remove(CORRELATION_KEY);
             MDC.remove("requestPath");
         }
     }
+
+    /**
+     * Context to {@code contextWrite} onto a pipeline whose upstream requests may be built on another thread;
+     * empty when there is no id.
+     */
+    public static Context context(String correlationId) {
+        return correlationId != null ? Context.of(CORRELATION_KEY, correlationId) : Context.empty();
+    }
+
+    // For outgoing requests: the pipeline's id, else the calling thread's, else a fixed marker
+    public static String correlationId(ContextView context) {
+        String value = context.getOrDefault(CORRELATION_KEY, MDC.get(CORRELATION_KEY));
+        return value != null ? value : FALLBACK_ID;
+    }
+
+    // Runs a terminal callback with the id in the MDC; callbacks run on Netty or boundedElastic threads
+    public static void runWith(String correlationId, Runnable action) {
+        if (correlationId == null) {
+            action.run();
+            return;
+        }
+        MDC.put(CORRELATION_KEY, correlationId);
+        try {
+            action.run();
+        } finally {
+            MDC.remove(CORRELATION_KEY);
+        }
+    }
 }
@@ -0,0 +1,54 @@
+package com.aiaca.api.config;
+
+import com.aiaca.api.repository.RateLimitWindowStore;
+import com.aiaca.api.service.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Per-route rate limit policies, keyed by client address. Inject with {@code @Qualifier} on the bean name.
+ * With {@code security.rate-limit.distributed.enabled} the limits are shared by all nodes through
+ * {@link RateLimitWindowStore}; otherwise each node enforces them on its own.
+ */
+@Configuration
+public class RateLimitConfig {
+    private final RateLimitWindowStore store;
+    private final boolean distributed;
+    private final double leaseFraction;
+    private final long maxKeys;
+
+    public RateLimitConfig(RateLimitWindowStore store,
+                           @Value("${security.rate-limit.distributed.enabled:false}") boolean distributed,
+                           @Value("${security.rate-limit.distributed.lease-fraction:0.1}") double leaseFraction,
+                           @Value("${security.rate-limit.max-keys:100000}") long maxKeys) {
+        this.store = store;
+        this.distributed = distributed;
+        this.leaseFraction = leaseFraction;
+        this.maxKeys = maxKeys;
+    }
+
+    @Bean
+    public RateLimiter publicScanRateLimiter(MeterRegistry meterRegistry,
+                                             @Value("${security.public-scan.rate-limit.max-requests:5}") int maxRequests,
+                                             @Value("${security.public-scan.rate-limit.window-ms:60000}") long windowMs) {
+        return limiter("public_scan", maxRequests, windowMs, meterRegistry);
+    }
+
+    @Bean
+    public RateLimiter authRateLimiter(MeterRegistry meterRegistry,
+                                       @Value("${security.auth.rate-limit.max-requests:20}") int maxRequests,
+                                       @Value("${security.auth.rate-limit.window-ms:60000}") long windowMs) {
+        return limiter("auth", maxRequests, windowMs, meterRegistry);
+    }
+
+    private RateLimiter limiter(String policy, int maxRequests, long windowMs, MeterRegistry meterRegistry) {
+        if (!distributed) {
+            return new RateLimiter(policy, maxRequests, windowMs, maxKeys, meterRegistry);
+        }
+        // Smaller leases keep the cluster-wide count tighter when one client's requests spread over nodes
+        int leaseSize = (int) Math.max(1, Math.floor(maxRequests * leaseFraction));
+        return new RateLimiter(policy, maxRequests, windowMs, maxKeys, meterRegistry, store, leaseSize);
+    }
+}
@@ -0,0 +1,64 @@
+package com.aiaca.api.config;
+
+import com.aiaca.api.client.UpstreamGuard;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * One {@link UpstreamGuard} per upstream service, so a slow scanner cannot use up the capacity of the AI
+ * orchestrator or of unrelated endpoints. Breaker settings are shared; concurrency limits are per upstream.
+ * Inject with {@code @Qualifier} on the bean name.
+ */
+@Configuration
+public class UpstreamGuardConfig {
+    private final int failureRateThreshold;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final long openDurationMs;
+    private final int halfOpenCalls;
+    private final int minLimit;
+    private final double backoffRatio;
+
+    public UpstreamGuardConfig(@Value("${upstream.circuit.failure-rate-threshold:50}") int failureRateThreshold,
+                               @Value("${upstream.circuit.window-size:20}") int windowSize,
+                               @Value("${upstream.circuit.minimum-calls:10}") int minimumCalls,
+                               @Value("${upstream.circuit.open-duration-ms:30000}") long openDurationMs,
+                               @Value("${upstream.circuit.half-open-calls:3}") int halfOpenCalls,
+                               @Value("${upstream.limit.min:1}") int minLimit,
+                               @Value("${upstream.limit.backoff-ratio:0.9}") double backoffRatio) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.openDurationMs = openDurationMs;
+        this.halfOpenCalls = halfOpenCalls;
+        this.minLimit = minLimit;
+        this.backoffRatio = backoffRatio;
+    }
+
+    @Bean
+    public UpstreamGuard scannerGuard(MeterRegistry meterRegistry,
+                                      @Value("${upstream.scanner.limit.initial:32}") int initialLimit,
+                                      @Value("${upstream.scanner.limit.max:64}") int maxLimit,
+                                      @Value("${upstream.scanner.limit.latency-threshold-ms:6000}") long latencyThresholdMs) {
+        return guard("scanner", initialLimit, maxLimit, latencyThresholdMs, meterRegistry);
+    }
+
+    @Bean
+    public UpstreamGuard aiOrchestratorGuard(MeterRegistry meterRegistry,
+                                             @Value("${upstream.ai-orchestrator.limit.initial:16}") int initialLimit,
+                                             @Value("${upstream.ai-orchestrator.limit.max:64}") int maxLimit,
+                                             @Value("${upstream.ai-orchestrator.limit.latency-threshold-ms:6000}") long latencyThresholdMs) {
+        return guard("ai_orchestrator", initialLimit, maxLimit, latencyThresholdMs, meterRegistry);
+    }
+
+    private UpstreamGuard guard(String upstream, int initialLimit, int maxLimit, long latencyThresholdMs,
+                                MeterRegistry meterRegistry) {
+        UpstreamGuard.Settings settings = new UpstreamGuard.Settings(failureRateThreshold, windowSize, minimumCalls,
+                Duration.ofMillis(openDurationMs), halfOpenCalls, initialLimit, minLimit, maxLimit,
+                Duration.ofMillis(latencyThresholdMs), backoffRatio);
+        return new UpstreamGuard(upstream, settings, meterRegistry);
+    }
+}
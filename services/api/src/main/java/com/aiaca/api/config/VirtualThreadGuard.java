@@ -0,0 +1,56 @@
+package com.aiaca.api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Startup checks for the virtual-thread execution mode. Virtual threads remove the Tomcat thread cap,
+ * so the Hikari pool becomes the effective JDBC concurrency limit, and any driver that blocks inside
+ * {@code synchronized} pins its carrier thread.
+ */
+@Component
+public class VirtualThreadGuard {
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadGuard.class);
+
+    private final DataSource dataSource;
+    private final boolean virtualThreads;
+    private final int scanWorkerPoolSize;
+
+    public VirtualThreadGuard(DataSource dataSource,
+                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                              @Value("${scan.worker.pool-size:4}") int scanWorkerPoolSize) {
+        this.dataSource = dataSource;
+        this.virtualThreads = virtualThreads;
+        this.scanWorkerPoolSize = scanWorkerPoolSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verify() {
+        if (!virtualThreads) {
+            return;
+        }
+        log.info("Virtual threads enabled for request handling, scheduled jobs and scan workers");
+
+        if (dataSource instanceof HikariDataSource hikari) {
+            int maxPoolSize = hikari.getMaximumPoolSize();
+            if (maxPoolSize < scanWorkerPoolSize) {
+                log.warn("Hikari maximum-pool-size ({}) is below scan.worker.pool-size ({}); scan workers will queue on connections",
+                        maxPoolSize, scanWorkerPoolSize);
+            }
+            String jdbcUrl = hikari.getJdbcUrl();
+            if (jdbcUrl != null && jdbcUrl.startsWith("jdbc:h2:")) {
+                log.warn("H2 synchronizes internally and pins virtual threads; use PostgreSQL when benchmarking virtual threads");
+            }
+        }
+
+        if (System.getProperty("jdk.tracePinnedThreads") == null) {
+            log.info("Start with -Djdk.tracePinnedThreads=short to log virtual threads pinned by synchronized blocks");
+        }
+    }
+}
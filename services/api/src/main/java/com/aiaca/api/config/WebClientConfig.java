@@ -1,28 +1,109 @@
 package com.aiaca.api.config;
 
 import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
 import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+/**
+ * One WebClient per upstream, each on its own named connection pool, so a slow orchestrator holding its
+ * connections cannot starve scanner calls. Pools are bounded, queue at most {@code pending-acquire-max} callers
+ * for {@code pending-acquire-timeout-ms}, and publish {@code reactor_netty_connection_provider_*} gauges
+ * tagged with the pool name.
+ */
 @Configuration
 public class WebClientConfig {
+    private static final int MAX_IN_MEMORY_SIZE = 2 * 1024 * 1024;
+
+    private final long timeoutMs;
+    private final long maxIdleMs;
+    private final long maxLifeMs;
+    private final List<ConnectionProvider> providers = new CopyOnWriteArrayList<>();
+
+    public WebClientConfig(@Value("${external.http.timeout-ms:8000}") long timeoutMs,
+                           @Value("${external.http.pool.max-idle-ms:4000}") long maxIdleMs,
+                           @Value("${external.http.pool.max-life-ms:300000}") long maxLifeMs) {
+        this.timeoutMs = timeoutMs;
+        this.maxIdleMs = maxIdleMs;
+        this.maxLifeMs = maxLifeMs;
+    }
+
+    @Bean
+    public WebClient scannerWebClient(@Value("${upstream.scanner.pool.max-connections:64}") int maxConnections,
+                                      @Value("${upstream.scanner.pool.pending-acquire-max:128}") int pendingAcquireMax,
+                                      @Value("${upstream.scanner.pool.pending-acquire-timeout-ms:2000}") long pendingAcquireTimeoutMs,
+                                      @Value("${upstream.scanner.http.protocol:http1}") String protocol) {
+        return webClient("scanner", maxConnections, pendingAcquireMax, pendingAcquireTimeoutMs, protocol);
+    }
+
+    @Bean
+    public WebClient aiOrchestratorWebClient(@Value("${upstream.ai-orchestrator.pool.max-connections:64}") int maxConnections,
+                                             @Value("${upstream.ai-orchestrator.pool.pending-acquire-max:128}") int pendingAcquireMax,
+                                             @Value("${upstream.ai-orchestrator.pool.pending-acquire-timeout-ms:2000}") long pendingAcquireTimeoutMs,
+                                             @Value("${upstream.ai-orchestrator.http.protocol:http1}") String protocol) {
+        return webClient("ai_orchestrator", maxConnections, pendingAcquireMax, pendingAcquireTimeoutMs, protocol);
+    }
+
+    // Arbitrary customer sites (crawl page discovery); always negotiated over HTTP/1.1
     @Bean
-    public WebClient externalWebClient(@Value("${external.http.timeout-ms:8000}") long timeoutMs) {
-        HttpClient httpClient = HttpClient.create()
+    public WebClient externalWebClient(@Value("${external.http.pool.max-connections:32}") int maxConnections,
+                                       @Value("${external.http.pool.pending-acquire-max:64}") int pendingAcquireMax,
+                                       @Value("${external.http.pool.pending-acquire-timeout-ms:2000}") long pendingAcquireTimeoutMs) {
+        return webClient("external", maxConnections, pendingAcquireMax, pendingAcquireTimeoutMs, "http1");
+    }
+
+    private WebClient webClient(String name, int maxConnections, int pendingAcquireMax, long pendingAcquireTimeoutMs,
+                                String protocol) {
+        // Idle connections are dropped before the upstream's keep-alive timeout (5s for Node servers), so a
+        // request is never written to a socket the server is about to close
+        ConnectionProvider provider = ConnectionProvider.builder(name)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleMs))
+                .maxLifeTime(Duration.ofMillis(maxLifeMs))
+                .evictInBackground(Duration.ofMillis(maxIdleMs))
+                .metrics(true)
+                .build();
+        providers.add(provider);
+
+        HttpClient httpClient = HttpClient.create(provider)
+                .protocol(protocols(protocol))
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(timeoutMs))
+                .option(ChannelOption.SO_KEEPALIVE, true)
                 .responseTimeout(Duration.ofMillis(timeoutMs));
 
         return WebClient.builder()
                 .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .exchangeStrategies(ExchangeStrategies.builder()
-                        .codecs(config -> config.defaultCodecs().maxInMemorySize(2 * 1024 * 1024))
+                        .codecs(config -> config.defaultCodecs().maxInMemorySize(MAX_IN_MEMORY_SIZE))
                         .build())
                 .build();
     }
+
+    // h2c uses prior knowledge, so only enable it for upstreams known to speak cleartext HTTP/2
+    private static HttpProtocol[] protocols(String protocol) {
+        return switch (protocol.toLowerCase(Locale.ROOT)) {
+            case "http1" -> new HttpProtocol[] {HttpProtocol.HTTP11};
+            case "h2" -> new HttpProtocol[] {HttpProtocol.H2, HttpProtocol.HTTP11};
+            case "h2c" -> new HttpProtocol[] {HttpProtocol.H2C};
+            default -> throw new IllegalArgumentException("Unknown upstream protocol: " + protocol);
+        };
+    }
+
+    @PreDestroy
+    public void disposePools() {
+        providers.forEach(ConnectionProvider::dispose);
+    }
 }
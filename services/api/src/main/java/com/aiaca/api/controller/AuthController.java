@@ -2,10 +2,13 @@ package com.aiaca.api.controller;
 
 import com.aiaca.api.dto.AuthDtos;
 import com.aiaca.api.service.AuthService;
+import com.aiaca.api.service.RateLimiter;
 import com.aiaca.api.security.JwtService;
 import com.aiaca.api.service.billing.StripeCheckoutService;
 import com.aiaca.api.repository.UserRepository;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
@@ -22,17 +25,20 @@ public class AuthController {
     private final JwtService jwtService;
     private final StripeCheckoutService stripeCheckoutService;
     private final UserRepository userRepository;
+    private final RateLimiter rateLimiter;
     private final String successUrl;
     private final String cancelUrl;
 
     public AuthController(AuthService authService, JwtService jwtService, StripeCheckoutService stripeCheckoutService,
                           UserRepository userRepository,
+                          @Qualifier("authRateLimiter") RateLimiter rateLimiter,
                           @Value("${billing.stripe.success-url}") String successUrl,
                           @Value("${billing.stripe.cancel-url}") String cancelUrl) {
         this.authService = authService;
         this.jwtService = jwtService;
         this.stripeCheckoutService = stripeCheckoutService;
         this.userRepository = userRepository;
+        this.rateLimiter = rateLimiter;
         this.successUrl = successUrl;
         this.cancelUrl = cancelUrl;
     }
@@ -47,7 +53,9 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthDtos.AuthResponse> login(@Valid @RequestBody AuthDtos.LoginRequest request) {
+    public ResponseEntity<AuthDtos.AuthResponse> login(@Valid @RequestBody AuthDtos.LoginRequest request,
+                                                       HttpServletRequest httpRequest) {
+        rateLimiter.assertWithinLimit(httpRequest.getRemoteAddr());
         return ResponseEntity.ok(authService.login(request));
     }
 
@@ -62,7 +70,9 @@ public class AuthController {
 
     @PostMapping("/register-checkout")
     public ResponseEntity<AuthDtos.RegisterCheckoutResponse> registerCheckout(
-            @Valid @RequestBody AuthDtos.RegisterCheckoutRequest request) {
+            @Valid @RequestBody AuthDtos.RegisterCheckoutRequest request,
+            HttpServletRequest httpRequest) {
+        rateLimiter.assertWithinLimit(httpRequest.getRemoteAddr());
         com.aiaca.api.model.User user = authService.createUserWithoutLogin(
                 request.email(),
                 request.password(),
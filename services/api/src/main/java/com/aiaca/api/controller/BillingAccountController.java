@@ -6,12 +6,12 @@ import com.aiaca.api.model.billing.Account;
 import com.aiaca.api.model.billing.Contact;
 import com.aiaca.api.model.billing.PaymentMethod;
 import com.aiaca.api.model.billing.enums.AccountStatus;
+import com.aiaca.api.security.UserCache;
 import com.aiaca.api.security.UserPrincipal;
 import com.aiaca.api.service.billing.AccountService;
 import com.aiaca.api.service.billing.AuditLogService;
 import com.aiaca.api.service.billing.BillingMapper;
 import com.aiaca.api.service.billing.IdempotencyService;
-import com.aiaca.api.repository.UserRepository;
 import jakarta.validation.Valid;
 import java.util.List;
 import java.util.UUID;
@@ -37,18 +37,18 @@ public class BillingAccountController {
     private final AccountService accountService;
     private final BillingMapper billingMapper;
     private final IdempotencyService idempotencyService;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
     private final AuditLogService auditLogService;
 
     public BillingAccountController(AccountService accountService,
                                     BillingMapper billingMapper,
                                     IdempotencyService idempotencyService,
-                                    UserRepository userRepository,
+                                    UserCache userCache,
                                     AuditLogService auditLogService) {
         this.accountService = accountService;
         this.billingMapper = billingMapper;
         this.idempotencyService = idempotencyService;
-        this.userRepository = userRepository;
+        this.userCache = userCache;
         this.auditLogService = auditLogService;
     }
 
@@ -70,7 +70,7 @@ public class BillingAccountController {
     public ResponseEntity<AccountResponse> createAccount(@AuthenticationPrincipal UserPrincipal principal,
                                                          @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
                                                          @Valid @RequestBody CreateAccountRequest request) {
-        User owner = userRepository.findById(principal.getId()).orElseThrow();
+        User owner = userCache.require(principal.getId());
         idempotencyService.assertOrRecord(null, idempotencyKey, null, null, "ACCOUNT", null);
         Account account = accountService.createAccount(owner, request);
         auditLogService.record(account.getId(), principal.getId(), principal.getEmail(), "ACCOUNT_CREATED", "ACCOUNT", account.getId().toString(), null, null);
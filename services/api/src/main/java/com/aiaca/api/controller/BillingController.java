@@ -4,6 +4,7 @@ import com.aiaca.api.exception.BadRequestException;
 import com.aiaca.api.model.User;
 import com.aiaca.api.model.billing.enums.SubscriptionStatus;
 import com.aiaca.api.repository.UserRepository;
+import com.aiaca.api.security.UserCache;
 import com.aiaca.api.security.UserPrincipal;
 import com.aiaca.api.service.billing.StripeCheckoutService;
 import org.springframework.beans.factory.annotation.Value;
@@ -21,6 +22,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class BillingController {
     private final StripeCheckoutService stripeCheckoutService;
     private final UserRepository userRepository;
+    private final UserCache userCache;
     private final String successUrl;
     private final String cancelUrl;
     private final String returnUrl;
@@ -28,11 +30,13 @@ public class BillingController {
     public BillingController(
             StripeCheckoutService stripeCheckoutService,
             UserRepository userRepository,
+            UserCache userCache,
             @Value("${billing.stripe.success-url}") String successUrl,
             @Value("${billing.stripe.cancel-url}") String cancelUrl,
             @Value("${billing.stripe.return-url:http://localhost:4200/overview}") String returnUrl) {
         this.stripeCheckoutService = stripeCheckoutService;
         this.userRepository = userRepository;
+        this.userCache = userCache;
         this.successUrl = successUrl;
         this.cancelUrl = cancelUrl;
         this.returnUrl = returnUrl;
@@ -41,7 +45,7 @@ public class BillingController {
     @GetMapping("/users/me/subscription")
     public ResponseEntity<SubscriptionStatusResponse> getSubscriptionStatus(
             @AuthenticationPrincipal UserPrincipal principal) {
-        User user = userRepository.findById(principal.getId())
+        User user = userCache.get(principal.getId())
                 .orElseThrow(() -> new BadRequestException("User not found"));
 
         SubscriptionStatus status = user.getSubscriptionStatus();
@@ -71,6 +75,7 @@ public class BillingController {
         if (session.customerId() != null && !session.customerId().isBlank()) {
             user.setStripeCustomerId(session.customerId());
             userRepository.save(user);
+            userCache.evict(user.getId());
         }
 
         return ResponseEntity.ok(new CheckoutSessionResponse(session.checkoutUrl()));
@@ -79,7 +84,7 @@ public class BillingController {
     @PostMapping("/billing/portal-session")
     public ResponseEntity<PortalSessionResponse> createPortalSession(
             @AuthenticationPrincipal UserPrincipal principal) {
-        User user = userRepository.findById(principal.getId())
+        User user = userCache.get(principal.getId())
                 .orElseThrow(() -> new BadRequestException("User not found"));
 
         String stripeCustomerId = user.getStripeCustomerId();
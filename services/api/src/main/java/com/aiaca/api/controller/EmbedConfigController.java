@@ -1,10 +1,11 @@
 package com.aiaca.api.controller;
 
 import com.aiaca.api.dto.EmbedConfigDto;
-import com.aiaca.api.model.User;
 import com.aiaca.api.security.UserPrincipal;
-import com.aiaca.api.service.SiteService;
-import com.aiaca.api.repository.UserRepository;
+import com.aiaca.api.service.EmbedConfigService;
+import com.aiaca.api.service.EmbedConfigSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -15,33 +16,44 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/sites")
 @PreAuthorize("!hasAnyRole('ADMIN','OPERATOR','VIEWER')")
 public class EmbedConfigController {
-    private final SiteService siteService;
-    private final UserRepository userRepository;
+    private final EmbedConfigService embedConfigService;
+    private final Duration maxAge;
 
-    public EmbedConfigController(SiteService siteService, UserRepository userRepository) {
-        this.siteService = siteService;
-        this.userRepository = userRepository;
+    public EmbedConfigController(EmbedConfigService embedConfigService,
+                                 @Value("${embed.config.max-age-seconds:60}") long maxAgeSeconds) {
+        this.embedConfigService = embedConfigService;
+        this.maxAge = Duration.ofSeconds(maxAgeSeconds);
     }
 
+    /**
+     * Returns the materialized embed config with a strong ETag; a matching {@code If-None-Match} is answered
+     * with 304 by Spring MVC before the body is written.
+     */
     @GetMapping("/{id}/embed-config")
     public ResponseEntity<EmbedConfigDto> getEmbedConfig(@PathVariable UUID id,
                                                          @RequestHeader(value = "X-Embed-Key", required = false) String embedKey,
                                                          @AuthenticationPrincipal UserPrincipal principal) {
         if (embedKey != null) {
-            var site = siteService.getByEmbedKey(id, embedKey);
-            return ResponseEntity.ok(siteService.toEmbedConfig(site));
+            return respond(embedConfigService.getForEmbedKey(id, embedKey), CacheControl.maxAge(maxAge).cachePublic());
         }
         if (principal != null) {
-            User owner = userRepository.findById(principal.getId()).orElseThrow();
-            var site = siteService.getSite(owner, id);
-            return ResponseEntity.ok(siteService.toEmbedConfig(site));
+            return respond(embedConfigService.getForOwner(id, principal.getId()), CacheControl.maxAge(maxAge).cachePrivate());
         }
         return ResponseEntity.status(401).header(HttpHeaders.WWW_AUTHENTICATE, "Bearer").build();
     }
+
+    private ResponseEntity<EmbedConfigDto> respond(EmbedConfigSnapshot snapshot, CacheControl cacheControl) {
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(cacheControl)
+                .varyBy("X-Embed-Key", HttpHeaders.AUTHORIZATION)
+                .body(snapshot.config());
+    }
 }
@@ -3,25 +3,29 @@ package com.aiaca.api.controller;
 import com.aiaca.api.dto.PublicScanDtos;
 import com.aiaca.api.dto.ScanDtos;
 import com.aiaca.api.service.RateLimiter;
-import com.aiaca.api.service.ScanService;
+import com.aiaca.api.service.PublicScanCache;
 import com.aiaca.api.service.UrlSanitizer;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/api/v1/public")
 public class PublicScanController {
-    private final ScanService scanService;
+    private final PublicScanCache publicScanCache;
     private final RateLimiter rateLimiter;
     private final UrlSanitizer urlSanitizer;
 
-    public PublicScanController(ScanService scanService, RateLimiter rateLimiter, UrlSanitizer urlSanitizer) {
-        this.scanService = scanService;
+    public PublicScanController(PublicScanCache publicScanCache,
+                                @Qualifier("publicScanRateLimiter") RateLimiter rateLimiter,
+                                UrlSanitizer urlSanitizer) {
+        this.publicScanCache = publicScanCache;
         this.rateLimiter = rateLimiter;
         this.urlSanitizer = urlSanitizer;
     }
@@ -30,13 +34,16 @@ public class PublicScanController {
     private static final String FREE_SCAN_UPGRADE_MESSAGE = "Sign up for the full report";
 
     @PostMapping("/scans")
-    public ResponseEntity<PublicScanDtos.PublicScanResponse> createPublicScan(@Valid @RequestBody PublicScanDtos.PublicScanRequest request,
-                                                                              HttpServletRequest httpRequest) {
+    public Mono<ResponseEntity<PublicScanDtos.PublicScanResponse>> createPublicScan(@Valid @RequestBody PublicScanDtos.PublicScanRequest request,
+                                                                                    HttpServletRequest httpRequest) {
         String key = httpRequest.getRemoteAddr();
         rateLimiter.assertWithinLimit(key);
         String sanitizedUrl = urlSanitizer.sanitize(request.url());
-        ScanDtos.ScanDetail result = scanService.createPublicScan(sanitizedUrl);
+        return publicScanCache.get(sanitizedUrl)
+                .map(result -> ResponseEntity.ok(toPublicResponse(sanitizedUrl, result)));
+    }
 
+    private PublicScanDtos.PublicScanResponse toPublicResponse(String sanitizedUrl, ScanDtos.ScanDetail result) {
         // Free scan: limit to top 5 issues, no suggestions included
         int totalIssues = result.issues().size();
         var limitedIssues = result.issues().stream()
@@ -46,7 +53,7 @@ public class PublicScanController {
                 .toList();
 
         boolean isLimited = totalIssues > FREE_SCAN_MAX_ISSUES;
-        PublicScanDtos.PublicScanResponse response = new PublicScanDtos.PublicScanResponse(
+        return new PublicScanDtos.PublicScanResponse(
                 sanitizedUrl,
                 result.score(),
                 limitedIssues,
@@ -54,6 +61,5 @@ public class PublicScanController {
                 isLimited ? totalIssues : null,
                 isLimited ? FREE_SCAN_UPGRADE_MESSAGE : null
         );
-        return ResponseEntity.ok(response);
     }
 }
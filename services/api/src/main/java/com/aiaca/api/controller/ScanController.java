@@ -4,15 +4,18 @@ import com.aiaca.api.dto.ScanDtos;
 import com.aiaca.api.model.Site;
 import com.aiaca.api.model.User;
 import com.aiaca.api.security.RequiresSubscription;
+import com.aiaca.api.security.UserCache;
 import com.aiaca.api.security.UserPrincipal;
+import com.aiaca.api.service.ScanProgressPublisher;
 import com.aiaca.api.service.ScanService;
 import com.aiaca.api.service.SiteService;
 import com.aiaca.api.service.UrlSanitizer;
-import com.aiaca.api.repository.UserRepository;
 import com.aiaca.api.model.billing.enums.SubscriptionStatus;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -24,24 +27,32 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1")
 @PreAuthorize("!hasAnyRole('ADMIN','OPERATOR','VIEWER')")
 public class ScanController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ScanService scanService;
     private final SiteService siteService;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
     private final UrlSanitizer urlSanitizer;
+    private final ScanProgressPublisher scanProgressPublisher;
 
-    public ScanController(ScanService scanService, SiteService siteService, UserRepository userRepository, UrlSanitizer urlSanitizer) {
+    public ScanController(ScanService scanService, SiteService siteService, UserCache userCache, UrlSanitizer urlSanitizer,
+                          ScanProgressPublisher scanProgressPublisher) {
         this.scanService = scanService;
         this.siteService = siteService;
-        this.userRepository = userRepository;
+        this.userCache = userCache;
         this.urlSanitizer = urlSanitizer;
+        this.scanProgressPublisher = scanProgressPublisher;
     }
 
     @PostMapping("/sites/{siteId}/scans")
@@ -49,44 +60,110 @@ public class ScanController {
     public ResponseEntity<ScanDtos.ScanDetail> createScan(@AuthenticationPrincipal UserPrincipal principal,
                                                           @PathVariable UUID siteId,
                                                           @Valid @RequestBody ScanDtos.CreateScanRequest request) {
-        User owner = userRepository.findById(principal.getId()).orElseThrow();
+        User owner = userCache.require(principal.getId());
         Site site = siteService.getSite(owner, siteId);
         String sanitizedUrl = urlSanitizer.sanitize(request.pageUrl());
         var scan = scanService.createScan(site, sanitizedUrl);
-        return ResponseEntity.ok(scanService.toDetail(scan));
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/scans/" + scan.getId()))
+                .body(scanService.toDetail(scan));
+    }
+
+    @PostMapping("/sites/{siteId}/scans/crawl")
+    @RequiresSubscription
+    public ResponseEntity<ScanDtos.ScanDetail> createCrawlScan(@AuthenticationPrincipal UserPrincipal principal,
+                                                               @PathVariable UUID siteId,
+                                                               @Valid @RequestBody ScanDtos.CreateCrawlScanRequest request) {
+        User owner = userCache.require(principal.getId());
+        Site site = siteService.getSite(owner, siteId);
+        String seedUrl = request.seedUrl() != null ? urlSanitizer.sanitize(request.seedUrl()) : null;
+        List<String> pageUrls = request.pageUrls() == null ? List.of()
+                : request.pageUrls().stream().map(urlSanitizer::sanitize).distinct().toList();
+        var scan = scanService.createCrawlScan(site, seedUrl, pageUrls, request.maxPages());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/scans/" + scan.getId()))
+                .body(scanService.toDetail(scan));
     }
 
     @GetMapping("/scans")
     @RequiresSubscription(allowPastDueReads = true)
-    public ResponseEntity<List<ScanDtos.ScanSummary>> listAllScans(@AuthenticationPrincipal UserPrincipal principal) {
-        User owner = userRepository.findById(principal.getId()).orElseThrow();
-        List<ScanDtos.ScanSummary> scans = scanService.listByUser(owner).stream().map(scanService::toSummary).toList();
-        return ResponseEntity.ok(scans);
+    public ResponseEntity<List<ScanDtos.ScanSummary>> listAllScans(@AuthenticationPrincipal UserPrincipal principal,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(required = false) Integer limit) {
+        User owner = userCache.require(principal.getId());
+        return toPageResponse(scanService.listByUser(owner, cursor, limit));
     }
 
     @GetMapping("/sites/{siteId}/scans")
     @RequiresSubscription(allowPastDueReads = true)
     public ResponseEntity<List<ScanDtos.ScanSummary>> listScans(@AuthenticationPrincipal UserPrincipal principal,
-                                                                @PathVariable UUID siteId) {
-        User owner = userRepository.findById(principal.getId()).orElseThrow();
+                                                                @PathVariable UUID siteId,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer limit) {
+        User owner = userCache.require(principal.getId());
         Site site = siteService.getSite(owner, siteId);
-        List<ScanDtos.ScanSummary> scans = scanService.listBySite(site).stream().map(scanService::toSummary).toList();
-        return ResponseEntity.ok(scans);
+        return toPageResponse(scanService.listBySite(site, cursor, limit));
+    }
+
+    // The body stays a plain array for existing clients; the next page is advertised in a header
+    private ResponseEntity<List<ScanDtos.ScanSummary>> toPageResponse(ScanDtos.ScanPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
     }
 
     @GetMapping("/scans/{id}")
     @RequiresSubscription(allowPastDueReads = true)
     public ResponseEntity<ScanDtos.ScanDetail> getScan(@AuthenticationPrincipal UserPrincipal principal,
                                                        @PathVariable UUID id) {
-        User owner = userRepository.findById(principal.getId()).orElseThrow();
-        var scan = scanService.getById(id);
-        if (!scan.getSite().getOwner().getId().equals(owner.getId())) {
+        User owner = userCache.require(principal.getId());
+        if (!scanService.getOwnerId(id).equals(owner.getId())) {
             return ResponseEntity.status(403).build();
         }
         boolean includeSuggestions = shouldIncludeSuggestions(principal);
         return ResponseEntity.ok(scanService.getDetailById(id, includeSuggestions));
     }
 
+    @GetMapping(value = "/scans/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @RequiresSubscription(allowPastDueReads = true)
+    public ResponseEntity<Flux<ServerSentEvent<ScanDtos.ScanProgressEvent>>> streamScanEvents(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @PathVariable UUID id) {
+        return streamProgress(principal, id)
+                .map(events -> ResponseEntity.ok(events.map(event -> ServerSentEvent.builder(event)
+                        .event(event.type())
+                        .build())))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.FORBIDDEN).build());
+    }
+
+    @GetMapping(value = "/scans/{id}/events", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @RequiresSubscription(allowPastDueReads = true)
+    public ResponseEntity<Flux<ScanDtos.ScanProgressEvent>> streamScanEventsNdjson(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @PathVariable UUID id) {
+        return streamProgress(principal, id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.FORBIDDEN).build());
+    }
+
+    private Optional<Flux<ScanDtos.ScanProgressEvent>> streamProgress(UserPrincipal principal, UUID id) {
+        User owner = userCache.require(principal.getId());
+        if (!scanService.getOwnerId(id).equals(owner.getId())) {
+            return Optional.empty();
+        }
+        boolean includeSuggestions = shouldIncludeSuggestions(principal);
+        return Optional.of(scanProgressPublisher.stream(id, () -> scanService.getProgressSnapshot(id))
+                .map(event -> includeSuggestions || event.issue() == null ? event : withoutSuggestion(event)));
+    }
+
+    private ScanDtos.ScanProgressEvent withoutSuggestion(ScanDtos.ScanProgressEvent event) {
+        ScanDtos.ScanIssueDto issue = event.issue();
+        return ScanDtos.ScanProgressEvent.issue(event.scanId(), new ScanDtos.ScanIssueDto(issue.id(), issue.type(),
+                issue.severity(), issue.description(), issue.selector(), null, issue.pageUrl()));
+    }
+
     @GetMapping("/scans/{id}/export")
     @RequiresSubscription
     public ResponseEntity<byte[]> exportScan(@AuthenticationPrincipal UserPrincipal principal,
@@ -96,9 +173,8 @@ public class ScanController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(("Unsupported format: " + format).getBytes());
         }
-        User owner = userRepository.findById(principal.getId()).orElseThrow();
-        var scan = scanService.getById(id);
-        if (!scan.getSite().getOwner().getId().equals(owner.getId())) {
+        User owner = userCache.require(principal.getId());
+        if (!scanService.getOwnerId(id).equals(owner.getId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         // Placeholder implementation to keep API stable; replace with real report generation.
@@ -113,9 +189,8 @@ public class ScanController {
     @RequiresSubscription
     public ResponseEntity<ScanDtos.ShareLinkResponse> createShareLink(@AuthenticationPrincipal UserPrincipal principal,
                                                                       @PathVariable UUID id) {
-        User owner = userRepository.findById(principal.getId()).orElseThrow();
-        var scan = scanService.getById(id);
-        if (!scan.getSite().getOwner().getId().equals(owner.getId())) {
+        User owner = userCache.require(principal.getId());
+        if (!scanService.getOwnerId(id).equals(owner.getId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         // Placeholder share link; replace with signed token-based links when feature is implemented.
@@ -129,7 +204,7 @@ public class ScanController {
                                                                   @PathVariable UUID scanId,
                                                                   @PathVariable UUID issueId,
                                                                   @Valid @RequestBody ScanDtos.UpdateIssueStatusRequest request) {
-        User owner = userRepository.findById(principal.getId()).orElseThrow();
+        User owner = userCache.require(principal.getId());
         var issue = scanService.updateIssueStatus(scanId, issueId, request.status(), owner);
         return ResponseEntity.ok(scanService.toIssueDetail(issue));
     }
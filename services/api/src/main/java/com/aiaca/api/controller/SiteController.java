@@ -3,9 +3,9 @@ package com.aiaca.api.controller;
 import com.aiaca.api.dto.SiteDtos;
 import com.aiaca.api.model.User;
 import com.aiaca.api.security.RequiresSubscription;
+import com.aiaca.api.security.UserCache;
 import com.aiaca.api.security.UserPrincipal;
 import com.aiaca.api.service.SiteService;
-import com.aiaca.api.repository.UserRepository;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -27,18 +27,18 @@ import java.util.UUID;
 @PreAuthorize("!hasAnyRole('ADMIN','OPERATOR','VIEWER')")
 public class SiteController {
     private final SiteService siteService;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
 
-    public SiteController(SiteService siteService, UserRepository userRepository) {
+    public SiteController(SiteService siteService, UserCache userCache) {
         this.siteService = siteService;
-        this.userRepository = userRepository;
+        this.userCache = userCache;
     }
 
     @PostMapping
     @RequiresSubscription
     public ResponseEntity<SiteDtos.SiteResponse> createSite(@AuthenticationPrincipal UserPrincipal principal,
                                                             @Valid @RequestBody SiteDtos.CreateSiteRequest request) {
-        User owner = userRepository.findById(principal.getId()).orElseThrow();
+        User owner = userCache.require(principal.getId());
         var site = siteService.createSite(owner, request);
         return ResponseEntity.ok(siteService.toResponse(site));
     }
@@ -46,7 +46,7 @@ public class SiteController {
     @GetMapping
     @RequiresSubscription(allowPastDueReads = true)
     public ResponseEntity<List<SiteDtos.SiteResponse>> listSites(@AuthenticationPrincipal UserPrincipal principal) {
-        User owner = userRepository.findById(principal.getId()).orElseThrow();
+        User owner = userCache.require(principal.getId());
         List<SiteDtos.SiteResponse> sites = siteService.listSites(owner).stream().map(siteService::toResponse).toList();
         return ResponseEntity.ok(sites);
     }
@@ -55,7 +55,7 @@ public class SiteController {
     @RequiresSubscription(allowPastDueReads = true)
     public ResponseEntity<SiteDtos.SiteResponse> getSite(@AuthenticationPrincipal UserPrincipal principal,
                                                          @PathVariable UUID id) {
-        User owner = userRepository.findById(principal.getId()).orElseThrow();
+        User owner = userCache.require(principal.getId());
         var site = siteService.getSite(owner, id);
         return ResponseEntity.ok(siteService.toResponse(site));
     }
@@ -65,16 +65,25 @@ public class SiteController {
     public ResponseEntity<SiteDtos.SiteResponse> updateSite(@AuthenticationPrincipal UserPrincipal principal,
                                                             @PathVariable UUID id,
                                                             @Valid @RequestBody SiteDtos.UpdateSiteRequest request) {
-        User owner = userRepository.findById(principal.getId()).orElseThrow();
+        User owner = userCache.require(principal.getId());
         var site = siteService.updateSite(owner, id, request);
         return ResponseEntity.ok(siteService.toResponse(site));
     }
 
+    @PostMapping("/{id}/embed-key/rotate")
+    @RequiresSubscription
+    public ResponseEntity<SiteDtos.SiteResponse> rotateEmbedKey(@AuthenticationPrincipal UserPrincipal principal,
+                                                                @PathVariable UUID id) {
+        User owner = userCache.require(principal.getId());
+        var site = siteService.rotateEmbedKey(owner, id);
+        return ResponseEntity.ok(siteService.toResponse(site));
+    }
+
     @DeleteMapping("/{id}")
     @RequiresSubscription
     public ResponseEntity<Void> deleteSite(@AuthenticationPrincipal UserPrincipal principal,
                                           @PathVariable UUID id) {
-        User owner = userRepository.findById(principal.getId()).orElseThrow();
+        User owner = userCache.require(principal.getId());
         siteService.deleteSite(owner, id);
         return ResponseEntity.noContent().build();
     }
@@ -2,7 +2,7 @@ package com.aiaca.api.controller;
 
 import com.aiaca.api.dto.SiteDtos;
 import com.aiaca.api.model.User;
-import com.aiaca.api.repository.UserRepository;
+import com.aiaca.api.security.UserCache;
 import com.aiaca.api.security.UserPrincipal;
 import com.aiaca.api.service.SiteService;
 import com.aiaca.api.service.SiteSettingsService;
@@ -25,18 +25,18 @@ import java.util.UUID;
 public class SiteSettingsController {
     private final SiteService siteService;
     private final SiteSettingsService siteSettingsService;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
 
-    public SiteSettingsController(SiteService siteService, SiteSettingsService siteSettingsService, UserRepository userRepository) {
+    public SiteSettingsController(SiteService siteService, SiteSettingsService siteSettingsService, UserCache userCache) {
         this.siteService = siteService;
         this.siteSettingsService = siteSettingsService;
-        this.userRepository = userRepository;
+        this.userCache = userCache;
     }
 
     @GetMapping("/schedule")
     public ResponseEntity<SiteDtos.SiteScheduleDto> getSchedule(@AuthenticationPrincipal UserPrincipal principal,
                                                                 @PathVariable UUID siteId) {
-        User owner = userRepository.findById(principal.getId()).orElseThrow();
+        User owner = userCache.require(principal.getId());
         var site = siteService.getSite(owner, siteId);
         return ResponseEntity.ok(siteSettingsService.getSchedule(site));
     }
@@ -45,7 +45,7 @@ public class SiteSettingsController {
     public ResponseEntity<SiteDtos.SiteScheduleDto> updateSchedule(@AuthenticationPrincipal UserPrincipal principal,
                                                                    @PathVariable UUID siteId,
                                                                    @Valid @RequestBody SiteDtos.SiteScheduleDto request) {
-        User owner = userRepository.findById(principal.getId()).orElseThrow();
+        User owner = userCache.require(principal.getId());
         var site = siteService.getSite(owner, siteId);
         return ResponseEntity.ok(siteSettingsService.updateSchedule(site, request));
     }
@@ -53,7 +53,7 @@ public class SiteSettingsController {
     @GetMapping("/notifications")
     public ResponseEntity<SiteDtos.NotificationSettingsDto> getNotifications(@AuthenticationPrincipal UserPrincipal principal,
                                                                              @PathVariable UUID siteId) {
-        User owner = userRepository.findById(principal.getId()).orElseThrow();
+        User owner = userCache.require(principal.getId());
         var site = siteService.getSite(owner, siteId);
         return ResponseEntity.ok(siteSettingsService.getNotifications(site));
     }
@@ -62,7 +62,7 @@ public class SiteSettingsController {
     public ResponseEntity<SiteDtos.NotificationSettingsDto> updateNotifications(@AuthenticationPrincipal UserPrincipal principal,
                                                                                 @PathVariable UUID siteId,
                                                                                 @Valid @RequestBody SiteDtos.NotificationSettingsDto request) {
-        User owner = userRepository.findById(principal.getId()).orElseThrow();
+        User owner = userCache.require(principal.getId());
         var site = siteService.getSite(owner, siteId);
         return ResponseEntity.ok(siteSettingsService.updateNotifications(site, request));
     }
@@ -3,8 +3,10 @@ package com.aiaca.api.dto;
 import com.aiaca.api.model.IssueSeverity;
 import com.aiaca.api.model.IssueStatus;
 import com.aiaca.api.model.ScanStatus;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -13,15 +15,41 @@ import java.util.UUID;
 public class ScanDtos {
     public record CreateScanRequest(@NotBlank String pageUrl) {}
 
+    public record CreateCrawlScanRequest(String seedUrl, @Size(max = 500) List<@NotBlank String> pageUrls, @Min(1) Integer maxPages) {}
+
     public record UpdateIssueStatusRequest(@NotNull IssueStatus status) {}
 
-    public record ScanIssueDto(UUID id, String type, IssueSeverity severity, String description, String selector, String suggestion) {}
+    public record ScanIssueDto(UUID id, String type, IssueSeverity severity, String description, String selector, String suggestion, String pageUrl) {}
 
     public record IssueDetail(UUID id, String type, IssueSeverity severity, IssueStatus status, String description, String selector, String suggestion) {}
 
-    public record ScanSummary(UUID id, UUID siteId, LocalDateTime createdAt, ScanStatus status, Double score, Integer issueCount) {}
+    public record ScanSummary(UUID id, UUID siteId, LocalDateTime createdAt, ScanStatus status, Double score, Integer issueCount,
+                              IssueCounts issueCounts) {}
+
+    public record IssueCounts(Integer error, Integer warning, Integer open, Integer fixed) {}
+
+    // nextCursor is null on the last page
+    public record ScanPage(List<ScanSummary> items, String nextCursor) {}
+
+    public record ScanDetail(UUID id, UUID siteId, LocalDateTime createdAt, ScanStatus status, Double score, List<ScanIssueDto> issues, CrawlProgress crawl) {}
+
+    // type is "status", "issue" or "progress"; only the matching payload field is set
+    public record ScanProgressEvent(String type, UUID scanId, ScanStatus status, Double score, ScanIssueDto issue,
+                                    CrawlProgress crawl) {
+        public static ScanProgressEvent status(UUID scanId, ScanStatus status, Double score) {
+            return new ScanProgressEvent("status", scanId, status, score, null, null);
+        }
+
+        public static ScanProgressEvent issue(UUID scanId, ScanIssueDto issue) {
+            return new ScanProgressEvent("issue", scanId, null, null, issue, null);
+        }
+
+        public static ScanProgressEvent progress(UUID scanId, CrawlProgress crawl) {
+            return new ScanProgressEvent("progress", scanId, null, null, null, crawl);
+        }
+    }
 
-    public record ScanDetail(UUID id, UUID siteId, LocalDateTime createdAt, ScanStatus status, Double score, List<ScanIssueDto> issues) {}
+    public record CrawlProgress(Integer pagesTotal, Integer pagesCompleted, Integer pagesFailed) {}
 
     public record ShareLinkResponse(String link, String expiresAt) {}
 }
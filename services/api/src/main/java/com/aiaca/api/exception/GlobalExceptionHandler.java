@@ -1,5 +1,6 @@
 package com.aiaca.api.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -30,8 +31,11 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(RateLimitExceededException.class)
     public ResponseEntity<Map<String, Object>> handleRateLimit(RateLimitExceededException ex) {
-        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
-                .body(error("rate_limited", ex.getMessage()));
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS);
+        if (ex.getRetryAfterSeconds() > 0) {
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+        }
+        return response.body(error("rate_limited", ex.getMessage()));
     }
 
     @ExceptionHandler(UpstreamServiceException.class)
@@ -40,6 +44,13 @@ public class GlobalExceptionHandler {
                 .body(error("upstream_error", ex.getMessage()));
     }
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleServiceUnavailable(ServiceUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error("service_unavailable", ex.getMessage()));
+    }
+
     @ExceptionHandler(PaymentRequiredException.class)
     public ResponseEntity<Map<String, Object>> handlePaymentRequired(PaymentRequiredException ex) {
         Map<String, Object> body = error("payment_required", ex.getMessage());
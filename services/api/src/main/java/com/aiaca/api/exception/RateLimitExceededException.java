@@ -1,7 +1,18 @@
 package com.aiaca.api.exception;
 
 public class RateLimitExceededException extends RuntimeException {
+    private final long retryAfterSeconds;
+
     public RateLimitExceededException(String message) {
+        this(message, 0);
+    }
+
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
         super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
     }
 }
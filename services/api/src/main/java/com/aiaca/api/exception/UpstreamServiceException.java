@@ -4,18 +4,30 @@ import org.springframework.http.HttpStatus;
 
 public class UpstreamServiceException extends RuntimeException {
     private final HttpStatus status;
+    // Status the upstream answered with, or null when there was no response (transport error, timeout)
+    private final Integer upstreamStatus;
 
     public UpstreamServiceException(String message, HttpStatus status) {
+        this(message, status, (Integer) null);
+    }
+
+    public UpstreamServiceException(String message, HttpStatus status, Integer upstreamStatus) {
         super(message);
         this.status = status;
+        this.upstreamStatus = upstreamStatus;
     }
 
     public UpstreamServiceException(String message, HttpStatus status, Throwable cause) {
         super(message, cause);
         this.status = status;
+        this.upstreamStatus = null;
     }
 
     public HttpStatus getStatus() {
         return status;
     }
+
+    public Integer getUpstreamStatus() {
+        return upstreamStatus;
+    }
 }
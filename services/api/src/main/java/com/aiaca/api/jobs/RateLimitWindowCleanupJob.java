@@ -0,0 +1,38 @@
+package com.aiaca.api.jobs;
+
+import com.aiaca.api.repository.RateLimitWindowStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RateLimitWindowCleanupJob {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitWindowCleanupJob.class);
+
+    private final RateLimitWindowStore store;
+    private final boolean distributed;
+    private final long retentionMs;
+
+    public RateLimitWindowCleanupJob(RateLimitWindowStore store,
+                                     @Value("${security.rate-limit.distributed.enabled:false}") boolean distributed,
+                                     @Value("${security.rate-limit.distributed.retention-ms:86400000}") long retentionMs) {
+        this.store = store;
+        this.distributed = distributed;
+        this.retentionMs = retentionMs;
+    }
+
+    // Windows are only read while current; keep a day for inspection, then drop them
+    @Scheduled(fixedDelayString = "${security.rate-limit.distributed.cleanup-interval-ms:300000}")
+    public void deleteExpiredWindows() {
+        if (!distributed) {
+            return;
+        }
+        int deleted = store.deleteWindowsBefore(System.currentTimeMillis() - retentionMs);
+        if (deleted > 0) {
+            log.debug("Deleted {} expired rate limit windows", deleted);
+        }
+    }
+}
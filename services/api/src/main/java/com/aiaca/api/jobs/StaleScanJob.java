@@ -0,0 +1,52 @@
+package com.aiaca.api.jobs;
+
+import com.aiaca.api.model.Scan;
+import com.aiaca.api.repository.ScanRepository;
+import com.aiaca.api.service.ScanService;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class StaleScanJob {
+
+    private static final Logger log = LoggerFactory.getLogger(StaleScanJob.class);
+
+    private final ScanRepository scanRepository;
+    private final ScanService scanService;
+    private final long staleAfterMinutes;
+    private final long crawlStaleAfterMinutes;
+
+    public StaleScanJob(ScanRepository scanRepository,
+                        ScanService scanService,
+                        @Value("${scan.active-timeout-minutes:15}") long staleAfterMinutes,
+                        @Value("${scan.crawl.active-timeout-minutes:120}") long crawlStaleAfterMinutes) {
+        this.scanRepository = scanRepository;
+        this.scanService = scanService;
+        this.staleAfterMinutes = staleAfterMinutes;
+        this.crawlStaleAfterMinutes = crawlStaleAfterMinutes;
+    }
+
+    // Fail scans orphaned by a crashed node so their active-scan key stops blocking new scans for the same URL.
+    // Queued scans age from creation, running ones from when they started: a scan that sat in the queue
+    // and is still being worked on is not stale.
+    @Scheduled(fixedDelayString = "${scan.stale-check-interval-ms:60000}")
+    public void failStaleScans() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Scan> stale = new ArrayList<>(scanRepository.findStaleScans(now.minusMinutes(staleAfterMinutes)));
+        // Crawls legitimately run much longer than a single page scan
+        stale.addAll(scanRepository.findStaleCrawls(now.minusMinutes(crawlStaleAfterMinutes)));
+        stale.forEach(scan -> {
+            if (!scanService.markFailed(scan.getId())) {
+                return;
+            }
+            log.warn("Marked stale scan {} as failed (status={}, createdAt={}, startedAt={})",
+                    scan.getId(), scan.getStatus(), scan.getCreatedAt(), scan.getStartedAt());
+        });
+    }
+}
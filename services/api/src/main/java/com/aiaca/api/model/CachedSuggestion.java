@@ -0,0 +1,43 @@
+package com.aiaca.api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.Setter;
+
+@Entity
+@Table(name = "ai_suggestion_cache",
+        uniqueConstraints = @UniqueConstraint(name = "uq_ai_suggestion_cache_fingerprint_version",
+                columnNames = {"fingerprint", "model_version"}))
+@Getter
+@Setter
+public class CachedSuggestion {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(name = "model_version", nullable = false, length = 100)
+    private String modelVersion;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String suggestedFix;
+
+    @Column(columnDefinition = "TEXT")
+    private String explanation;
+
+    private Double confidence;
+
+    private Boolean grounded;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
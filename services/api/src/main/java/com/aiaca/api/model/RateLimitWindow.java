@@ -0,0 +1,38 @@
+package com.aiaca.api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Cluster-wide request count for one rate-limit key in one fixed window. Written only through
+ * {@code RateLimitWindowStore}; mapped so the table exists under {@code ddl-auto}.
+ */
+@Entity
+@Table(name = "rate_limit_windows")
+@IdClass(RateLimitWindow.Key.class)
+@Getter
+@Setter
+public class RateLimitWindow {
+    @Id
+    @Column(length = 50)
+    private String policy;
+
+    @Id
+    @Column(length = 255)
+    private String bucketKey;
+
+    // Epoch millis of the window start
+    @Id
+    private Long windowStart;
+
+    @Column(nullable = false)
+    private Integer used;
+
+    public record Key(String policy, String bucketKey, Long windowStart) implements Serializable {}
+}
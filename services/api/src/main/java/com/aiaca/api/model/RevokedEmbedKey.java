@@ -0,0 +1,29 @@
+package com.aiaca.api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A rotated or deleted site embed key, identified by the SHA-256 of the key. Rows only need to outlive the
+ * embed key cache TTL, after which no node can still hold the key.
+ */
+@Entity
+@Table(name = "revoked_embed_keys", indexes = {
+        @Index(name = "idx_revoked_embed_keys_revoked_at", columnList = "revoked_at")
+})
+@Getter
+@Setter
+public class RevokedEmbedKey {
+    @Id
+    @Column(length = 64)
+    private String keyDigest;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+}
@@ -0,0 +1,33 @@
+package com.aiaca.api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A logged-out JWT, identified by the SHA-256 of the token rather than the token itself. Rows are only needed
+ * until the token would have expired anyway.
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at"),
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at")
+})
+@Getter
+@Setter
+public class RevokedToken {
+    @Id
+    @Column(length = 64)
+    private String tokenDigest;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+}
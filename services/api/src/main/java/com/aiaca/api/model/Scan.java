@@ -1,6 +1,7 @@
 package com.aiaca.api.model;
 
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -34,13 +35,41 @@ public class Scan {
     @JoinColumn(name = "site_id")
     private Site site;
 
+    private String pageUrl;
+
+    // SHA-256 of site id + page URL while the scan is QUEUED/RUNNING, null afterwards; unique to dedupe in-flight scans
+    @Column(unique = true, length = 64)
+    private String activeScanKey;
+
     private LocalDateTime createdAt;
 
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+
     @Enumerated(EnumType.STRING)
     private ScanStatus status;
 
     private Double score;
 
+    // Issue counters maintained on write so listings never load scan_issues
+    private Integer issueCount = 0;
+
+    private Integer errorCount = 0;
+
+    private Integer warningCount = 0;
+
+    private Integer openIssueCount = 0;
+
+    private Integer fixedIssueCount = 0;
+
+    // Crawl progress; pagesTotal is null for single-page scans
+    private Integer pagesTotal;
+
+    private Integer pagesCompleted;
+
+    private Integer pagesFailed;
+
     @OneToMany(mappedBy = "scan", cascade = CascadeType.ALL, orphanRemoval = true)
     @BatchSize(size = 25)
     private List<ScanIssue> issues = new ArrayList<>();
@@ -42,6 +42,7 @@ public class ScanIssue {
 
     private String description;
     private String selector;
+    private String pageUrl;
     private String suggestion;
 
     @OneToMany(mappedBy = "scanIssue", cascade = CascadeType.ALL, orphanRemoval = true)
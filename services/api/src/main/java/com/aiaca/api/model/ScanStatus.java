@@ -2,6 +2,7 @@ package com.aiaca.api.model;
 
 public enum ScanStatus {
     QUEUED,
+    RUNNING,
     COMPLETED,
     FAILED
 }
@@ -37,8 +37,20 @@ public class Site {
     @Column(nullable = false, unique = true)
     private String embedKey;
 
+    // Written in batches by EmbedKeyVerifier, not on every request
+    private LocalDateTime embedKeyLastUsedAt;
+
+    private Long embedKeyRequestCount = 0L;
+
     private LocalDateTime createdAt;
 
+    // Materialized EmbedConfigDto JSON, rebuilt when a scan of this site completes
+    @Column(columnDefinition = "TEXT")
+    private String embedConfigJson;
+
+    @Column(length = 64)
+    private String embedConfigEtag;
+
     @ManyToOne
     @JoinColumn(name = "owner_id")
     private User owner;
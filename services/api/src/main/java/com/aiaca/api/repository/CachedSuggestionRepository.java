@@ -0,0 +1,21 @@
+package com.aiaca.api.repository;
+
+import com.aiaca.api.model.CachedSuggestion;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface CachedSuggestionRepository extends JpaRepository<CachedSuggestion, UUID> {
+    List<CachedSuggestion> findByModelVersionAndFingerprintIn(String modelVersion, Collection<String> fingerprints);
+
+    // A version counts as retired once no node has written an entry for it since the cutoff
+    @Modifying
+    @Query("DELETE FROM CachedSuggestion c WHERE c.modelVersion <> :modelVersion AND c.modelVersion NOT IN "
+            + "(SELECT r.modelVersion FROM CachedSuggestion r WHERE r.createdAt >= :cutoff)")
+    int deleteRetiredVersions(@Param("modelVersion") String modelVersion, @Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,96 @@
+package com.aiaca.api.repository;
+
+import java.util.List;
+import org.postgresql.PGConnection;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Shared window counters for distributed rate limiting. Nodes claim permits in chunks: a claim atomically adds
+ * to the window's {@code used} count and grants whatever was still below the limit, so the grants across all
+ * nodes never exceed it. PostgreSQL does this in one upsert; other databases use update-then-insert.
+ */
+@Repository
+public class RateLimitWindowStore {
+    private static final String UPSERT = "INSERT INTO rate_limit_windows (policy, bucket_key, window_start, used) "
+            + "VALUES (?, ?, ?, ?) ON CONFLICT (policy, bucket_key, window_start) "
+            + "DO UPDATE SET used = rate_limit_windows.used + EXCLUDED.used WHERE rate_limit_windows.used < ? "
+            + "RETURNING used";
+    private static final String UPDATE = "UPDATE rate_limit_windows SET used = used + ? "
+            + "WHERE policy = ? AND bucket_key = ? AND window_start = ? AND used < ?";
+    private static final String SELECT_USED = "SELECT used FROM rate_limit_windows "
+            + "WHERE policy = ? AND bucket_key = ? AND window_start = ?";
+    private static final String INSERT = "INSERT INTO rate_limit_windows (policy, bucket_key, window_start, used) "
+            + "VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private volatile Boolean postgres;
+
+    public RateLimitWindowStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Claims up to {@code permits} (at most {@code limit}) for the window and returns how many were granted;
+     * 0 means the window is exhausted cluster-wide.
+     */
+    public int claim(String policy, String key, long windowStart, int permits, int limit) {
+        if (isPostgres()) {
+            List<Integer> used = jdbcTemplate.queryForList(UPSERT, Integer.class, policy, key, windowStart, permits, limit);
+            return used.isEmpty() ? 0 : granted(used.get(0), permits, limit);
+        }
+        Integer granted = transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update(UPDATE, permits, policy, key, windowStart, limit) > 0) {
+                // The row stays locked by our update, so this reads our own increment
+                Integer used = jdbcTemplate.queryForObject(SELECT_USED, Integer.class, policy, key, windowStart);
+                return granted(used, permits, limit);
+            }
+            return null;
+        });
+        if (granted != null) {
+            return granted;
+        }
+        // No row, or the window is already full; an insert tells the two apart
+        try {
+            int first = Math.min(permits, limit);
+            jdbcTemplate.update(INSERT, policy, key, windowStart, first);
+            return first;
+        } catch (DuplicateKeyException ex) {
+            Integer retried = transactionTemplate.execute(status -> {
+                if (jdbcTemplate.update(UPDATE, permits, policy, key, windowStart, limit) == 0) {
+                    return 0;
+                }
+                Integer used = jdbcTemplate.queryForObject(SELECT_USED, Integer.class, policy, key, windowStart);
+                return granted(used, permits, limit);
+            });
+            return retried != null ? retried : 0;
+        }
+    }
+
+    public int deleteWindowsBefore(long windowStart) {
+        return jdbcTemplate.update("DELETE FROM rate_limit_windows WHERE window_start < ?", windowStart);
+    }
+
+    // used is the count after adding permits; only what was below the limit beforehand is granted
+    private static int granted(int used, int permits, int limit) {
+        return Math.max(0, Math.min(permits, limit - (used - permits)));
+    }
+
+    private boolean isPostgres() {
+        Boolean detected = postgres;
+        if (detected == null) {
+            detected = Boolean.TRUE.equals(jdbcTemplate.execute(
+                    (ConnectionCallback<Boolean>) connection -> connection.isWrapperFor(PGConnection.class)));
+            postgres = detected;
+        }
+        return detected;
+    }
+}
@@ -0,0 +1,18 @@
+package com.aiaca.api.repository;
+
+import com.aiaca.api.model.RevokedEmbedKey;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface RevokedEmbedKeyRepository extends JpaRepository<RevokedEmbedKey, String> {
+    @Query("SELECT k FROM RevokedEmbedKey k WHERE k.revokedAt > :since ORDER BY k.revokedAt")
+    List<RevokedEmbedKey> findRevokedSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM RevokedEmbedKey k WHERE k.revokedAt < :cutoff")
+    int deleteRevokedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,21 @@
+package com.aiaca.api.repository;
+
+import com.aiaca.api.model.RevokedToken;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    @Query("SELECT t FROM RevokedToken t WHERE t.revokedAt > :since AND t.expiresAt > :now ORDER BY t.revokedAt")
+    List<RevokedToken> findRevokedSince(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now);
+
+    @Query("SELECT t.tokenDigest FROM RevokedToken t WHERE t.expiresAt > :now")
+    List<String> findUnexpiredDigests(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,192 @@
+package com.aiaca.api.repository;
+
+import com.aiaca.api.model.AiSuggestion;
+import com.aiaca.api.model.ScanIssue;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Bulk write path for scan results. Ids are assigned client-side so the rows go out as JDBC batches
+ * (or a single {@code COPY} per table on PostgreSQL) instead of one INSERT per entity through the
+ * JPA cascade. Participates in the caller's transaction.
+ */
+@Repository
+public class ScanIssueBulkWriter {
+    private static final String ISSUE_COLUMNS = "id, scan_id, type, severity, status, description, selector, suggestion, page_url";
+    private static final String SUGGESTION_COLUMNS = "id, scan_issue_id, suggestion_type, suggestion, rationale, created_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final boolean copyEnabled;
+
+    public ScanIssueBulkWriter(JdbcTemplate jdbcTemplate,
+                               @Value("${scan.persistence.batch-size:500}") int batchSize,
+                               @Value("${scan.persistence.copy-enabled:true}") boolean copyEnabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.copyEnabled = copyEnabled;
+    }
+
+    /**
+     * Inserts the issues and their AI suggestions for an existing scan, assigning any missing ids on the
+     * passed entities. The entities are not attached to the persistence context.
+     */
+    public void insert(UUID scanId, List<ScanIssue> issues) {
+        if (issues.isEmpty()) {
+            return;
+        }
+        List<AiSuggestion> suggestions = new ArrayList<>();
+        for (ScanIssue issue : issues) {
+            if (issue.getId() == null) {
+                issue.setId(UUID.randomUUID());
+            }
+            for (AiSuggestion suggestion : issue.getAiSuggestions()) {
+                if (suggestion.getId() == null) {
+                    suggestion.setId(UUID.randomUUID());
+                }
+                suggestions.add(suggestion);
+            }
+        }
+
+        List<Object[]> issueRows = issues.stream().map(issue -> issueRow(scanId, issue)).toList();
+        List<Object[]> suggestionRows = suggestions.stream().map(ScanIssueBulkWriter::suggestionRow).toList();
+        boolean copied = copyEnabled && Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!connection.isWrapperFor(PGConnection.class)) {
+                return false;
+            }
+            copy(connection, "scan_issues", ISSUE_COLUMNS, issueRows);
+            copy(connection, "ai_suggestions", SUGGESTION_COLUMNS, suggestionRows);
+            return true;
+        }));
+        if (!copied) {
+            batchInsert("scan_issues", ISSUE_COLUMNS, 9, issueRows);
+            batchInsert("ai_suggestions", SUGGESTION_COLUMNS, 6, suggestionRows);
+        }
+    }
+
+    /**
+     * Inserts suggestions for issues that are already persisted, and fills in {@code scan_issues.suggestion}
+     * with the first of them for every issue that has none yet.
+     */
+    public void insertSuggestions(List<AiSuggestion> suggestions) {
+        if (suggestions.isEmpty()) {
+            return;
+        }
+        Map<UUID, String> firstByIssue = new LinkedHashMap<>();
+        for (AiSuggestion suggestion : suggestions) {
+            if (suggestion.getId() == null) {
+                suggestion.setId(UUID.randomUUID());
+            }
+            firstByIssue.putIfAbsent(suggestion.getScanIssue().getId(), suggestion.getSuggestion());
+        }
+
+        List<Object[]> suggestionRows = suggestions.stream().map(ScanIssueBulkWriter::suggestionRow).toList();
+        boolean copied = copyEnabled && Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!connection.isWrapperFor(PGConnection.class)) {
+                return false;
+            }
+            copy(connection, "ai_suggestions", SUGGESTION_COLUMNS, suggestionRows);
+            return true;
+        }));
+        if (!copied) {
+            batchInsert("ai_suggestions", SUGGESTION_COLUMNS, 6, suggestionRows);
+        }
+        List<Object[]> updates = firstByIssue.entrySet().stream()
+                .map(entry -> new Object[] {entry.getValue(), entry.getKey()})
+                .toList();
+        jdbcTemplate.batchUpdate("UPDATE scan_issues SET suggestion = ? WHERE id = ? AND suggestion IS NULL", updates);
+    }
+
+    /**
+     * Deletes the issues (and their suggestions) recorded for one page of a scan.
+     */
+    public void deletePage(UUID scanId, String pageUrl) {
+        jdbcTemplate.update("DELETE FROM ai_suggestions WHERE scan_issue_id IN "
+                + "(SELECT id FROM scan_issues WHERE scan_id = ? AND page_url = ?)", scanId, pageUrl);
+        jdbcTemplate.update("DELETE FROM scan_issues WHERE scan_id = ? AND page_url = ?", scanId, pageUrl);
+    }
+
+    private void batchInsert(String table, String columns, int columnCount, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(columnCount, "?"));
+        String sql = "INSERT INTO " + table + " (" + columns + ") VALUES (" + placeholders + ")";
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + batchSize, rows.size())));
+        }
+    }
+
+    private static void copy(Connection connection, String table, String columns, List<Object[]> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        StringBuilder csv = new StringBuilder(rows.size() * 128);
+        for (Object[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    csv.append(',');
+                }
+                appendCsv(csv, row[i]);
+            }
+            csv.append('\n');
+        }
+        try {
+            connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn("COPY " + table + " (" + columns + ") FROM STDIN WITH (FORMAT csv)", new StringReader(csv.toString()));
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("COPY into " + table + " failed", e);
+        }
+    }
+
+    // Unquoted empty is NULL in CSV COPY; every non-null value is quoted so empty strings survive
+    private static void appendCsv(StringBuilder csv, Object value) {
+        if (value == null) {
+            return;
+        }
+        csv.append('"').append(value.toString().replace("\"", "\"\"")).append('"');
+    }
+
+    private static Object[] issueRow(UUID scanId, ScanIssue issue) {
+        return new Object[] {
+                issue.getId(), scanId, issue.getType(), enumName(issue.getSeverity()),
+                enumName(issue.getStatus()), issue.getDescription(), issue.getSelector(),
+                issue.getSuggestion(), issue.getPageUrl()
+        };
+    }
+
+    private static Object[] suggestionRow(AiSuggestion suggestion) {
+        LocalDateTime createdAt = suggestion.getCreatedAt() != null ? suggestion.getCreatedAt() : LocalDateTime.now();
+        return new Object[] {
+                suggestion.getId(), suggestion.getScanIssue().getId(), enumName(suggestion.getSuggestionType()),
+                suggestion.getSuggestion(), suggestion.getRationale(), toUtc(createdAt)
+        };
+    }
+
+    // JPA runs with hibernate.jdbc.time_zone=UTC, so entity timestamps are stored as UTC wall-clock time and
+    // read back into the JVM zone; rows written here have to be stored the same way
+    private static LocalDateTime toUtc(LocalDateTime local) {
+        return local.atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
+    }
+
+    private static String enumName(Enum<?> value) {
+        return value == null ? null : value.name();
+    }
+}
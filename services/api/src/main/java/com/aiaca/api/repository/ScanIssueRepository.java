@@ -2,8 +2,13 @@ package com.aiaca.api.repository;
 
 import com.aiaca.api.model.ScanIssue;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface ScanIssueRepository extends JpaRepository<ScanIssue, UUID> {
+    @Query("SELECT i.pageUrl, COUNT(i) FROM ScanIssue i WHERE i.scan.id = :scanId GROUP BY i.pageUrl")
+    List<Object[]> countIssuesByPage(@Param("scanId") UUID scanId);
 }
@@ -3,10 +3,14 @@ package com.aiaca.api.repository;
 import com.aiaca.api.model.Scan;
 import com.aiaca.api.model.ScanStatus;
 import com.aiaca.api.model.Site;
+import com.aiaca.api.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,11 +20,95 @@ public interface ScanRepository extends JpaRepository<Scan, UUID> {
     Optional<Scan> findByIdAndSite(UUID id, Site site);
     Optional<Scan> findFirstBySiteAndStatusOrderByCreatedAtDesc(Site site, ScanStatus status);
 
+    // A queued scan is stale once it has waited too long; a running one only once it has run too long
+    String STALE_SELECT = "SELECT s FROM Scan s " +
+            "WHERE ((s.status = com.aiaca.api.model.ScanStatus.QUEUED AND s.createdAt < :cutoff) " +
+            "OR (s.status = com.aiaca.api.model.ScanStatus.RUNNING AND COALESCE(s.startedAt, s.createdAt) < :cutoff)) ";
+
+    @Query(STALE_SELECT + "AND s.pagesTotal IS NULL")
+    List<Scan> findStaleScans(@Param("cutoff") LocalDateTime cutoff);
+
+    @Query(STALE_SELECT + "AND s.pagesTotal IS NOT NULL")
+    List<Scan> findStaleCrawls(@Param("cutoff") LocalDateTime cutoff);
+
+    // Status transitions are conditional so a scan finished by one path (e.g. failed as stale) keeps its outcome
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Scan s SET s.status = com.aiaca.api.model.ScanStatus.RUNNING, s.startedAt = :startedAt " +
+           "WHERE s.id = :id AND s.status = com.aiaca.api.model.ScanStatus.QUEUED")
+    int startIfQueued(@Param("id") UUID id, @Param("startedAt") LocalDateTime startedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Scan s SET s.status = :status, s.completedAt = :completedAt, s.activeScanKey = NULL " +
+           "WHERE s.id = :id AND s.status = com.aiaca.api.model.ScanStatus.RUNNING")
+    int finishIfRunning(@Param("id") UUID id, @Param("status") ScanStatus status,
+                        @Param("completedAt") LocalDateTime completedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Scan s SET s.status = :status, s.completedAt = :completedAt, s.activeScanKey = NULL " +
+           "WHERE s.id = :id AND s.status IN (com.aiaca.api.model.ScanStatus.QUEUED, com.aiaca.api.model.ScanStatus.RUNNING)")
+    int finishIfActive(@Param("id") UUID id, @Param("status") ScanStatus status,
+                       @Param("completedAt") LocalDateTime completedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Scan s SET s.pagesCompleted = s.pagesCompleted + 1, " +
+           "s.issueCount = COALESCE(s.issueCount, 0) + :errors + :warnings, " +
+           "s.errorCount = COALESCE(s.errorCount, 0) + :errors, " +
+           "s.warningCount = COALESCE(s.warningCount, 0) + :warnings, " +
+           "s.openIssueCount = COALESCE(s.openIssueCount, 0) + :errors + :warnings " +
+           "WHERE s.id = :id")
+    int recordCrawlPageCompleted(@Param("id") UUID id, @Param("errors") int errors, @Param("warnings") int warnings);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Scan s SET s.openIssueCount = COALESCE(s.openIssueCount, 0) + :openDelta, " +
+           "s.fixedIssueCount = COALESCE(s.fixedIssueCount, 0) + :fixedDelta " +
+           "WHERE s.id = :id")
+    int adjustIssueStatusCounts(@Param("id") UUID id, @Param("openDelta") int openDelta, @Param("fixedDelta") int fixedDelta);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Scan s SET s.pagesFailed = s.pagesFailed + 1 WHERE s.id = :id")
+    int incrementPagesFailed(@Param("id") UUID id);
+
+    String SUMMARY_SELECT = "SELECT s.id AS id, s.site.id AS siteId, s.createdAt AS createdAt, s.status AS status, " +
+                            "s.score AS score, s.issueCount AS issueCount, s.errorCount AS errorCount, " +
+                            "s.warningCount AS warningCount, s.openIssueCount AS openIssueCount, " +
+                            "s.fixedIssueCount AS fixedIssueCount " +
+                            "FROM Scan s ";
+    String SUMMARY_ORDER = " ORDER BY s.createdAt DESC, s.id DESC";
+    String AFTER_CURSOR = " AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.id < :id))";
+
+    // Keyset pages on (created_at, id), newest first; pass PageRequest.of(0, limit) to bound the page
+    @Query(SUMMARY_SELECT + "WHERE s.site = :site" + SUMMARY_ORDER)
+    List<ScanSummaryView> findSummariesBySite(@Param("site") Site site, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE s.site = :site" + AFTER_CURSOR + SUMMARY_ORDER)
+    List<ScanSummaryView> findSummariesBySiteAfter(@Param("site") Site site,
+                                                   @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("id") UUID id,
+                                                   Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE s.site.owner = :owner" + SUMMARY_ORDER)
+    List<ScanSummaryView> findSummariesByOwner(@Param("owner") User owner, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE s.site.owner = :owner" + AFTER_CURSOR + SUMMARY_ORDER)
+    List<ScanSummaryView> findSummariesByOwnerAfter(@Param("owner") User owner,
+                                                    @Param("createdAt") LocalDateTime createdAt,
+                                                    @Param("id") UUID id,
+                                                    Pageable pageable);
+
+    @Query("SELECT DISTINCT s FROM Scan s " +
+           "LEFT JOIN FETCH s.issues " +
+           "WHERE s.activeScanKey = :activeScanKey")
+    Optional<Scan> findByActiveScanKeyWithIssues(@Param("activeScanKey") String activeScanKey);
+
     @Query("SELECT DISTINCT s FROM Scan s " +
            "LEFT JOIN FETCH s.issues " +
            "WHERE s.id = :id")
     Optional<Scan> findByIdWithIssues(@Param("id") UUID id);
 
+    // Ownership checks only need the owner's id, not the scan and its issues
+    @Query("SELECT s.site.owner.id FROM Scan s WHERE s.id = :id")
+    Optional<UUID> findOwnerIdById(@Param("id") UUID id);
+
     @Query("SELECT DISTINCT s FROM Scan s " +
            "LEFT JOIN FETCH s.issues " +
            "WHERE s.site = :site")
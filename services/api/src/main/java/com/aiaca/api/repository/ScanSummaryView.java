@@ -0,0 +1,28 @@
+package com.aiaca.api.repository;
+
+import com.aiaca.api.model.ScanStatus;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Scan list row read from the denormalized counters on scans, without touching scan_issues
+public interface ScanSummaryView {
+    UUID getId();
+
+    UUID getSiteId();
+
+    LocalDateTime getCreatedAt();
+
+    ScanStatus getStatus();
+
+    Double getScore();
+
+    Integer getIssueCount();
+
+    Integer getErrorCount();
+
+    Integer getWarningCount();
+
+    Integer getOpenIssueCount();
+
+    Integer getFixedIssueCount();
+}
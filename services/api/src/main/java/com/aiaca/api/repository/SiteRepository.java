@@ -12,4 +12,5 @@ public interface SiteRepository extends JpaRepository<Site, UUID> {
     List<Site> findByOwner(User owner);
     Optional<Site> findByIdAndOwner(UUID id, User owner);
     Optional<Site> findByIdAndEmbedKey(UUID id, String embedKey);
+    Optional<Site> findByEmbedKey(String embedKey);
 }
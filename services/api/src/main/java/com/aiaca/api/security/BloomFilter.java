@@ -0,0 +1,51 @@
+package com.aiaca.api.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over SHA-256 hex digests. Reads and writes are lock-free; entries cannot be removed,
+ * so callers rebuild a fresh filter to drop expired members.
+ */
+final class BloomFilter {
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.max(1, (bits + 63) / 64);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    void put(String hexDigest) {
+        long h1 = Long.parseUnsignedLong(hexDigest, 0, 16, 16);
+        long h2 = Long.parseUnsignedLong(hexDigest, 16, 32, 16);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    boolean mightContain(String hexDigest) {
+        long h1 = Long.parseUnsignedLong(hexDigest, 0, 16, 16);
+        long h2 = Long.parseUnsignedLong(hexDigest, 16, 32, 16);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
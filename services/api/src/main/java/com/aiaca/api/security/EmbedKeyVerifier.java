@@ -0,0 +1,224 @@
+package com.aiaca.api.security;
+
+import com.aiaca.api.model.RevokedEmbedKey;
+import com.aiaca.api.repository.RevokedEmbedKeyRepository;
+import com.aiaca.api.repository.SiteRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Verifies site embed keys against a bounded in-memory index keyed by the SHA-256 of the key, so raw keys are
+ * never held and steady-state embed traffic does no key lookup. Unknown keys are remembered briefly to keep
+ * guessing off the database. Revocation on this node is immediate; other nodes learn of it from the shared
+ * {@code revoked_embed_keys} table, which they poll every {@code security.embed-key.revocation.sync-interval-ms},
+ * so the cache TTL is only the fallback bound if that sync fails.
+ * <p>
+ * Usage ({@code embed_key_last_used_at} and {@code embed_key_request_count}) is coalesced per site and written
+ * in one batched UPDATE per flush instead of touching the site row on every request.
+ */
+@Component
+public class EmbedKeyVerifier {
+    private static final Logger log = LoggerFactory.getLogger(EmbedKeyVerifier.class);
+    private static final String USAGE_UPDATE = "UPDATE sites SET "
+            + "embed_key_last_used_at = CASE WHEN embed_key_last_used_at IS NULL OR embed_key_last_used_at < ? "
+            + "THEN ? ELSE embed_key_last_used_at END, "
+            + "embed_key_request_count = COALESCE(embed_key_request_count, 0) + ? WHERE id = ?";
+
+    private final SiteRepository siteRepository;
+    private final RevokedEmbedKeyRepository revokedKeyRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final Duration syncOverlap;
+    private final Cache<String, KeyEntry> keys;
+    private final Map<UUID, Usage> pendingUsage = new ConcurrentHashMap<>();
+    private final Counter validCounter;
+    private final Counter invalidCounter;
+    private final Timer flushTimer;
+    private volatile LocalDateTime syncedUpTo;
+
+    public EmbedKeyVerifier(SiteRepository siteRepository,
+                            RevokedEmbedKeyRepository revokedKeyRepository,
+                            JdbcTemplate jdbcTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${security.embed-key.cache.ttl-seconds:60}") long ttlSeconds,
+                            @Value("${security.embed-key.cache.negative-ttl-seconds:10}") long negativeTtlSeconds,
+                            @Value("${security.embed-key.cache.max-entries:50000}") long maxEntries,
+                            @Value("${security.embed-key.revocation.sync-overlap-seconds:30}") long syncOverlapSeconds) {
+        this.siteRepository = siteRepository;
+        this.revokedKeyRepository = revokedKeyRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.syncOverlap = Duration.ofSeconds(syncOverlapSeconds);
+        this.syncedUpTo = LocalDateTime.now();
+        long ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        long negativeTtlNanos = Duration.ofSeconds(negativeTtlSeconds).toNanos();
+        this.keys = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new Expiry<String, KeyEntry>() {
+                    @Override
+                    public long expireAfterCreate(String digest, KeyEntry entry, long currentTime) {
+                        return entry.siteId() != null ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, KeyEntry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(digest, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, KeyEntry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        new CaffeineCacheMetrics<>(keys, "embed_keys", Tags.empty()).bindTo(meterRegistry);
+        this.validCounter = meterRegistry.counter("api_embed_key_verifications_total", "result", "valid");
+        this.invalidCounter = meterRegistry.counter("api_embed_key_verifications_total", "result", "invalid");
+        this.flushTimer = meterRegistry.timer("api_embed_key_usage_flush_seconds");
+        meterRegistry.gaugeMapSize("api_embed_key_usage_pending", Tags.empty(), pendingUsage);
+    }
+
+    /**
+     * Returns true when {@code embedKey} belongs to {@code siteId}, and records the use for the next flush.
+     */
+    public boolean verify(UUID siteId, String embedKey) {
+        if (embedKey == null || embedKey.isBlank()) {
+            invalidCounter.increment();
+            return false;
+        }
+        KeyEntry entry = keys.get(digest(embedKey), digest -> new KeyEntry(
+                siteRepository.findByEmbedKey(embedKey).map(site -> site.getId()).orElse(null)));
+        if (entry == null || entry.siteId() == null || !entry.siteId().equals(siteId)) {
+            invalidCounter.increment();
+            return false;
+        }
+        validCounter.increment();
+        LocalDateTime now = LocalDateTime.now();
+        pendingUsage.compute(siteId, (id, usage) -> usage == null ? new Usage(1, now) : usage.plus(now));
+        return true;
+    }
+
+    /**
+     * Drops a rotated or deleted key from the index so it stops verifying on this node immediately, and records
+     * it for the other nodes' next {@link #syncRevocations()}.
+     */
+    public void revoke(String embedKey) {
+        if (embedKey == null) {
+            return;
+        }
+        String digest = digest(embedKey);
+        keys.invalidate(digest);
+        RevokedEmbedKey revoked = new RevokedEmbedKey();
+        revoked.setKeyDigest(digest);
+        revoked.setRevokedAt(LocalDateTime.now());
+        try {
+            revokedKeyRepository.saveAndFlush(revoked);
+        } catch (DataIntegrityViolationException ex) {
+            // Already revoked, e.g. a site deleted right after its key was rotated away
+        }
+    }
+
+    // Pulls revocations made on other nodes; the overlap re-reads rows whose transactions committed late
+    @Scheduled(fixedDelayString = "${security.embed-key.revocation.sync-interval-ms:5000}")
+    public void syncRevocations() {
+        for (RevokedEmbedKey revoked : revokedKeyRepository.findRevokedSince(syncedUpTo.minus(syncOverlap))) {
+            keys.invalidate(revoked.getKeyDigest());
+            if (revoked.getRevokedAt().isAfter(syncedUpTo)) {
+                syncedUpTo = revoked.getRevokedAt();
+            }
+        }
+    }
+
+    // Once the cache TTL (plus the sync overlap) has passed, no node can still hold a revoked key
+    @Scheduled(fixedDelayString = "${security.embed-key.revocation.purge-interval-ms:3600000}",
+            initialDelayString = "${security.embed-key.revocation.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeRevocations() {
+        int purged = revokedKeyRepository.deleteRevokedBefore(LocalDateTime.now().minus(ttl).minus(syncOverlap));
+        if (purged > 0) {
+            log.info("Purged {} embed key revocations", purged);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${security.embed-key.usage.flush-interval-ms:30000}")
+    public void flushUsage() {
+        if (pendingUsage.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (UUID siteId : pendingUsage.keySet()) {
+            // remove() hands this flush the accumulated usage; requests after it start a new entry
+            Usage usage = pendingUsage.remove(siteId);
+            if (usage != null) {
+                // Stored as UTC wall-clock time, as JPA does with hibernate.jdbc.time_zone=UTC
+                LocalDateTime lastUsedAt = usage.lastUsedAt().atZone(ZoneId.systemDefault())
+                        .withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
+                rows.add(new Object[]{lastUsedAt, lastUsedAt, usage.requests(), siteId});
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        Timer.Sample sample = Timer.start();
+        try {
+            jdbcTemplate.batchUpdate(USAGE_UPDATE, rows);
+        } catch (RuntimeException ex) {
+            // Usage is best-effort bookkeeping; losing one interval is preferable to retrying forever
+            log.warn("Could not flush embed key usage for {} sites: {}", rows.size(), ex.getMessage());
+        } finally {
+            sample.stop(flushTimer);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushUsage();
+    }
+
+    private static String digest(String embedKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(embedKey.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // A null siteId marks a key that did not match any site
+    private record KeyEntry(UUID siteId) {}
+
+    private record Usage(long requests, LocalDateTime lastUsedAt) {
+        Usage plus(LocalDateTime usedAt) {
+            return new Usage(requests + 1, usedAt.isAfter(lastUsedAt) ? usedAt : lastUsedAt);
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.aiaca.api.security;
 
 import com.aiaca.api.model.User;
-import com.aiaca.api.repository.UserRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,12 +18,12 @@ import java.util.Optional;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
     private final TokenBlacklist tokenBlacklist;
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserRepository userRepository, TokenBlacklist tokenBlacklist) {
+    public JwtAuthenticationFilter(JwtService jwtService, UserCache userCache, TokenBlacklist tokenBlacklist) {
         this.jwtService = jwtService;
-        this.userRepository = userRepository;
+        this.userCache = userCache;
         this.tokenBlacklist = tokenBlacklist;
     }
 
@@ -37,7 +36,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             if (!tokenBlacklist.isBlacklisted(token)) {
                 try {
                     var userId = jwtService.extractUserId(token);
-                    Optional<User> userOptional = userRepository.findById(userId);
+                    Optional<User> userOptional = userCache.get(userId);
                     if (userOptional.isPresent() && SecurityContextHolder.getContext().getAuthentication() == null) {
                         UserPrincipal principal = new UserPrincipal(userOptional.get());
                         UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
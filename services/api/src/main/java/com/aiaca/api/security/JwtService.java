@@ -1,26 +1,75 @@
 package com.aiaca.api.security;
 
 import com.aiaca.api.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtService {
     private final SecretKey secretKey;
     private final long expirationMs;
+    private final JwtParser parser;
+    // Verified claims by token digest, each entry living until the token's exp; null when disabled
+    private final Cache<String, Claims> verifiedClaims;
 
     public JwtService(@Value("${security.jwt.secret}") String secret,
-                      @Value("${security.jwt.expiration:3600000}") long expirationMs) {
+                      @Value("${security.jwt.expiration:3600000}") long expirationMs,
+                      MeterRegistry meterRegistry,
+                      @Value("${security.jwt.claims-cache.enabled:true}") boolean claimsCacheEnabled,
+                      @Value("${security.jwt.claims-cache.max-entries:10000}") long claimsCacheMaxEntries) {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes());
         this.expirationMs = expirationMs;
+        this.parser = Jwts.parser().verifyWith(secretKey).build();
+        if (claimsCacheEnabled) {
+            this.verifiedClaims = Caffeine.newBuilder()
+                    .maximumSize(claimsCacheMaxEntries)
+                    .expireAfter(new Expiry<String, Claims>() {
+                        @Override
+                        public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+                            Date expiration = claims.getExpiration();
+                            if (expiration == null) {
+                                return TimeUnit.MILLISECONDS.toNanos(expirationMs);
+                            }
+                            long remainingMs = expiration.getTime() - System.currentTimeMillis();
+                            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+                        }
+
+                        @Override
+                        public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+                            return currentDuration;
+                        }
+
+                        @Override
+                        public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+                            return currentDuration;
+                        }
+                    })
+                    .recordStats()
+                    .build();
+            new CaffeineCacheMetrics<>(verifiedClaims, "jwt_claims", Tags.empty()).bindTo(meterRegistry);
+        } else {
+            this.verifiedClaims = null;
+        }
     }
 
     public String generateToken(User user) {
@@ -35,12 +84,16 @@ public class JwtService {
                 .compact();
     }
 
+    /**
+     * Returns the verified claims of {@code token}. Repeat calls for the same token are served from the claims
+     * cache until the token expires; revocation is still the caller's job via {@link TokenBlacklist}.
+     */
     public Claims parseClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        if (verifiedClaims == null) {
+            return verify(token);
+        }
+        // Only verified tokens are cached: an invalid token throws out of get() and leaves no entry
+        return verifiedClaims.get(digest(token), key -> verify(token));
     }
 
     public UUID extractUserId(String token) {
@@ -50,4 +103,24 @@ public class JwtService {
     public Date extractExpiration(String token) {
         return parseClaims(token).getExpiration();
     }
+
+    /** Drops a logged-out token's claims so they are not kept in memory until exp. */
+    public void evict(String token) {
+        if (verifiedClaims != null && token != null) {
+            verifiedClaims.invalidate(digest(token));
+        }
+    }
+
+    private Claims verify(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
@@ -62,7 +62,7 @@ public class SecurityConfig {
         configuration.setAllowedOriginPatterns(List.of("*"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
         configuration.setAllowedHeaders(List.of("*"));
-        configuration.setExposedHeaders(Arrays.asList("Authorization", "X-Embed-Key"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "X-Embed-Key", "X-Next-Cursor", "ETag"));
         configuration.setAllowCredentials(false);  // Must be false when using wildcard origins
         configuration.setMaxAge(3600L);
 
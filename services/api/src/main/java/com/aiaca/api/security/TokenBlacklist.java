@@ -1,35 +1,157 @@
 package com.aiaca.api.security;
 
+import com.aiaca.api.model.RevokedToken;
+import com.aiaca.api.repository.RevokedTokenRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Date;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.HexFormat;
+import java.util.List;
 
+/**
+ * Logged-out tokens, shared by all nodes through the {@code revoked_tokens} table and keyed by the token's
+ * SHA-256. Each node keeps a Bloom filter of revoked digests, so the common not-revoked check is an in-memory
+ * lock-free probe; only a Bloom hit is confirmed against the table. Revocations made on other nodes are pulled
+ * in by an incremental sync every {@code security.token-revocation.sync-interval-ms}.
+ */
 @Component
 public class TokenBlacklist {
-    private final Map<String, Date> blacklist = new ConcurrentHashMap<>();
+    private static final Logger log = LoggerFactory.getLogger(TokenBlacklist.class);
+    private static final long NOT_REVOKED = 0L;
+
+    private final RevokedTokenRepository repository;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final Duration syncOverlap;
+    // Confirmed lookups for Bloom hits: the token's expiry in epoch millis, or NOT_REVOKED for a false positive
+    private final Cache<String, Long> confirmed;
+    private final Counter bloomNegativeCounter;
+    private final Counter revokedCounter;
+    private final Counter falsePositiveCounter;
+    private volatile BloomFilter bloom;
+    private volatile LocalDateTime syncedUpTo;
+
+    public TokenBlacklist(RevokedTokenRepository repository,
+                          MeterRegistry meterRegistry,
+                          @Value("${security.token-revocation.bloom.expected-insertions:100000}") long expectedInsertions,
+                          @Value("${security.token-revocation.bloom.false-positive-rate:0.01}") double falsePositiveRate,
+                          @Value("${security.token-revocation.sync-overlap-seconds:30}") long syncOverlapSeconds) {
+        this.repository = repository;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.syncOverlap = Duration.ofSeconds(syncOverlapSeconds);
+        this.syncedUpTo = LocalDateTime.now();
+        this.bloom = new BloomFilter(expectedInsertions, falsePositiveRate);
+        this.confirmed = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMinutes(5))
+                .build();
+        this.bloomNegativeCounter = meterRegistry.counter("api_token_revocation_checks_total", "result", "bloom_negative");
+        this.revokedCounter = meterRegistry.counter("api_token_revocation_checks_total", "result", "revoked");
+        this.falsePositiveCounter = meterRegistry.counter("api_token_revocation_checks_total", "result", "false_positive");
+    }
 
     public void blacklist(String token, Date expiresAt) {
-        blacklist.put(token, expiresAt);
+        String digest = digest(token);
+        LocalDateTime expiry = LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault());
+        if (!repository.existsById(digest)) {
+            RevokedToken revoked = new RevokedToken();
+            revoked.setTokenDigest(digest);
+            revoked.setExpiresAt(expiry);
+            revoked.setRevokedAt(LocalDateTime.now());
+            try {
+                repository.saveAndFlush(revoked);
+            } catch (DataIntegrityViolationException ex) {
+                // Concurrent logout of the same token on another node; the row is already there
+            }
+        }
+        bloom.put(digest);
+        confirmed.put(digest, expiresAt.getTime());
     }
 
     public boolean isBlacklisted(String token) {
-        Date expiry = blacklist.get(token);
-        if (expiry == null) {
+        String digest = digest(token);
+        if (!bloom.mightContain(digest)) {
+            bloomNegativeCounter.increment();
             return false;
         }
-        if (expiry.before(new Date())) {
-            blacklist.remove(token);
+        long expiresAt = confirmed.get(digest, key -> repository.findById(key)
+                .map(revoked -> revoked.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+                .orElse(NOT_REVOKED));
+        if (expiresAt == NOT_REVOKED || expiresAt < System.currentTimeMillis()) {
+            falsePositiveCounter.increment();
             return false;
         }
+        revokedCounter.increment();
         return true;
     }
 
-    @Scheduled(fixedDelay = 60000)
-    public void evictExpired() {
-        Date now = new Date();
-        blacklist.entrySet().removeIf(entry -> entry.getValue().before(now));
+    @PostConstruct
+    public void load() {
+        rebuild();
+    }
+
+    // Pulls revocations made on other nodes; the overlap re-reads rows whose transactions committed late
+    @Scheduled(fixedDelayString = "${security.token-revocation.sync-interval-ms:5000}")
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        List<RevokedToken> revocations = repository.findRevokedSince(syncedUpTo.minus(syncOverlap), now);
+        BloomFilter current = bloom;
+        for (RevokedToken revoked : revocations) {
+            current.put(revoked.getTokenDigest());
+            // A cached false positive for this digest is no longer false
+            confirmed.invalidate(revoked.getTokenDigest());
+            if (revoked.getRevokedAt().isAfter(syncedUpTo)) {
+                syncedUpTo = revoked.getRevokedAt();
+            }
+        }
+    }
+
+    // Bloom filters cannot drop members, so expired revocations are cleared by swapping in a fresh filter
+    @Scheduled(fixedDelayString = "${security.token-revocation.rebuild-interval-ms:3600000}",
+            initialDelayString = "${security.token-revocation.rebuild-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = repository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired token revocations", purged);
+        }
+        rebuild();
+    }
+
+    private void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> digests = repository.findUnexpiredDigests(now);
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedInsertions, digests.size() * 2L), falsePositiveRate);
+        digests.forEach(rebuilt::put);
+        bloom = rebuilt;
+        // Revocations that landed between the query and the swap are picked up by the next sync's overlap
+        confirmed.invalidateAll();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
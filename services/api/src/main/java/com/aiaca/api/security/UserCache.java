@@ -0,0 +1,67 @@
+package com.aiaca.api.security;
+
+import com.aiaca.api.model.User;
+import com.aiaca.api.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Short-lived cache of users by id, shared by {@link JwtAuthenticationFilter} and the controllers so an
+ * authenticated request loads its user at most once. Cached users are detached: read from them, but load
+ * from {@link UserRepository} before changing and saving a user, then call {@link #evict(UUID)}.
+ */
+@Component
+public class UserCache {
+    private final UserRepository userRepository;
+    private final Cache<UUID, User> users;
+
+    public UserCache(UserRepository userRepository,
+                     MeterRegistry meterRegistry,
+                     @Value("${security.user-cache.ttl-seconds:30}") long ttlSeconds,
+                     @Value("${security.user-cache.max-entries:10000}") long maxEntries) {
+        this.userRepository = userRepository;
+        this.users = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+        new CaffeineCacheMetrics<>(users, "users", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    public Optional<User> get(UUID userId) {
+        return Optional.ofNullable(users.get(userId, id -> userRepository.findById(id).orElse(null)));
+    }
+
+    public User require(UUID userId) {
+        return get(userId).orElseThrow();
+    }
+
+    /**
+     * Drops the user now and again after the surrounding transaction commits, so a request racing the
+     * update cannot re-cache the old row for a full TTL.
+     */
+    public void evict(UUID userId) {
+        if (userId == null) {
+            return;
+        }
+        users.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    users.invalidate(userId);
+                }
+            });
+        }
+    }
+}
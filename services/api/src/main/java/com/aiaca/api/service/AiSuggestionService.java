@@ -0,0 +1,229 @@
+package com.aiaca.api.service;
+
+import com.aiaca.api.client.AiOrchestratorClient;
+import com.aiaca.api.client.ScannerClient;
+import com.aiaca.api.exception.UpstreamServiceException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Requests AI fix suggestions for a page's issues. Issues are split into chunks bounded by issue count and
+ * an estimated token budget, and chunks are sent with limited parallelism, so a large page neither blows
+ * the orchestrator timeout in one request nor loses every suggestion when a single chunk fails.
+ * Issues whose fingerprint is already in the {@link SuggestionCache} are answered without the orchestrator.
+ */
+@Service
+public class AiSuggestionService {
+    private static final Logger log = LoggerFactory.getLogger(AiSuggestionService.class);
+    // Rough English-text ratio; only used to keep prompts under budget, not for billing
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final int TOKENS_PER_ISSUE_OVERHEAD = 20;
+
+    private final AiOrchestratorClient aiOrchestratorClient;
+    private final SuggestionCache suggestionCache;
+    private final boolean aiUseStub;
+    private final int maxIssuesPerChunk;
+    private final int maxTokensPerChunk;
+    private final int concurrency;
+    private final Counter chunkSucceededCounter;
+    private final Counter chunkFailedCounter;
+
+    public AiSuggestionService(AiOrchestratorClient aiOrchestratorClient,
+                               SuggestionCache suggestionCache,
+                               MeterRegistry meterRegistry,
+                               @Value("${ai-orchestrator.use-stub:false}") boolean aiUseStub,
+                               @Value("${ai-orchestrator.batch.max-issues:25}") int maxIssuesPerChunk,
+                               @Value("${ai-orchestrator.batch.max-tokens:6000}") int maxTokensPerChunk,
+                               @Value("${ai-orchestrator.batch.concurrency:4}") int concurrency) {
+        this.aiOrchestratorClient = aiOrchestratorClient;
+        this.suggestionCache = suggestionCache;
+        this.aiUseStub = aiUseStub;
+        this.maxIssuesPerChunk = maxIssuesPerChunk;
+        this.maxTokensPerChunk = maxTokensPerChunk;
+        this.concurrency = concurrency;
+        this.chunkSucceededCounter = meterRegistry.counter("api_ai_suggestion_chunks_total", "outcome", "success");
+        this.chunkFailedCounter = meterRegistry.counter("api_ai_suggestion_chunks_total", "outcome", "failed");
+    }
+
+    public Mono<Map<String, List<AiOrchestratorClient.SuggestedFix>>> fetchSuggestionsAsync(
+            ScannerClient.ScannerResponse scannerResponse) {
+        return suggestions(scannerResponse, false)
+                .<Map<String, List<AiOrchestratorClient.SuggestedFix>>>collect(HashMap::new, (merged, fix) ->
+                        merged.computeIfAbsent(fix.issueId(), issueId -> new ArrayList<>()).add(fix));
+    }
+
+    /**
+     * Emits fixes one by one as the orchestrator streams them; cached fixes come first. Each fix carries the
+     * scanner id of the issue it belongs to.
+     */
+    public Flux<AiOrchestratorClient.SuggestedFix> streamSuggestions(ScannerClient.ScannerResponse scannerResponse) {
+        return suggestions(scannerResponse, true);
+    }
+
+    private Flux<AiOrchestratorClient.SuggestedFix> suggestions(ScannerClient.ScannerResponse scannerResponse,
+                                                               boolean streaming) {
+        if (scannerResponse.issues() == null || scannerResponse.issues().isEmpty()) {
+            return Flux.empty();
+        }
+        List<AiOrchestratorClient.IssueContext> contexts = scannerResponse.issues().stream()
+                .map(issue -> new AiOrchestratorClient.IssueContext(
+                        issue.id(), issue.type(), normalizeSeverity(issue.severity()), issue.description(), issue.selector(),
+                        scannerResponse.url()))
+                .toList();
+
+        // Stub suggestions are placeholders and must not be served to real scans later
+        if (aiUseStub || !suggestionCache.isEnabled()) {
+            return requestChunks(scannerResponse.url(), contexts, streaming);
+        }
+
+        Map<String, List<AiOrchestratorClient.IssueContext>> byFingerprint = new LinkedHashMap<>();
+        for (AiOrchestratorClient.IssueContext context : contexts) {
+            byFingerprint.computeIfAbsent(SuggestionCache.fingerprint(context.type(), context.selector(), context.description()),
+                    fingerprint -> new ArrayList<>()).add(context);
+        }
+
+        return Mono.fromCallable(() -> suggestionCache.getAll(byFingerprint.keySet()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(ex -> {
+                    log.warn("Suggestion cache lookup failed for {}: {}", scannerResponse.url(), ex.getMessage());
+                    return Mono.just(Map.of());
+                })
+                .flatMapMany(cached -> {
+                    List<AiOrchestratorClient.SuggestedFix> hits = new ArrayList<>();
+                    List<AiOrchestratorClient.IssueContext> toRequest = new ArrayList<>();
+                    Map<String, String> fingerprintByIssueId = new HashMap<>();
+                    byFingerprint.forEach((fingerprint, group) -> {
+                        AiOrchestratorClient.SuggestedFix hit = cached.get(fingerprint);
+                        if (hit != null) {
+                            group.forEach(context -> hits.add(forIssue(context, hit)));
+                            return;
+                        }
+                        // Identical issues on one page are only asked about once
+                        AiOrchestratorClient.IssueContext representative = group.get(0);
+                        toRequest.add(representative);
+                        if (representative.id() != null) {
+                            fingerprintByIssueId.put(representative.id(), fingerprint);
+                        }
+                    });
+                    if (toRequest.isEmpty()) {
+                        return Flux.fromIterable(hits);
+                    }
+
+                    // Fixes arrive one at a time (signals are serialized), so a plain map is enough
+                    Map<String, AiOrchestratorClient.SuggestedFix> toStore = new HashMap<>();
+                    Flux<AiOrchestratorClient.SuggestedFix> fresh = requestChunks(scannerResponse.url(), toRequest, streaming)
+                            .concatMapIterable(fix -> {
+                                String fingerprint = fingerprintByIssueId.get(fix.issueId());
+                                if (fingerprint == null) {
+                                    return List.of(fix);
+                                }
+                                toStore.putIfAbsent(fingerprint, fix);
+                                return byFingerprint.get(fingerprint).stream().map(context -> forIssue(context, fix)).toList();
+                            })
+                            .concatWith(Mono.defer(() -> store(scannerResponse.url(), toStore))
+                                    .then(Mono.empty()));
+                    return Flux.fromIterable(hits).concatWith(fresh);
+                });
+    }
+
+    private Flux<AiOrchestratorClient.SuggestedFix> requestChunks(
+            String pageUrl, List<AiOrchestratorClient.IssueContext> contexts, boolean streaming) {
+        List<List<AiOrchestratorClient.IssueContext>> chunks = chunk(contexts, maxIssuesPerChunk, maxTokensPerChunk);
+        return Flux.fromIterable(chunks)
+                .flatMap(chunk -> requestChunk(pageUrl, chunk, streaming), concurrency);
+    }
+
+    private Mono<Void> store(String pageUrl, Map<String, AiOrchestratorClient.SuggestedFix> fixes) {
+        if (fixes.isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.<Void>fromRunnable(() -> suggestionCache.putAll(fixes))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(ex -> {
+                    log.warn("Could not cache AI suggestions for {}: {}", pageUrl, ex.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private static AiOrchestratorClient.SuggestedFix forIssue(AiOrchestratorClient.IssueContext context,
+                                                            AiOrchestratorClient.SuggestedFix fix) {
+        return new AiOrchestratorClient.SuggestedFix(context.id(), context.selector(), fix.explanation(),
+                fix.suggestedFix(), fix.confidence(), fix.grounded());
+    }
+
+    private Flux<AiOrchestratorClient.SuggestedFix> requestChunk(String pageUrl, List<AiOrchestratorClient.IssueContext> chunk,
+                                                                boolean streaming) {
+        Flux<AiOrchestratorClient.SuggestedFix> fixes = streaming
+                ? aiOrchestratorClient.streamSuggestions(pageUrl, chunk, aiUseStub)
+                : aiOrchestratorClient.requestSuggestionsAsync(pageUrl, chunk, aiUseStub)
+                        .filter(suggestionResponse -> suggestionResponse.suggestions() != null)
+                        .flatMapIterable(AiOrchestratorClient.SuggestionResponse::suggestions);
+        return fixes
+                .doOnComplete(chunkSucceededCounter::increment)
+                .onErrorResume(UpstreamServiceException.class, ex -> {
+                    // Only this chunk's remaining issues go without suggestions
+                    chunkFailedCounter.increment();
+                    log.warn("AI orchestrator failed for {} of the issues on {}: {}", chunk.size(), pageUrl, ex.getMessage());
+                    return Flux.empty();
+                });
+    }
+
+    static List<List<AiOrchestratorClient.IssueContext>> chunk(List<AiOrchestratorClient.IssueContext> contexts,
+                                                               int maxIssues, int maxTokens) {
+        List<List<AiOrchestratorClient.IssueContext>> chunks = new ArrayList<>();
+        List<AiOrchestratorClient.IssueContext> current = new ArrayList<>();
+        int currentTokens = 0;
+        for (AiOrchestratorClient.IssueContext context : contexts) {
+            int tokens = estimateTokens(context);
+            // An oversized single issue still goes out, alone in its chunk
+            if (!current.isEmpty() && (current.size() >= maxIssues || currentTokens + tokens > maxTokens)) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                currentTokens = 0;
+            }
+            current.add(context);
+            currentTokens += tokens;
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    static int estimateTokens(AiOrchestratorClient.IssueContext context) {
+        int chars = length(context.type()) + length(context.description()) + length(context.selector())
+                + length(context.id()) + length(context.severity());
+        return TOKENS_PER_ISSUE_OVERHEAD + chars / CHARS_PER_TOKEN;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private String normalizeSeverity(String severity) {
+        if (severity == null) {
+            return "MODERATE";
+        }
+        // Axe-core returns lowercase severity: critical, serious, moderate, minor
+        // Convert to uppercase to match the TypeScript IssueSeverity enum
+        String normalized = severity.toUpperCase();
+        // Validate it's one of the expected values
+        if (normalized.matches("CRITICAL|SERIOUS|MODERATE|MINOR")) {
+            return normalized;
+        }
+        // Default to MODERATE for unknown severity values
+        return "MODERATE";
+    }
+}
@@ -71,6 +71,7 @@ public class AuthService {
                 return;
             }
             tokenBlacklist.blacklist(token, expiry);
+            jwtService.evict(token);
             log.info("Token blacklisted until {}", expiry);
         } catch (io.jsonwebtoken.JwtException | IllegalArgumentException ex) {
             log.info("Ignoring logout for invalid token: {}", ex.getMessage());
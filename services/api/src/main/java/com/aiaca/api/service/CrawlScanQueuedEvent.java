@@ -0,0 +1,8 @@
+package com.aiaca.api.service;
+
+import java.util.List;
+import java.util.UUID;
+
+// pageUrls is empty when pages should be discovered from seedUrl
+public record CrawlScanQueuedEvent(UUID scanId, UUID siteId, String seedUrl, List<String> pageUrls, int maxPages,
+                                   String tenant) {}
@@ -0,0 +1,271 @@
+package com.aiaca.api.service;
+
+import com.aiaca.api.client.AiOrchestratorClient;
+import com.aiaca.api.client.PageDiscoveryClient;
+import com.aiaca.api.client.ScannerClient;
+import com.aiaca.api.config.CorrelationIdFilter;
+import com.aiaca.api.exception.BadRequestException;
+import com.aiaca.api.exception.ServiceUnavailableException;
+import com.aiaca.api.exception.UpstreamServiceException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs multi-page crawl scans. Each crawl gets a coordinator thread that fans pages out to the scanner,
+ * at most {@code scan.crawl.per-site-concurrency} at a time per site, shared by all crawls of that site on this
+ * node, and {@code scan.crawl.global-concurrency} across all crawls. Pages are persisted into the parent scan as they finish, so progress is visible while
+ * the crawl runs; a failed page is counted and skipped rather than failing the whole crawl.
+ */
+@Component
+public class CrawlScanRunner {
+    private static final Logger log = LoggerFactory.getLogger(CrawlScanRunner.class);
+
+    private final ScanService scanService;
+    private final ScanScheduler scanScheduler;
+    private final AiSuggestionService aiSuggestionService;
+    private final IssueStreamProcessor issueStreamProcessor;
+    private final PageDiscoveryClient pageDiscoveryClient;
+    private final UrlSanitizer urlSanitizer;
+    private final ThreadPoolExecutor coordinators;
+    private final Semaphore globalPermits;
+    private final Map<UUID, SitePermits> sites = new ConcurrentHashMap<>();
+    private final int perSiteConcurrency;
+    private final long retryAfterSeconds;
+    private final Timer crawlTimer;
+    private final Counter rejectedCounter;
+    private final Counter pagesCompletedCounter;
+    private final Counter pagesFailedCounter;
+
+    public CrawlScanRunner(ScanService scanService,
+                           ScanScheduler scanScheduler,
+                           AiSuggestionService aiSuggestionService,
+                           IssueStreamProcessor issueStreamProcessor,
+                           PageDiscoveryClient pageDiscoveryClient,
+                           UrlSanitizer urlSanitizer,
+                           MeterRegistry meterRegistry,
+                           @Value("${scan.crawl.coordinator-pool-size:2}") int coordinatorPoolSize,
+                           @Value("${scan.crawl.queue-capacity:20}") int queueCapacity,
+                           @Value("${scan.crawl.per-site-concurrency:4}") int perSiteConcurrency,
+                           @Value("${scan.crawl.global-concurrency:32}") int globalConcurrency,
+                           @Value("${scan.worker.retry-after-seconds:30}") long retryAfterSeconds,
+                           @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.scanService = scanService;
+        this.scanScheduler = scanScheduler;
+        this.aiSuggestionService = aiSuggestionService;
+        this.issueStreamProcessor = issueStreamProcessor;
+        this.pageDiscoveryClient = pageDiscoveryClient;
+        this.urlSanitizer = urlSanitizer;
+        this.perSiteConcurrency = perSiteConcurrency;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.globalPermits = new Semaphore(globalConcurrency);
+        this.coordinators = new ThreadPoolExecutor(coordinatorPoolSize, coordinatorPoolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                WorkerThreads.factory("crawl-coordinator-", virtualThreads),
+                new ThreadPoolExecutor.AbortPolicy());
+        meterRegistry.gauge("api_crawl_queue_depth", coordinators, pool -> pool.getQueue().size());
+        meterRegistry.gauge("api_crawl_pages_in_flight", globalPermits, permits -> globalConcurrency - permits.availablePermits());
+        this.crawlTimer = meterRegistry.timer("api_crawl_run_seconds");
+        this.rejectedCounter = meterRegistry.counter("api_scan_jobs_total", "outcome", "rejected");
+        this.pagesCompletedCounter = meterRegistry.counter("api_crawl_pages_total", "outcome", "completed");
+        this.pagesFailedCounter = meterRegistry.counter("api_crawl_pages_total", "outcome", "failed");
+    }
+
+    @EventListener
+    public void onCrawlQueued(CrawlScanQueuedEvent event) {
+        String correlationId = MDC.get(CorrelationIdFilter.CORRELATION_KEY);
+        try {
+            coordinators.execute(() -> coordinate(event, correlationId));
+        } catch (RejectedExecutionException ex) {
+            rejectedCounter.increment();
+            scanService.markFailed(event.scanId());
+            throw new ServiceUnavailableException("Crawl queue is full, please retry shortly", retryAfterSeconds);
+        }
+    }
+
+    private void coordinate(CrawlScanQueuedEvent event, String correlationId) {
+        if (correlationId != null) {
+            MDC.put(CorrelationIdFilter.CORRELATION_KEY, correlationId);
+        }
+        UUID scanId = event.scanId();
+        Timer.Sample sample = Timer.start();
+        Semaphore sitePermits = joinSite(event.siteId());
+        try {
+            List<String> pages = resolvePages(event);
+            scanService.startCrawl(scanId, pages.size());
+
+            CountDownLatch remaining = new CountDownLatch(pages.size());
+            for (String page : pages) {
+                // Blocking here only stalls this crawl's coordinator; pages themselves run on Netty threads.
+                sitePermits.acquire();
+                globalPermits.acquire();
+                scanPage(scanId, page, event.tenant(), correlationId, sitePermits, remaining);
+            }
+            remaining.await();
+            scanService.completeCrawl(scanId);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            log.warn("Crawl {} interrupted", scanId);
+            scanService.markFailed(scanId);
+        } catch (RuntimeException ex) {
+            log.warn("Crawl {} failed: {}", scanId, ex.getMessage());
+            scanService.markFailed(scanId);
+        } finally {
+            leaveSite(event.siteId());
+            sample.stop(crawlTimer);
+            MDC.remove(CorrelationIdFilter.CORRELATION_KEY);
+        }
+    }
+
+    private Semaphore joinSite(UUID siteId) {
+        return sites.compute(siteId, (id, site) -> {
+            SitePermits joined = site != null ? site : new SitePermits(perSiteConcurrency);
+            joined.crawls++;
+            return joined;
+        }).permits;
+    }
+
+    // The last crawl of a site drops its permits; pages of an interrupted crawl may still release into them
+    private void leaveSite(UUID siteId) {
+        sites.computeIfPresent(siteId, (id, site) -> --site.crawls == 0 ? null : site);
+    }
+
+    private List<String> resolvePages(CrawlScanQueuedEvent event) {
+        List<String> candidates = !event.pageUrls().isEmpty()
+                ? event.pageUrls()
+                : pageDiscoveryClient.discover(event.seedUrl(), event.maxPages()).block();
+        Set<String> pages = new LinkedHashSet<>();
+        for (String candidate : candidates) {
+            if (pages.size() >= event.maxPages()) {
+                break;
+            }
+            try {
+                pages.add(urlSanitizer.sanitize(candidate));
+            } catch (BadRequestException ex) {
+                log.debug("Skipping crawl page {}: {}", candidate, ex.getMessage());
+            }
+        }
+        return List.copyOf(pages);
+    }
+
+    // Pages are admitted, and their callbacks run, on other threads; the correlation id goes along explicitly
+    private void scanPage(UUID scanId, String pageUrl, String tenant, String correlationId, Semaphore sitePermits,
+                          CountDownLatch remaining) {
+        if (issueStreamProcessor.isEnabled()) {
+            issueStreamProcessor.process(scanId, pageUrl, ScanPriority.SCHEDULED, tenant)
+                    .doFinally(signal -> {
+                        globalPermits.release();
+                        sitePermits.release();
+                    })
+                    .contextWrite(CorrelationIdFilter.context(correlationId))
+                    .subscribe(
+                            tally -> CorrelationIdFilter.runWith(correlationId, () -> {
+                                persistStreamedPage(scanId, pageUrl, tally);
+                                remaining.countDown();
+                            }),
+                            ex -> CorrelationIdFilter.runWith(correlationId, () -> {
+                                discardPage(scanId, pageUrl);
+                                failPage(scanId, pageUrl, ex);
+                                remaining.countDown();
+                            }));
+            return;
+        }
+        scanScheduler.scan(pageUrl, ScanPriority.SCHEDULED, tenant)
+                .switchIfEmpty(Mono.error(() -> new UpstreamServiceException(
+                        "Scanner service returned an empty response", HttpStatus.BAD_GATEWAY)))
+                .flatMap(scannerResponse -> aiSuggestionService.fetchSuggestionsAsync(scannerResponse)
+                        .map(suggestions -> new PageOutcome(scannerResponse, suggestions)))
+                .publishOn(Schedulers.boundedElastic())
+                .doFinally(signal -> {
+                    globalPermits.release();
+                    sitePermits.release();
+                })
+                .contextWrite(CorrelationIdFilter.context(correlationId))
+                .subscribe(
+                        outcome -> CorrelationIdFilter.runWith(correlationId, () -> {
+                            persistPage(scanId, pageUrl, outcome);
+                            remaining.countDown();
+                        }),
+                        ex -> CorrelationIdFilter.runWith(correlationId, () -> {
+                            failPage(scanId, pageUrl, ex);
+                            remaining.countDown();
+                        }));
+    }
+
+    private void persistPage(UUID scanId, String pageUrl, PageOutcome outcome) {
+        try {
+            scanService.appendCrawlPage(scanId, pageUrl, outcome.scannerResponse(), outcome.suggestions());
+            pagesCompletedCounter.increment();
+        } catch (RuntimeException ex) {
+            failPage(scanId, pageUrl, ex);
+        }
+    }
+
+    private void persistStreamedPage(UUID scanId, String pageUrl, IssueStreamProcessor.IssueTally tally) {
+        try {
+            scanService.completeStreamedCrawlPage(scanId, tally.errors(), tally.warnings());
+            pagesCompletedCounter.increment();
+        } catch (RuntimeException ex) {
+            discardPage(scanId, pageUrl);
+            failPage(scanId, pageUrl, ex);
+        }
+    }
+
+    private void discardPage(UUID scanId, String pageUrl) {
+        try {
+            scanService.discardPageIssues(scanId, pageUrl);
+        } catch (RuntimeException ex) {
+            log.warn("Could not discard partial issues of crawl {} page {}: {}", scanId, pageUrl, ex.getMessage());
+        }
+    }
+
+    private void failPage(UUID scanId, String pageUrl, Throwable ex) {
+        pagesFailedCounter.increment();
+        log.warn("Crawl {} page {} failed: {}", scanId, pageUrl, ex.getMessage());
+        try {
+            scanService.recordCrawlPageFailure(scanId);
+        } catch (RuntimeException recordEx) {
+            log.warn("Could not record failed page for crawl {}: {}", scanId, recordEx.getMessage());
+        }
+    }
+
+    // Guarded by the map's compute; the semaphore itself is shared lock-free by the site's coordinators
+    private static final class SitePermits {
+        private final Semaphore permits;
+        private int crawls;
+
+        private SitePermits(int perSiteConcurrency) {
+            this.permits = new Semaphore(perSiteConcurrency);
+        }
+    }
+
+    private record PageOutcome(ScannerClient.ScannerResponse scannerResponse,
+                               Map<String, List<AiOrchestratorClient.SuggestedFix>> suggestions) {}
+
+    @PreDestroy
+    public void shutdown() {
+        coordinators.shutdownNow();
+    }
+}
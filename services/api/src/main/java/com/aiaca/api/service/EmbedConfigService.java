@@ -0,0 +1,215 @@
+package com.aiaca.api.service;
+
+import com.aiaca.api.dto.EmbedConfigDto;
+import com.aiaca.api.exception.ResourceNotFoundException;
+import com.aiaca.api.model.Scan;
+import com.aiaca.api.model.ScanStatus;
+import com.aiaca.api.model.Site;
+import com.aiaca.api.repository.ScanRepository;
+import com.aiaca.api.repository.SiteRepository;
+import com.aiaca.api.security.EmbedKeyVerifier;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Serves embed configs from materialized snapshots. The {@link EmbedConfigDto} is rebuilt and stored on the
+ * site row when a scan completes, and kept in a bounded in-memory tier, so page-view traffic from the embed
+ * script is answered without touching the database in steady state. The memory TTL bounds how long another
+ * replica can serve a snapshot older than the latest scan. A snapshot that still carries a key rotated on another
+ * replica is rebuilt as soon as the new key verifies here, so a rotation never waits for that TTL.
+ */
+@Service
+public class EmbedConfigService {
+    private static final Logger log = LoggerFactory.getLogger(EmbedConfigService.class);
+
+    private final SiteRepository siteRepository;
+    private final ScanRepository scanRepository;
+    private final EmbedKeyVerifier embedKeyVerifier;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final Cache<UUID, EmbedConfigSnapshot> snapshots;
+
+    public EmbedConfigService(SiteRepository siteRepository,
+                              ScanRepository scanRepository,
+                              EmbedKeyVerifier embedKeyVerifier,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${embed.config.cache.ttl-seconds:300}") long ttlSeconds,
+                              @Value("${embed.config.cache.max-entries:10000}") long maxEntries) {
+        this.siteRepository = siteRepository;
+        this.scanRepository = scanRepository;
+        this.embedKeyVerifier = embedKeyVerifier;
+        this.objectMapper = objectMapper;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        // Snapshots are rebuilt after the scan transaction commits, so they need a transaction of their own
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.snapshots = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+        new CaffeineCacheMetrics<>(snapshots, "embed_configs", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    public EmbedConfigSnapshot getForEmbedKey(UUID siteId, String embedKey) {
+        if (!embedKeyVerifier.verify(siteId, embedKey)) {
+            throw new ResourceNotFoundException("Site not found for embed key");
+        }
+        EmbedConfigSnapshot snapshot = snapshots.get(siteId, this::load);
+        if (snapshot != null && !embedKey.equals(snapshot.config().embedKey())) {
+            // Materialized before the key was rotated on another replica
+            snapshots.invalidate(siteId);
+            snapshot = snapshots.get(siteId, this::load);
+        }
+        if (snapshot == null) {
+            throw new ResourceNotFoundException("Site not found for embed key");
+        }
+        return snapshot;
+    }
+
+    public EmbedConfigSnapshot getForOwner(UUID siteId, UUID ownerId) {
+        EmbedConfigSnapshot snapshot = snapshots.get(siteId, this::load);
+        if (snapshot == null || !snapshot.ownerId().equals(ownerId)) {
+            throw new ResourceNotFoundException("Site not found");
+        }
+        return snapshot;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScanCompleted(ScanCompletedEvent event) {
+        try {
+            EmbedConfigSnapshot snapshot = writeTransaction.execute(status ->
+                    siteRepository.findById(event.siteId()).map(this::materialize).orElse(null));
+            if (snapshot != null) {
+                snapshots.put(event.siteId(), snapshot);
+            }
+        } catch (RuntimeException ex) {
+            // Fall back to rebuilding on the next request rather than failing the scan
+            snapshots.invalidate(event.siteId());
+            log.warn("Could not materialize embed config for site {}: {}", event.siteId(), ex.getMessage());
+        }
+    }
+
+    public void evict(UUID siteId) {
+        snapshots.invalidate(siteId);
+    }
+
+    private EmbedConfigSnapshot load(UUID siteId) {
+        Site found = readTransaction.execute(status -> siteRepository.findById(siteId).orElse(null));
+        if (found == null) {
+            return null;
+        }
+        if (found.getEmbedConfigJson() != null && found.getEmbedConfigEtag() != null) {
+            return new EmbedConfigSnapshot(readConfig(found.getEmbedConfigJson()), found.getOwner().getId(),
+                    found.getEmbedConfigEtag());
+        }
+        // Sites that have not completed a scan since snapshots were introduced
+        return writeTransaction.execute(status -> siteRepository.findById(siteId).map(this::materialize).orElse(null));
+    }
+
+    private EmbedConfigSnapshot materialize(Site site) {
+        EmbedConfigDto config = buildConfig(site);
+        String json = writeConfig(config);
+        String etag = sha256(json);
+        site.setEmbedConfigJson(json);
+        site.setEmbedConfigEtag(etag);
+        siteRepository.save(site);
+        return new EmbedConfigSnapshot(config, site.getOwner().getId(), etag);
+    }
+
+    private EmbedConfigDto buildConfig(Site site) {
+        // Fetch the latest completed scan for this site
+        Optional<Scan> latestScan = scanRepository.findFirstBySiteAndStatusOrderByCreatedAtDesc(
+            site,
+            ScanStatus.COMPLETED
+        );
+
+        List<EmbedConfigDto.AltTextSuggestion> altTextSuggestions = new ArrayList<>();
+
+        if (latestScan.isPresent()) {
+            Scan scan = latestScan.get();
+
+            // Extract alt text suggestions from scan issues
+            scan.getIssues().stream()
+                .filter(issue -> {
+                    // Look for issues related to missing alt text
+                    String type = issue.getType();
+                    return type != null && (
+                        type.contains("alt") ||
+                        type.contains("image") ||
+                        type.equals("missing_alt_text")
+                    );
+                })
+                .forEach(issue -> {
+                    if (issue.getSuggestion() != null && !issue.getSuggestion().isBlank()) {
+                        altTextSuggestions.add(new EmbedConfigDto.AltTextSuggestion(
+                            issue.getSelector(),  // CSS selector from issue
+                            null,                 // imageUrl - can be extracted if stored
+                            issue.getSuggestion() // AI-generated alt text
+                        ));
+                    }
+                });
+        }
+
+        return new EmbedConfigDto(
+            site.getId(),
+            site.getEmbedKey(),
+            List.of("alt_text", "focus_outline"),
+            true,  // enableSkipLink
+            altTextSuggestions,
+            "#1f6feb",  // Default GitHub blue color
+            "Skip to main content"
+        );
+    }
+
+    private EmbedConfigDto readConfig(String json) {
+        try {
+            return objectMapper.readValue(json, EmbedConfigDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored embed config is not valid JSON", e);
+        }
+    }
+
+    private String writeConfig(EmbedConfigDto config) {
+        try {
+            return objectMapper.writeValueAsString(config);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize embed config", e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
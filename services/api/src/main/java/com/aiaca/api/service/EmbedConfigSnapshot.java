@@ -0,0 +1,6 @@
+package com.aiaca.api.service;
+
+import com.aiaca.api.dto.EmbedConfigDto;
+import java.util.UUID;
+
+public record EmbedConfigSnapshot(EmbedConfigDto config, UUID ownerId, String etag) {}
@@ -0,0 +1,126 @@
+package com.aiaca.api.service;
+
+import com.aiaca.api.client.AiOrchestratorClient;
+import com.aiaca.api.client.ScannerClient;
+import com.aiaca.api.exception.UpstreamServiceException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Streaming alternative to the buffered scanner -> AI -> persist pipeline. With {@code scanner.streaming.enabled}
+ * issues are decoded while the scanner response arrives and move through the AI and persistence stages in
+ * batches of {@code scanner.streaming.batch-size}, one batch per stage at a time, so memory stays flat however
+ * many issues a page has. With {@code ai-orchestrator.streaming.enabled} a batch's issues are persisted first
+ * and each suggestion is attached as the orchestrator streams it, in groups of at most
+ * {@code ai-orchestrator.streaming.flush-size} or every {@code flush-interval-ms}.
+ */
+@Component
+public class IssueStreamProcessor {
+    private final ScanScheduler scanScheduler;
+    private final AiSuggestionService aiSuggestionService;
+    private final ScanService scanService;
+    private final boolean scannerStreaming;
+    private final int batchSize;
+    private final boolean suggestionStreaming;
+    private final int flushSize;
+    private final Duration flushInterval;
+    private final DistributionSummary batchSizeSummary;
+
+    public IssueStreamProcessor(ScanScheduler scanScheduler,
+                                AiSuggestionService aiSuggestionService,
+                                ScanService scanService,
+                                MeterRegistry meterRegistry,
+                                @Value("${scanner.streaming.enabled:false}") boolean scannerStreaming,
+                                @Value("${scanner.streaming.batch-size:200}") int batchSize,
+                                @Value("${ai-orchestrator.streaming.enabled:false}") boolean suggestionStreaming,
+                                @Value("${ai-orchestrator.streaming.flush-size:16}") int flushSize,
+                                @Value("${ai-orchestrator.streaming.flush-interval-ms:250}") long flushIntervalMs) {
+        this.scanScheduler = scanScheduler;
+        this.aiSuggestionService = aiSuggestionService;
+        this.scanService = scanService;
+        this.scannerStreaming = scannerStreaming;
+        this.batchSize = batchSize;
+        this.suggestionStreaming = suggestionStreaming;
+        this.flushSize = flushSize;
+        this.flushInterval = Duration.ofMillis(flushIntervalMs);
+        this.batchSizeSummary = meterRegistry.summary("api_scan_stream_batch_issues");
+    }
+
+    public boolean isEnabled() {
+        return scannerStreaming || suggestionStreaming;
+    }
+
+    /**
+     * Scans {@code pageUrl} and persists its issues into {@code scanId} batch by batch. Emits the totals once
+     * the scanner response has been fully processed; on error the batches persisted so far are left in place
+     * for the caller to discard.
+     */
+    public Mono<IssueTally> process(UUID scanId, String pageUrl, ScanPriority priority, String tenant) {
+        return batches(pageUrl, priority, tenant)
+                .concatMap(batch -> suggestionStreaming
+                        ? persistThenSuggest(scanId, pageUrl, batch)
+                        : suggestThenPersist(scanId, pageUrl, batch), 1)
+                .reduce(IssueTally.EMPTY, IssueTally::plus);
+    }
+
+    private Flux<List<ScannerClient.ScannerIssue>> batches(String pageUrl, ScanPriority priority, String tenant) {
+        if (scannerStreaming) {
+            return scanScheduler.scanIssues(pageUrl, priority, tenant, batchSize);
+        }
+        return scanScheduler.scan(pageUrl, priority, tenant)
+                .switchIfEmpty(Mono.error(() -> new UpstreamServiceException(
+                        "Scanner service returned an empty response", HttpStatus.BAD_GATEWAY)))
+                .flatMapMany(scannerResponse -> scannerResponse.issues() == null
+                        ? Flux.empty()
+                        : Flux.just(scannerResponse.issues()));
+    }
+
+    private Mono<IssueTally> suggestThenPersist(UUID scanId, String pageUrl, List<ScannerClient.ScannerIssue> batch) {
+        return aiSuggestionService.fetchSuggestionsAsync(new ScannerClient.ScannerResponse(pageUrl, batch, null))
+                // Persistence is blocking JPA/JDBC work; keep it off the Netty event loop.
+                .publishOn(Schedulers.boundedElastic())
+                .map(suggestions -> record(scanId, pageUrl, batch, suggestions));
+    }
+
+    private Mono<IssueTally> persistThenSuggest(UUID scanId, String pageUrl, List<ScannerClient.ScannerIssue> batch) {
+        return Mono.fromCallable(() -> scanService.appendIssues(scanId, pageUrl, batch, Map.of()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(recorded -> batchSizeSummary.record(batch.size()))
+                .flatMap(recorded -> aiSuggestionService
+                        .streamSuggestions(new ScannerClient.ScannerResponse(pageUrl, batch, null))
+                        // One write per group of fixes rather than per fix, but never holding a fix longer than the interval
+                        .bufferTimeout(flushSize, flushInterval)
+                        .publishOn(Schedulers.boundedElastic(), 1)
+                        .doOnNext(fixes -> scanService.attachSuggestions(scanId, recorded, fixes))
+                        .then(Mono.just(new IssueTally(recorded.issueCount(), recorded.errorCount()))));
+    }
+
+    private IssueTally record(UUID scanId, String pageUrl, List<ScannerClient.ScannerIssue> batch,
+                              Map<String, List<AiOrchestratorClient.SuggestedFix>> suggestions) {
+        batchSizeSummary.record(batch.size());
+        ScanService.RecordedIssues recorded = scanService.appendIssues(scanId, pageUrl, batch, suggestions);
+        return new IssueTally(recorded.issueCount(), recorded.errorCount());
+    }
+
+    public record IssueTally(int issues, int errors) {
+        static final IssueTally EMPTY = new IssueTally(0, 0);
+
+        IssueTally plus(IssueTally other) {
+            return new IssueTally(issues + other.issues, errors + other.errors);
+        }
+
+        public int warnings() {
+            return issues - errors;
+        }
+    }
+}
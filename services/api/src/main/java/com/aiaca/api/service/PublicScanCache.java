@@ -0,0 +1,42 @@
+package com.aiaca.api.service;
+
+import com.aiaca.api.dto.ScanDtos;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Bounded, TTL-based cache in front of {@link ScanService#createPublicScanAsync(String)}, keyed by the
+ * {@link UrlSanitizer#sanitize(String)} output. Concurrent requests for the same URL share one in-flight
+ * scanner call; failed scans are not cached.
+ */
+@Component
+public class PublicScanCache {
+    private final ScanService scanService;
+    private final AsyncCache<String, ScanDtos.ScanDetail> cache;
+
+    public PublicScanCache(ScanService scanService,
+                           MeterRegistry meterRegistry,
+                           @Value("${scan.public.cache.ttl-seconds:300}") long ttlSeconds,
+                           @Value("${scan.public.cache.max-entries:1000}") long maxEntries) {
+        this.scanService = scanService;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxEntries)
+                .recordStats()
+                .buildAsync();
+        new CaffeineCacheMetrics<>(cache.synchronous(), "public_scans", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    public Mono<ScanDtos.ScanDetail> get(String sanitizedUrl) {
+        // suppressCancel: one client disconnecting must not cancel the scan other callers are waiting on
+        return Mono.fromFuture(() -> cache.get(sanitizedUrl,
+                (url, executor) -> scanService.createPublicScanAsync(url).toFuture()), true);
+    }
+}
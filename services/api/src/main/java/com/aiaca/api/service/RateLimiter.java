@@ -1,39 +1,170 @@
 package com.aiaca.api.service;
 
 import com.aiaca.api.exception.RateLimitExceededException;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Component;
+import com.aiaca.api.repository.RateLimitWindowStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.time.Instant;
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
-@Component
+/**
+ * Per-key limit of {@code maxRequests} per {@code windowMs}, as a generic cell rate algorithm: each key is one
+ * {@link AtomicLong} holding its theoretical arrival time, updated by CAS, so checks are lock-free and allocate
+ * nothing once the key is known. Keys live in a bounded cache and expire after a window of inactivity, when
+ * their state would be equivalent to a fresh key anyway. Policies are defined in {@code RateLimitConfig}.
+ * <p>
+ * With a {@link RateLimitWindowStore} the limit also holds across nodes: after the local check, a request spends
+ * a permit from a per-key lease claimed in chunks of {@code leaseSize} from a shared fixed-window counter, so
+ * only one request per chunk touches the database. Once the shared window is exhausted the key is rejected
+ * locally until the window rolls over; those rejections hand their per-node slot back.
+ */
 public class RateLimiter {
-    private final Map<String, Deque<Long>> requests = new ConcurrentHashMap<>();
+    private static final Logger log = LoggerFactory.getLogger(RateLimiter.class);
+
+    private final String policy;
     private final int maxRequests;
     private final long windowMs;
+    private final long windowNanos;
+    private final long intervalNanos;
+    private final Cache<String, AtomicLong> arrivals;
+    private final Counter allowedCounter;
+    private final Counter rejectedCounter;
+    private final RateLimitWindowStore store;
+    private final int leaseSize;
+    private final Cache<String, Lease> leases;
+    private final Counter claimGrantedCounter;
+    private final Counter claimExhaustedCounter;
+    private final Counter claimFailedCounter;
+    private final LongSupplier wallClock;
+
+    public RateLimiter(String policy, int maxRequests, long windowMs, long maxKeys, MeterRegistry meterRegistry) {
+        this(policy, maxRequests, windowMs, maxKeys, meterRegistry, null, 1);
+    }
+
+    public RateLimiter(String policy, int maxRequests, long windowMs, long maxKeys, MeterRegistry meterRegistry,
+                       RateLimitWindowStore store, int leaseSize) {
+        this(policy, maxRequests, windowMs, maxKeys, meterRegistry, store, leaseSize, System::currentTimeMillis);
+    }
 
-    public RateLimiter(@Value("${security.public-scan.rate-limit.max-requests:5}") int maxRequests,
-                       @Value("${security.public-scan.rate-limit.window-ms:60000}") long windowMs) {
+    RateLimiter(String policy, int maxRequests, long windowMs, long maxKeys, MeterRegistry meterRegistry,
+                RateLimitWindowStore store, int leaseSize, LongSupplier wallClock) {
+        this.policy = policy;
         this.maxRequests = maxRequests;
         this.windowMs = windowMs;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.intervalNanos = Math.max(1, windowNanos / maxRequests);
+        this.arrivals = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofMillis(windowMs))
+                .recordStats()
+                .build();
+        new CaffeineCacheMetrics<>(arrivals, "rate_limit_keys", Tags.of("policy", policy)).bindTo(meterRegistry);
+        this.allowedCounter = meterRegistry.counter("api_rate_limit_total", "policy", policy, "outcome", "allowed");
+        this.rejectedCounter = meterRegistry.counter("api_rate_limit_total", "policy", policy, "outcome", "rejected");
+        this.store = store;
+        this.leaseSize = Math.max(1, Math.min(leaseSize, maxRequests));
+        this.leases = store == null ? null : Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofMillis(windowMs))
+                .build();
+        this.claimGrantedCounter = meterRegistry.counter("api_rate_limit_shared_claims_total", "policy", policy, "outcome", "granted");
+        this.claimExhaustedCounter = meterRegistry.counter("api_rate_limit_shared_claims_total", "policy", policy, "outcome", "exhausted");
+        this.claimFailedCounter = meterRegistry.counter("api_rate_limit_shared_claims_total", "policy", policy, "outcome", "failed");
+        this.wallClock = wallClock;
     }
 
     public void assertWithinLimit(String key) {
-        long now = Instant.now().toEpochMilli();
-        requests.putIfAbsent(key, new ArrayDeque<>());
-        Deque<Long> times = requests.get(key);
-        while (!times.isEmpty() && now - times.peekFirst() > windowMs) {
-            times.pollFirst();
-        }
-        if (times.size() >= maxRequests) {
+        long waitNanos = tryAcquire(key);
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
             throw new RateLimitExceededException(String.format("Rate limit exceeded (%d requests / %d seconds)",
-                    maxRequests, windowMs / 1000));
+                    maxRequests, windowMs / 1000), retryAfterSeconds);
+        }
+    }
+
+    /**
+     * Takes one request for {@code key}. Returns 0 when allowed, otherwise how many nanoseconds until the next
+     * request would be.
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        AtomicLong arrival = arrivals.get(key, k -> new AtomicLong(System.nanoTime()));
+        while (true) {
+            long current = arrival.get();
+            long next = (current - now > 0 ? current : now) + intervalNanos;
+            long ahead = next - now;
+            if (ahead > windowNanos) {
+                rejectedCounter.increment();
+                return ahead - windowNanos;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                break;
+            }
+        }
+        long sharedWaitNanos = store == null ? 0 : acquireShared(key);
+        if (sharedWaitNanos > 0) {
+            // Not sent, so give the local slot back; otherwise rejected retries would still be throttled locally
+            // after the shared window rolls over
+            arrival.addAndGet(-intervalNanos);
+            rejectedCounter.increment();
+            return sharedWaitNanos;
         }
-        times.addLast(now);
+        allowedCounter.increment();
+        return 0;
+    }
+
+    private long acquireShared(String key) {
+        long nowMs = wallClock.getAsLong();
+        long windowStart = nowMs - Math.floorMod(nowMs, windowMs);
+        long untilNextWindow = TimeUnit.MILLISECONDS.toNanos(windowStart + windowMs - nowMs);
+        Lease lease = leases.get(key, k -> new Lease());
+        if (lease.windowStart == windowStart && lease.tryTake()) {
+            return 0;
+        }
+        lease.lock.lock();
+        try {
+            if (lease.windowStart != windowStart) {
+                lease.reset(windowStart);
+            } else if (lease.tryTake()) {
+                return 0;
+            }
+            if (lease.exhausted) {
+                return untilNextWindow;
+            }
+            int granted;
+            try {
+                granted = store.claim(policy, key, windowStart, leaseSize, maxRequests);
+            } catch (RuntimeException ex) {
+                // Fail open to the per-node limit rather than rejecting everything while the database is unavailable
+                claimFailedCounter.increment();
+                log.warn("Shared rate limit claim failed for policy {}: {}", policy, ex.getMessage());
+                return 0;
+            }
+            if (granted == 0) {
+                claimExhaustedCounter.increment();
+                lease.exhausted = true;
+                return untilNextWindow;
+            }
+            claimGrantedCounter.increment();
+            lease.remaining.addAndGet(granted - 1);
+            return 0;
+        } finally {
+            lease.lock.unlock();
+        }
+    }
+
+    public String getPolicy() {
+        return policy;
     }
 
     public int getMaxRequests() {
@@ -43,4 +174,29 @@ public class RateLimiter {
     public long getWindowMs() {
         return windowMs;
     }
+
+    // Permits this node holds for one key in the current shared window; refills happen under the lock
+    private static final class Lease {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AtomicInteger remaining = new AtomicInteger();
+        private volatile long windowStart = Long.MIN_VALUE;
+        private volatile boolean exhausted;
+
+        boolean tryTake() {
+            int current;
+            do {
+                current = remaining.get();
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!remaining.compareAndSet(current, current - 1));
+            return true;
+        }
+
+        void reset(long windowStart) {
+            remaining.set(0);
+            exhausted = false;
+            this.windowStart = windowStart;
+        }
+    }
 }
@@ -0,0 +1,5 @@
+package com.aiaca.api.service;
+
+import java.util.UUID;
+
+public record ScanCompletedEvent(UUID scanId, UUID siteId) {}
@@ -0,0 +1,33 @@
+package com.aiaca.api.service;
+
+import com.aiaca.api.exception.BadRequestException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset cursor over scans ordered by {@code (created_at, id)} descending: the position of the last
+ * row of the previous page.
+ */
+public record ScanCursor(LocalDateTime createdAt, UUID id) {
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ScanCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new ScanCursor(LocalDateTime.parse(raw.substring(0, separator)), UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.aiaca.api.service;
+
+import com.aiaca.api.client.AiOrchestratorClient;
+import com.aiaca.api.client.ScannerClient;
+import com.aiaca.api.config.CorrelationIdFilter;
+import com.aiaca.api.exception.ServiceUnavailableException;
+import com.aiaca.api.exception.UpstreamServiceException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs queued scans: scanner, then AI suggestions, then persistence.
+ * Request threads only enqueue; the bounded worker pool does the blocking DB steps while the
+ * upstream calls stay non-blocking, capped at {@code scan.worker.max-in-flight}. A full queue is
+ * rejected with 503 instead of piling up work.
+ */
+@Component
+public class ScanJobRunner {
+    private static final Logger log = LoggerFactory.getLogger(ScanJobRunner.class);
+
+    private final ScanService scanService;
+    private final ScanScheduler scanScheduler;
+    private final AiSuggestionService aiSuggestionService;
+    private final IssueStreamProcessor issueStreamProcessor;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore inFlight;
+    private final long retryAfterSeconds;
+    private final Timer queueWaitTimer;
+    private final Timer runTimer;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+
+    public ScanJobRunner(ScanService scanService,
+                         ScanScheduler scanScheduler,
+                         AiSuggestionService aiSuggestionService,
+                         IssueStreamProcessor issueStreamProcessor,
+                         MeterRegistry meterRegistry,
+                         @Value("${scan.worker.pool-size:4}") int poolSize,
+                         @Value("${scan.worker.queue-capacity:100}") int queueCapacity,
+                         @Value("${scan.worker.max-in-flight:200}") int maxInFlight,
+                         @Value("${scan.worker.retry-after-seconds:30}") long retryAfterSeconds,
+                         @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.scanService = scanService;
+        this.scanScheduler = scanScheduler;
+        this.aiSuggestionService = aiSuggestionService;
+        this.issueStreamProcessor = issueStreamProcessor;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.inFlight = new Semaphore(maxInFlight);
+        // In virtual-thread mode the pool size still caps concurrent scans; only the carrier cost changes.
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                WorkerThreads.factory("scan-worker-", virtualThreads),
+                new ThreadPoolExecutor.AbortPolicy());
+        meterRegistry.gauge("api_scan_queue_depth", executor, pool -> pool.getQueue().size());
+        meterRegistry.gauge("api_scan_workers_active", executor, ThreadPoolExecutor::getActiveCount);
+        meterRegistry.gauge("api_scan_upstream_in_flight", inFlight, permits -> maxInFlight - permits.availablePermits());
+        this.queueWaitTimer = meterRegistry.timer("api_scan_queue_wait_seconds");
+        this.runTimer = meterRegistry.timer("api_scan_run_seconds");
+        this.rejectedCounter = meterRegistry.counter("api_scan_jobs_total", "outcome", "rejected");
+        this.failedCounter = meterRegistry.counter("api_scan_jobs_total", "outcome", "failed");
+    }
+
+    @EventListener
+    public void onScanQueued(ScanQueuedEvent event) {
+        long enqueuedAt = System.nanoTime();
+        String correlationId = MDC.get(CorrelationIdFilter.CORRELATION_KEY);
+        try {
+            executor.execute(() -> run(event, enqueuedAt, correlationId));
+        } catch (RejectedExecutionException ex) {
+            rejectedCounter.increment();
+            scanService.markFailed(event.scanId());
+            throw new ServiceUnavailableException("Scan queue is full, please retry shortly", retryAfterSeconds);
+        }
+    }
+
+    private void run(ScanQueuedEvent event, long enqueuedAt, String correlationId) {
+        queueWaitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+        if (correlationId != null) {
+            MDC.put(CorrelationIdFilter.CORRELATION_KEY, correlationId);
+        }
+        try {
+            process(event, correlationId);
+        } finally {
+            MDC.remove(CorrelationIdFilter.CORRELATION_KEY);
+        }
+    }
+
+    private void process(ScanQueuedEvent event, String correlationId) {
+        UUID scanId = event.scanId();
+        Timer.Sample sample = Timer.start();
+        try {
+            // Blocks the worker (not a Netty thread) once max-in-flight scans are outstanding, so the
+            // executor queue fills up and new scans are rejected instead of growing without bound.
+            inFlight.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            fail(scanId, ex);
+            sample.stop(runTimer);
+            return;
+        }
+
+        try {
+            scanService.markRunning(scanId);
+        } catch (RuntimeException ex) {
+            inFlight.release();
+            fail(scanId, ex);
+            sample.stop(runTimer);
+            return;
+        }
+
+        // The scanner request is built on whichever thread the scheduler admits it, so the id travels in the
+        // Reactor context; the terminal callbacks put it back into the MDC for their logs
+        if (issueStreamProcessor.isEnabled()) {
+            issueStreamProcessor.process(scanId, event.pageUrl(), event.priority(), event.tenant())
+                    .doFinally(signal -> {
+                        inFlight.release();
+                        sample.stop(runTimer);
+                    })
+                    .contextWrite(CorrelationIdFilter.context(correlationId))
+                    .subscribe(
+                            tally -> CorrelationIdFilter.runWith(correlationId,
+                                    () -> completeStreamedOrFail(scanId, tally)),
+                            ex -> CorrelationIdFilter.runWith(correlationId,
+                                    () -> failStreamed(scanId, event.pageUrl(), ex)));
+            return;
+        }
+
+        scanScheduler.scan(event.pageUrl(), event.priority(), event.tenant())
+                .switchIfEmpty(Mono.error(() -> new UpstreamServiceException(
+                        "Scanner service returned an empty response", HttpStatus.BAD_GATEWAY)))
+                .flatMap(scannerResponse -> aiSuggestionService.fetchSuggestionsAsync(scannerResponse)
+                        .map(suggestions -> new ScanOutcome(scannerResponse, suggestions)))
+                // Persistence is blocking JPA work; keep it off the Netty event loop.
+                .publishOn(Schedulers.boundedElastic())
+                .doFinally(signal -> {
+                    inFlight.release();
+                    sample.stop(runTimer);
+                })
+                .contextWrite(CorrelationIdFilter.context(correlationId))
+                .subscribe(
+                        outcome -> CorrelationIdFilter.runWith(correlationId, () -> completeOrFail(scanId, outcome)),
+                        ex -> CorrelationIdFilter.runWith(correlationId, () -> fail(scanId, ex)));
+    }
+
+    private void completeOrFail(UUID scanId, ScanOutcome outcome) {
+        try {
+            scanService.completeScan(scanId, outcome.scannerResponse(), outcome.suggestions());
+        } catch (RuntimeException ex) {
+            fail(scanId, ex);
+        }
+    }
+
+    private void completeStreamedOrFail(UUID scanId, IssueStreamProcessor.IssueTally tally) {
+        try {
+            scanService.completeStreamedScan(scanId, tally.issues(), tally.errors());
+        } catch (RuntimeException ex) {
+            fail(scanId, ex);
+        }
+    }
+
+    private void failStreamed(UUID scanId, String pageUrl, Throwable ex) {
+        try {
+            scanService.discardPageIssues(scanId, pageUrl);
+        } catch (RuntimeException discardEx) {
+            log.warn("Could not discard partial issues of scan {}: {}", scanId, discardEx.getMessage());
+        }
+        fail(scanId, ex);
+    }
+
+    private void fail(UUID scanId, Throwable ex) {
+        failedCounter.increment();
+        log.warn("Scan {} failed: {}", scanId, ex.getMessage());
+        scanService.markFailed(scanId);
+    }
+
+    private record ScanOutcome(ScannerClient.ScannerResponse scannerResponse,
+                               Map<String, List<AiOrchestratorClient.SuggestedFix>> suggestions) {}
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,21 @@
+package com.aiaca.api.service;
+
+import com.aiaca.api.model.billing.enums.SubscriptionStatus;
+
+/**
+ * Scheduling class of a scanner call, highest priority first. Classes share scanner capacity by weight
+ * ({@code scan.scheduler.weight.*}) rather than strictly, so lower classes slow down but never starve.
+ */
+public enum ScanPriority {
+    // Single-page scans started by a paying user
+    INTERACTIVE,
+    // Background work such as crawl pages
+    SCHEDULED,
+    // Free scans: anonymous ones and those of accounts without a paid subscription
+    PUBLIC;
+
+    // Paid as in @RequiresSubscription's default; anything else competes with the anonymous free scans
+    public static ScanPriority forSubscription(SubscriptionStatus status) {
+        return status == SubscriptionStatus.ACTIVE || status == SubscriptionStatus.TRIALING ? INTERACTIVE : PUBLIC;
+    }
+}
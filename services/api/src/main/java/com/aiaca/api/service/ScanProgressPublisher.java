@@ -0,0 +1,93 @@
+package com.aiaca.api.service;
+
+import com.aiaca.api.dto.ScanDtos;
+import com.aiaca.api.model.ScanStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Fans scan progress out to streaming clients. One multicast sink exists per scan while someone is
+ * watching it; events are only emitted after the transaction that produced them commits, and the sink
+ * completes on the scan's terminal status.
+ */
+@Component
+public class ScanProgressPublisher {
+    private static final Logger log = LoggerFactory.getLogger(ScanProgressPublisher.class);
+    // Crawl pages finish on different threads; retry briefly instead of dropping on concurrent emission
+    private static final Sinks.EmitFailureHandler RETRY_CONCURRENT_EMIT = Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100));
+
+    private final Map<UUID, Sinks.Many<ScanDtos.ScanProgressEvent>> sinks = new ConcurrentHashMap<>();
+    private final int bufferSize;
+
+    public ScanProgressPublisher(MeterRegistry meterRegistry,
+                                 @Value("${scan.events.buffer-size:256}") int bufferSize) {
+        this.bufferSize = bufferSize;
+        meterRegistry.gauge("api_scan_event_streams", sinks, Map::size);
+    }
+
+    /**
+     * Streams a snapshot of the scan followed by live events. The sink is registered before the snapshot is
+     * loaded so nothing committed in between is lost; clients may see an issue twice and should key on its id.
+     */
+    public Flux<ScanDtos.ScanProgressEvent> stream(UUID scanId, Supplier<List<ScanDtos.ScanProgressEvent>> snapshot) {
+        Sinks.Many<ScanDtos.ScanProgressEvent> sink = sinks.computeIfAbsent(scanId,
+                id -> Sinks.many().multicast().onBackpressureBuffer(bufferSize, false));
+        List<ScanDtos.ScanProgressEvent> initial;
+        try {
+            initial = snapshot.get();
+        } catch (RuntimeException ex) {
+            release(scanId, sink);
+            throw ex;
+        }
+        if (initial.stream().anyMatch(event -> isTerminal(event.status()))) {
+            release(scanId, sink);
+            return Flux.fromIterable(initial);
+        }
+        return Flux.concat(Flux.fromIterable(initial), sink.asFlux())
+                .doFinally(signal -> release(scanId, sink));
+    }
+
+    private void release(UUID scanId, Sinks.Many<ScanDtos.ScanProgressEvent> sink) {
+        if (sink.currentSubscriberCount() == 0) {
+            sinks.remove(scanId, sink);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProgress(ScanDtos.ScanProgressEvent event) {
+        Sinks.Many<ScanDtos.ScanProgressEvent> sink = sinks.get(event.scanId());
+        if (sink == null) {
+            return;
+        }
+        try {
+            sink.emitNext(event, RETRY_CONCURRENT_EMIT);
+        } catch (Sinks.EmissionException ex) {
+            // Buffer full: a stalled client misses events rather than blocking the scan worker
+            log.debug("Dropped {} event for scan {}: {}", event.type(), event.scanId(), ex.getReason());
+        }
+        if (isTerminal(event.status())) {
+            sinks.remove(event.scanId(), sink);
+            try {
+                sink.emitComplete(RETRY_CONCURRENT_EMIT);
+            } catch (Sinks.EmissionException ex) {
+                log.debug("Could not complete event stream for scan {}: {}", event.scanId(), ex.getReason());
+            }
+        }
+    }
+
+    public static boolean isTerminal(ScanStatus status) {
+        return status == ScanStatus.COMPLETED || status == ScanStatus.FAILED;
+    }
+}
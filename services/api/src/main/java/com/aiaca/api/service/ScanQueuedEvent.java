@@ -0,0 +1,6 @@
+package com.aiaca.api.service;
+
+import java.util.UUID;
+
+// priority follows the owner's subscription; tenant is the owning account, used by ScanScheduler for fair sharing
+public record ScanQueuedEvent(UUID scanId, String pageUrl, ScanPriority priority, String tenant) {}
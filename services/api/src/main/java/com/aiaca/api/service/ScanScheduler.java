@@ -0,0 +1,285 @@
+package com.aiaca.api.service;
+
+import com.aiaca.api.client.ScannerClient;
+import com.aiaca.api.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * Admits scanner calls under a global concurrency limit with weighted fair sharing. Priority classes are
+ * picked by stride scheduling on their weights; within a class, tenants (accounts) take turns round-robin,
+ * and no tenant runs more than {@code scan.scheduler.per-tenant-max-concurrent} calls at once. A big batch
+ * from one account therefore queues behind itself instead of in front of everyone else.
+ */
+@Component
+public class ScanScheduler {
+    private final ScannerClient scannerClient;
+    private final int maxConcurrent;
+    private final int perTenantMaxConcurrent;
+    private final int maxQueued;
+    private final long retryAfterSeconds;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<ScanPriority, PriorityClass> classes = new EnumMap<>(ScanPriority.class);
+    private final Map<String, Integer> runningByTenant = new HashMap<>();
+    private final Counter rejectedCounter;
+    private int running;
+    private int queued;
+    // Pass of the most recently served class; an idle class rejoins here instead of replaying its idle time
+    private double virtualTime;
+
+    public ScanScheduler(ScannerClient scannerClient,
+                         MeterRegistry meterRegistry,
+                         @Value("${scan.scheduler.max-concurrent:32}") int maxConcurrent,
+                         @Value("${scan.scheduler.per-tenant-max-concurrent:4}") int perTenantMaxConcurrent,
+                         @Value("${scan.scheduler.max-queued:1000}") int maxQueued,
+                         @Value("${scan.scheduler.weight.interactive:8}") int interactiveWeight,
+                         @Value("${scan.scheduler.weight.scheduled:3}") int scheduledWeight,
+                         @Value("${scan.scheduler.weight.public:1}") int publicWeight,
+                         @Value("${scan.worker.retry-after-seconds:30}") long retryAfterSeconds) {
+        this.scannerClient = scannerClient;
+        this.maxConcurrent = maxConcurrent;
+        this.perTenantMaxConcurrent = perTenantMaxConcurrent;
+        this.maxQueued = maxQueued;
+        this.retryAfterSeconds = retryAfterSeconds;
+        Map<ScanPriority, Integer> weights = Map.of(
+                ScanPriority.INTERACTIVE, interactiveWeight,
+                ScanPriority.SCHEDULED, scheduledWeight,
+                ScanPriority.PUBLIC, publicWeight);
+        for (ScanPriority priority : ScanPriority.values()) {
+            String tag = priority.name().toLowerCase();
+            PriorityClass priorityClass = new PriorityClass(weights.get(priority),
+                    meterRegistry.timer("api_scan_scheduler_queue_wait_seconds", "class", tag));
+            classes.put(priority, priorityClass);
+            meterRegistry.gauge("api_scan_scheduler_queued", Tags.of("class", tag),
+                    priorityClass, c -> c.size);
+        }
+        meterRegistry.gauge("api_scan_scheduler_running", this, scheduler -> scheduler.running);
+        this.rejectedCounter = meterRegistry.counter("api_scan_scheduler_rejected_total");
+    }
+
+    /**
+     * Scans {@code url} once the scheduler admits the call. Cancelling while queued gives up the place in line;
+     * a full queue fails with {@link ServiceUnavailableException}.
+     */
+    public Mono<ScannerClient.ScannerResponse> scan(String url, ScanPriority priority, String tenant) {
+        return admission(priority, tenant)
+                .flatMap(ticket -> scannerClient.scanAsync(url).doFinally(signal -> release(ticket)));
+    }
+
+    /**
+     * Streaming variant of {@link #scan}; the slot is held until the last issue batch has been emitted.
+     */
+    public Flux<List<ScannerClient.ScannerIssue>> scanIssues(String url, ScanPriority priority, String tenant,
+                                                            int batchSize) {
+        return admission(priority, tenant)
+                .flatMapMany(ticket -> scannerClient.scanIssuesAsync(url, batchSize)
+                        .doFinally(signal -> release(ticket)));
+    }
+
+    private Mono<Ticket> admission(ScanPriority priority, String tenant) {
+        return Mono.create(sink -> {
+            Ticket ticket = new Ticket(priority, tenant, sink);
+            sink.onCancel(() -> cancel(ticket));
+            enqueue(ticket);
+        });
+    }
+
+    private void enqueue(Ticket ticket) {
+        List<Ticket> admitted;
+        lock.lock();
+        try {
+            if (queued >= maxQueued) {
+                rejectedCounter.increment();
+                ticket.sink.error(new ServiceUnavailableException("Scanner is at capacity, please retry shortly",
+                        retryAfterSeconds));
+                return;
+            }
+            PriorityClass priorityClass = classes.get(ticket.priority);
+            if (priorityClass.size == 0) {
+                priorityClass.pass = Math.max(priorityClass.pass, virtualTime);
+            }
+            priorityClass.add(ticket);
+            queued++;
+            admitted = admit();
+        } finally {
+            lock.unlock();
+        }
+        start(admitted);
+    }
+
+    private void cancel(Ticket ticket) {
+        lock.lock();
+        try {
+            if (!ticket.admitted) {
+                if (classes.get(ticket.priority).remove(ticket)) {
+                    queued--;
+                }
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        // Cancelled between admission and the scanner subscription
+        release(ticket);
+    }
+
+    private void release(Ticket ticket) {
+        if (!ticket.released.compareAndSet(false, true)) {
+            return;
+        }
+        List<Ticket> admitted;
+        lock.lock();
+        try {
+            running--;
+            runningByTenant.computeIfPresent(ticket.tenant, (tenant, count) -> count > 1 ? count - 1 : null);
+            admitted = admit();
+        } finally {
+            lock.unlock();
+        }
+        start(admitted);
+    }
+
+    // Called with the lock held; returns the tickets to start once it is released
+    private List<Ticket> admit() {
+        List<Ticket> admitted = new ArrayList<>();
+        while (running < maxConcurrent) {
+            Ticket next = null;
+            PriorityClass chosen = null;
+            // Lowest pass among classes that have a runnable tenant
+            for (PriorityClass candidate : classes.values()) {
+                if ((chosen == null || candidate.pass < chosen.pass) && candidate.hasRunnable(this)) {
+                    chosen = candidate;
+                }
+            }
+            if (chosen != null) {
+                next = chosen.poll(this);
+            }
+            if (next == null) {
+                break;
+            }
+            virtualTime = chosen.pass;
+            chosen.pass += chosen.stride;
+            queued--;
+            running++;
+            runningByTenant.merge(next.tenant, 1, Integer::sum);
+            next.admitted = true;
+            admitted.add(next);
+        }
+        return admitted;
+    }
+
+    private void start(List<Ticket> admitted) {
+        for (Ticket ticket : admitted) {
+            ticket.queueTimer.record(System.nanoTime() - ticket.enqueuedAt, TimeUnit.NANOSECONDS);
+            ticket.sink.success(ticket);
+        }
+    }
+
+    private boolean tenantHasCapacity(String tenant) {
+        return runningByTenant.getOrDefault(tenant, 0) < perTenantMaxConcurrent;
+    }
+
+    private static final class Ticket {
+        private final ScanPriority priority;
+        private final String tenant;
+        private final MonoSink<Ticket> sink;
+        private final long enqueuedAt = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private Timer queueTimer;
+        private boolean admitted;
+
+        private Ticket(ScanPriority priority, String tenant, MonoSink<Ticket> sink) {
+            this.priority = priority;
+            this.tenant = tenant;
+            this.sink = sink;
+        }
+    }
+
+    // Per-class tenant queues served round-robin; guarded by the scheduler lock
+    private static final class PriorityClass {
+        private final double stride;
+        private final Timer queueTimer;
+        private final Map<String, ArrayDeque<Ticket>> queues = new HashMap<>();
+        private final ArrayDeque<String> rotation = new ArrayDeque<>();
+        private double pass;
+        private volatile int size;
+
+        private PriorityClass(int weight, Timer queueTimer) {
+            this.stride = 1.0 / Math.max(1, weight);
+            this.queueTimer = queueTimer;
+        }
+
+        void add(Ticket ticket) {
+            ticket.queueTimer = queueTimer;
+            ArrayDeque<Ticket> queue = queues.get(ticket.tenant);
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                queues.put(ticket.tenant, queue);
+                rotation.addLast(ticket.tenant);
+            }
+            queue.addLast(ticket);
+            size++;
+        }
+
+        boolean remove(Ticket ticket) {
+            ArrayDeque<Ticket> queue = queues.get(ticket.tenant);
+            if (queue == null || !queue.remove(ticket)) {
+                return false;
+            }
+            if (queue.isEmpty()) {
+                queues.remove(ticket.tenant);
+                rotation.remove(ticket.tenant);
+            }
+            size--;
+            return true;
+        }
+
+        boolean hasRunnable(ScanScheduler scheduler) {
+            for (String tenant : rotation) {
+                if (scheduler.tenantHasCapacity(tenant)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        Ticket poll(ScanScheduler scheduler) {
+            Iterator<String> tenants = rotation.iterator();
+            while (tenants.hasNext()) {
+                String tenant = tenants.next();
+                if (!scheduler.tenantHasCapacity(tenant)) {
+                    continue;
+                }
+                tenants.remove();
+                ArrayDeque<Ticket> queue = queues.get(tenant);
+                Ticket ticket = queue.pollFirst();
+                if (queue.isEmpty()) {
+                    queues.remove(tenant);
+                } else {
+                    // Back of the line until every other tenant in this class has had a turn
+                    rotation.addLast(tenant);
+                }
+                size--;
+                return ticket;
+            }
+            return null;
+        }
+    }
+}
@@ -2,9 +2,10 @@ package com.aiaca.api.service;
 
 import com.aiaca.api.client.AiOrchestratorClient;
 import com.aiaca.api.client.ScannerClient;
+import com.aiaca.api.config.CorrelationIdFilter;
 import com.aiaca.api.dto.ScanDtos;
+import com.aiaca.api.exception.BadRequestException;
 import com.aiaca.api.exception.ResourceNotFoundException;
-import com.aiaca.api.exception.UpstreamServiceException;
 import com.aiaca.api.model.AiSuggestion;
 import com.aiaca.api.model.IssueSeverity;
 import com.aiaca.api.model.IssueStatus;
@@ -12,83 +13,408 @@ import com.aiaca.api.model.Scan;
 import com.aiaca.api.model.ScanIssue;
 import com.aiaca.api.model.ScanStatus;
 import com.aiaca.api.model.Site;
+import com.aiaca.api.repository.ScanIssueBulkWriter;
 import com.aiaca.api.repository.ScanIssueRepository;
 import com.aiaca.api.repository.ScanRepository;
-import com.aiaca.api.repository.SiteRepository;
+import com.aiaca.api.repository.ScanSummaryView;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
 
 @Service
 public class ScanService {
     private static final Logger log = LoggerFactory.getLogger(ScanService.class);
 
     private final ScanRepository scanRepository;
-    private final SiteRepository siteRepository;
     private final ScanIssueRepository scanIssueRepository;
-    private final ScannerClient scannerClient;
-    private final AiOrchestratorClient aiOrchestratorClient;
-    private final boolean aiUseStub;
+    private final ScanIssueBulkWriter scanIssueBulkWriter;
+    private final ScanScheduler scanScheduler;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int crawlMaxPages;
+    private final int defaultPageSize;
+    private final int maxPageSize;
     private final Counter scanCounter;
     private final Counter publicScanCounter;
+    private final Counter dedupedScanCounter;
     private final Timer scanTimer;
 
     public ScanService(ScanRepository scanRepository,
-                       SiteRepository siteRepository,
                        ScanIssueRepository scanIssueRepository,
+                       ScanIssueBulkWriter scanIssueBulkWriter,
                        MeterRegistry meterRegistry,
-                       ScannerClient scannerClient,
-                       AiOrchestratorClient aiOrchestratorClient,
-                       @Value("${ai-orchestrator.use-stub:false}") boolean aiUseStub) {
+                       ScanScheduler scanScheduler,
+                       ApplicationEventPublisher eventPublisher,
+                       @Value("${scan.crawl.max-pages:500}") int crawlMaxPages,
+                       @Value("${scan.list.default-page-size:50}") int defaultPageSize,
+                       @Value("${scan.list.max-page-size:200}") int maxPageSize) {
         this.scanRepository = scanRepository;
-        this.siteRepository = siteRepository;
         this.scanIssueRepository = scanIssueRepository;
-        this.scannerClient = scannerClient;
-        this.aiOrchestratorClient = aiOrchestratorClient;
-        this.aiUseStub = aiUseStub;
+        this.scanIssueBulkWriter = scanIssueBulkWriter;
+        this.scanScheduler = scanScheduler;
+        this.eventPublisher = eventPublisher;
+        this.crawlMaxPages = crawlMaxPages;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
         this.scanCounter = meterRegistry.counter("api_scans_total", "type", "authenticated");
         this.publicScanCounter = meterRegistry.counter("api_scans_total", "type", "public");
+        this.dedupedScanCounter = meterRegistry.counter("api_scans_deduplicated_total");
         this.scanTimer = meterRegistry.timer("api_scan_duration_seconds");
     }
 
+    /**
+     * Queues a scan, or joins the scan already QUEUED/RUNNING for the same site and URL. The unique
+     * {@code active_scan_key} column makes this hold across threads and replicas: a racing insert fails
+     * and the loser returns the winner's scan instead.
+     */
     public Scan createScan(Site site, String sanitizedUrl) {
-        Timer.Sample sample = Timer.start();
+        Scan scan = newQueuedScan(site, sanitizedUrl, activeScanKey(site, sanitizedUrl));
+        return insertOrJoin(scan, saved -> new ScanQueuedEvent(saved.getId(), sanitizedUrl,
+                ScanPriority.forSubscription(site.getOwner().getSubscriptionStatus()), tenantOf(site)));
+    }
+
+    /**
+     * Queues a multi-page crawl aggregated into one parent scan. Either an explicit list of sanitized page
+     * URLs or a seed URL (whose same-host links are discovered) must be given. A request for the same page set,
+     * or the same seed and page limit, joins the active crawl; any other request queues a crawl of its own.
+     */
+    public Scan createCrawlScan(Site site, String seedUrl, List<String> pageUrls, Integer maxPages) {
+        boolean explicitPages = pageUrls != null && !pageUrls.isEmpty();
+        if (!explicitPages && seedUrl == null) {
+            throw new BadRequestException("Either seedUrl or pageUrls is required");
+        }
+        int pageLimit = maxPages != null ? Math.min(maxPages, crawlMaxPages) : crawlMaxPages;
+        if (explicitPages && pageUrls.size() > pageLimit) {
+            throw new BadRequestException("A crawl can include at most " + pageLimit + " pages");
+        }
+
+        Scan scan = newQueuedScan(site, explicitPages ? pageUrls.get(0) : seedUrl,
+                activeScanKey(site, crawlKey(seedUrl, explicitPages ? pageUrls : null, pageLimit)));
+        scan.setPagesTotal(explicitPages ? pageUrls.size() : 0);
+        scan.setPagesCompleted(0);
+        scan.setPagesFailed(0);
+        return insertOrJoin(scan, saved -> new CrawlScanQueuedEvent(saved.getId(), site.getId(), seedUrl,
+                explicitPages ? List.copyOf(pageUrls) : List.of(), pageLimit, tenantOf(site)));
+    }
+
+    // Page order does not matter; "crawl:" cannot collide with a sanitized http(s) page URL
+    private static String crawlKey(String seedUrl, List<String> pageUrls, int pageLimit) {
+        if (pageUrls != null) {
+            return "crawl:pages|" + String.join("\n", new TreeSet<>(pageUrls));
+        }
+        return "crawl:seed|" + seedUrl + "|" + pageLimit;
+    }
+
+    private static String tenantOf(Site site) {
+        return site.getOwner().getId().toString();
+    }
+
+    // Anonymous scans have no account, so they share fairly by target host instead
+    private static String publicTenant(String url) {
+        return "public:" + URI.create(url).getHost();
+    }
+
+    private Scan newQueuedScan(Site site, String pageUrl, String activeScanKey) {
         Scan scan = new Scan();
         scan.setSite(site);
+        scan.setPageUrl(pageUrl);
         scan.setStatus(ScanStatus.QUEUED);
-        scanRepository.save(scan);
+        scan.setActiveScanKey(activeScanKey);
+        return scan;
+    }
+
+    private Scan insertOrJoin(Scan scan, Function<Scan, Object> queuedEvent) {
+        String activeScanKey = scan.getActiveScanKey();
+        Optional<Scan> active = scanRepository.findByActiveScanKeyWithIssues(activeScanKey);
+        if (active.isPresent()) {
+            dedupedScanCounter.increment();
+            return active.get();
+        }
 
+        Scan saved;
         try {
-            ScannerClient.ScannerResponse scannerResponse = scannerClient.scan(sanitizedUrl);
-            populateScanFromScanner(scan, scannerResponse, true);
-            Scan saved = scanRepository.save(scan);
-            scanCounter.increment();
-            return saved;
-        } catch (UpstreamServiceException ex) {
-            scan.setStatus(ScanStatus.FAILED);
+            saved = scanRepository.saveAndFlush(scan);
+        } catch (DataIntegrityViolationException ex) {
+            Scan winner = scanRepository.findByActiveScanKeyWithIssues(activeScanKey).orElseThrow(() -> ex);
+            dedupedScanCounter.increment();
+            return winner;
+        }
+        eventPublisher.publishEvent(queuedEvent.apply(saved));
+        return saved;
+    }
+
+    private String activeScanKey(Site site, String sanitizedUrl) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((site.getId() + "|" + sanitizedUrl).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Transactional
+    public void markRunning(UUID scanId) {
+        publishStatus(start(scanId));
+    }
+
+    // A scan failed while it waited in the queue must not come back to life
+    private Scan start(UUID scanId) {
+        if (scanRepository.startIfQueued(scanId, LocalDateTime.now()) == 0) {
+            throw scanRepository.existsById(scanId)
+                    ? new IllegalStateException("Scan " + scanId + " is no longer queued")
+                    : new ResourceNotFoundException("Scan not found");
+        }
+        return scanRepository.findById(scanId)
+                .orElseThrow(() -> new ResourceNotFoundException("Scan not found"));
+    }
+
+    // Only a running scan finishes; one that already failed (e.g. as stale) or completed keeps its outcome
+    private boolean finish(UUID scanId, ScanStatus status) {
+        if (scanRepository.finishIfRunning(scanId, status, LocalDateTime.now()) == 0) {
+            log.info("Scan {} is no longer running, dropping its {} outcome", scanId, status);
+            return false;
+        }
+        return true;
+    }
+
+    @Transactional
+    public void completeScan(UUID scanId, ScannerClient.ScannerResponse scannerResponse,
+                             Map<String, List<AiOrchestratorClient.SuggestedFix>> suggestions) {
+        if (!finish(scanId, ScanStatus.COMPLETED)) {
+            return;
+        }
+        Scan scan = scanRepository.findById(scanId)
+                .orElseThrow(() -> new ResourceNotFoundException("Scan not found"));
+        List<ScanIssue> issues = buildIssues(scan, scan.getPageUrl(), scannerResponse, suggestions);
+        applyScanResults(scan, scannerResponse, issues);
+        scanRepository.save(scan);
+        // Issues bypass the Scan.issues cascade and go out as batched inserts
+        scanIssueBulkWriter.insert(scanId, issues);
+        scanCounter.increment();
+        issues.forEach(issue -> publishIssue(scanId, issue));
+        publishStatus(scan);
+        publishCompleted(scan);
+    }
+
+    /**
+     * Persists one batch of a streamed page's issues. Counters and the score are only set when the stream
+     * ends, by {@link #completeStreamedScan} or {@link #completeStreamedCrawlPage}; suggestions that arrive
+     * after the issues are added with {@link #attachSuggestions}.
+     */
+    @Transactional
+    public RecordedIssues appendIssues(UUID scanId, String pageUrl, List<ScannerClient.ScannerIssue> batch,
+                                       Map<String, List<AiOrchestratorClient.SuggestedFix>> suggestions) {
+        Scan scan = scanRepository.getReferenceById(scanId);
+        List<ScanIssue> issues = buildIssues(scan, pageUrl, new ScannerClient.ScannerResponse(pageUrl, batch, null),
+                suggestions);
+        scanIssueBulkWriter.insert(scanId, issues);
+        issues.forEach(issue -> publishIssue(scanId, issue));
+        // buildIssues keeps the batch order, one issue per scanner issue
+        Map<String, ScanIssue> byScannerIssueId = new HashMap<>();
+        for (int i = 0; i < issues.size(); i++) {
+            String scannerIssueId = batch.get(i).id();
+            if (scannerIssueId != null) {
+                byScannerIssueId.put(scannerIssueId, issues.get(i));
+            }
+        }
+        return new RecordedIssues(byScannerIssueId, issues.isEmpty() ? null : issues.get(0), issues.size(),
+                countErrors(issues));
+    }
+
+    /**
+     * Stores fixes for issues persisted earlier by {@link #appendIssues} and re-publishes the affected issues
+     * so stream subscribers see their suggestion.
+     */
+    @Transactional
+    public void attachSuggestions(UUID scanId, RecordedIssues recorded, List<AiOrchestratorClient.SuggestedFix> fixes) {
+        if (recorded.fallback() == null || fixes.isEmpty()) {
+            return;
+        }
+        List<AiSuggestion> suggestions = new ArrayList<>();
+        Map<UUID, ScanIssue> updated = new LinkedHashMap<>();
+        for (AiOrchestratorClient.SuggestedFix fix : fixes) {
+            ScanIssue issue = recorded.byScannerIssueId().getOrDefault(fix.issueId(), recorded.fallback());
+            AiSuggestion suggestion = new AiSuggestion();
+            suggestion.setScanIssue(issue);
+            suggestion.setSuggestion(fix.suggestedFix());
+            suggestion.setRationale(fix.explanation());
+            suggestions.add(suggestion);
+            issue.getAiSuggestions().add(suggestion);
+            if (issue.getSuggestion() == null) {
+                issue.setSuggestion(fix.suggestedFix());
+            }
+            updated.put(issue.getId(), issue);
+        }
+        scanIssueBulkWriter.insertSuggestions(suggestions);
+        updated.values().forEach(issue -> publishIssue(scanId, issue));
+    }
+
+    @Transactional
+    public void completeStreamedScan(UUID scanId, int issueCount, int errorCount) {
+        if (!finish(scanId, ScanStatus.COMPLETED)) {
+            return;
+        }
+        Scan scan = scanRepository.findById(scanId)
+                .orElseThrow(() -> new ResourceNotFoundException("Scan not found"));
+        scan.setScore(scoreFor(issueCount));
+        setIssueCounts(scan, issueCount, errorCount);
+        scanRepository.save(scan);
+        scanCounter.increment();
+        publishStatus(scan);
+        publishCompleted(scan);
+    }
+
+    @Transactional
+    public void completeStreamedCrawlPage(UUID scanId, int errors, int warnings) {
+        scanRepository.recordCrawlPageCompleted(scanId, errors, warnings);
+        scanRepository.findById(scanId).ifPresent(this::publishCrawlProgress);
+    }
+
+    // Drops the issues a failed streamed page had already persisted, so they do not count towards the scan
+    @Transactional
+    public void discardPageIssues(UUID scanId, String pageUrl) {
+        scanIssueBulkWriter.deletePage(scanId, pageUrl);
+    }
+
+    @Transactional
+    public boolean markFailed(UUID scanId) {
+        // A scan that completed in the meantime stays completed
+        if (scanRepository.finishIfActive(scanId, ScanStatus.FAILED, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        scanRepository.findById(scanId).ifPresent(this::publishStatus);
+        return true;
+    }
+
+    @Transactional
+    public void startCrawl(UUID scanId, int pagesTotal) {
+        Scan scan = start(scanId);
+        scan.setPagesTotal(pagesTotal);
+        scanRepository.save(scan);
+        publishStatus(scan);
+        publishCrawlProgress(scan);
+    }
+
+    @Transactional
+    public void appendCrawlPage(UUID scanId, String pageUrl, ScannerClient.ScannerResponse scannerResponse,
+                                Map<String, List<AiOrchestratorClient.SuggestedFix>> suggestions) {
+        // Pages finish concurrently: insert issues against a reference and bump the counter in SQL
+        // instead of read-modify-writing the parent scan.
+        Scan scan = scanRepository.getReferenceById(scanId);
+        List<ScanIssue> issues = buildIssues(scan, pageUrl, scannerResponse, suggestions);
+        scanIssueBulkWriter.insert(scanId, issues);
+        issues.forEach(issue -> publishIssue(scanId, issue));
+        int errors = countErrors(issues);
+        scanRepository.recordCrawlPageCompleted(scanId, errors, issues.size() - errors);
+        scanRepository.findById(scanId).ifPresent(this::publishCrawlProgress);
+    }
+
+    @Transactional
+    public void recordCrawlPageFailure(UUID scanId) {
+        scanRepository.incrementPagesFailed(scanId);
+        scanRepository.findById(scanId).ifPresent(this::publishCrawlProgress);
+    }
+
+    @Transactional
+    public void completeCrawl(UUID scanId) {
+        Scan scan = scanRepository.findById(scanId)
+                .orElseThrow(() -> new ResourceNotFoundException("Scan not found"));
+        int pagesCompleted = scan.getPagesCompleted() != null ? scan.getPagesCompleted() : 0;
+        if (!finish(scanId, pagesCompleted == 0 ? ScanStatus.FAILED : ScanStatus.COMPLETED)) {
+            return;
+        }
+        // finish() cleared the persistence context, so work on a fresh copy
+        scan = scanRepository.findById(scanId)
+                .orElseThrow(() -> new ResourceNotFoundException("Scan not found"));
+        if (pagesCompleted > 0) {
+            // Average of per-page scores; pages without issues score 100
+            double scoreSum = 0;
+            int pagesWithIssues = 0;
+            for (Object[] row : scanIssueRepository.countIssuesByPage(scanId)) {
+                scoreSum += Math.max(0, 100 - ((Number) row[1]).intValue() * 5);
+                pagesWithIssues++;
+            }
+            scoreSum += (double) Math.max(0, pagesCompleted - pagesWithIssues) * 100;
+            scan.setScore(scoreSum / pagesCompleted);
             scanRepository.save(scan);
-            throw ex;
-        } finally {
-            sample.stop(scanTimer);
+            scanCounter.increment();
+        }
+        publishStatus(scan);
+        if (scan.getStatus() == ScanStatus.COMPLETED) {
+            publishCompleted(scan);
         }
     }
 
-    private void populateScanFromScanner(Scan scan, ScannerClient.ScannerResponse scannerResponse, boolean fetchSuggestions) {
+    // Delivered to stream subscribers after commit by ScanProgressPublisher
+    private void publishStatus(Scan scan) {
+        eventPublisher.publishEvent(ScanDtos.ScanProgressEvent.status(scan.getId(), scan.getStatus(), scan.getScore()));
+    }
+
+    private void publishIssue(UUID scanId, ScanIssue issue) {
+        eventPublisher.publishEvent(ScanDtos.ScanProgressEvent.issue(scanId, toIssueDto(issue, true)));
+    }
+
+    private void publishCrawlProgress(Scan scan) {
+        eventPublisher.publishEvent(ScanDtos.ScanProgressEvent.progress(scan.getId(), toCrawlProgress(scan)));
+    }
+
+    // Picked up by EmbedConfigService to rebuild the site's embed config snapshot
+    private void publishCompleted(Scan scan) {
+        if (scan.getSite() != null) {
+            eventPublisher.publishEvent(new ScanCompletedEvent(scan.getId(), scan.getSite().getId()));
+        }
+    }
+
+    private void applyScanResults(Scan scan, ScannerClient.ScannerResponse scannerResponse, List<ScanIssue> issues) {
         scan.setStatus(ScanStatus.COMPLETED);
         scan.setScore(calculateScore(scannerResponse.issues()));
-        scan.getIssues().clear();
+        setIssueCounts(scan, issues.size(), countErrors(issues));
+    }
 
+    private static void setIssueCounts(Scan scan, int issueCount, int errors) {
+        // New issues all start OPEN
+        scan.setIssueCount(issueCount);
+        scan.setErrorCount(errors);
+        scan.setWarningCount(issueCount - errors);
+        scan.setOpenIssueCount(issueCount);
+        scan.setFixedIssueCount(0);
+    }
+
+    private static int countErrors(List<ScanIssue> issues) {
+        return (int) issues.stream().filter(issue -> issue.getSeverity() == IssueSeverity.ERROR).count();
+    }
+
+    private List<ScanIssue> buildIssues(Scan scan, String pageUrl, ScannerClient.ScannerResponse scannerResponse,
+                                        Map<String, List<AiOrchestratorClient.SuggestedFix>> suggestions) {
+        List<ScanIssue> issues = new ArrayList<>();
+        if (scannerResponse.issues() == null) {
+            return issues;
+        }
         Map<String, ScanIssue> scannerIssueMap = new HashMap<>();
         for (ScannerClient.ScannerIssue scannerIssue : scannerResponse.issues()) {
             ScanIssue issue = new ScanIssue();
@@ -97,56 +423,32 @@ public class ScanService {
             issue.setSeverity(mapSeverity(scannerIssue.severity()));
             issue.setDescription(scannerIssue.description());
             issue.setSelector(scannerIssue.selector());
-            scan.getIssues().add(issue);
+            issue.setPageUrl(pageUrl);
+            issues.add(issue);
             if (scannerIssue.id() != null) {
                 scannerIssueMap.put(scannerIssue.id(), issue);
             }
         }
 
-        if (fetchSuggestions && !scan.getIssues().isEmpty()) {
-            Map<String, List<AiOrchestratorClient.SuggestedFix>> suggestions = fetchSuggestions(scannerResponse);
+        if (!issues.isEmpty()) {
             suggestions.forEach((issueId, suggestedFixes) -> {
                 ScanIssue issue = scannerIssueMap.get(issueId);
                 if (issue == null) {
-                    issue = scan.getIssues().stream().findFirst().orElse(null);
+                    issue = issues.get(0);
                 }
-                if (issue != null) {
-                    for (AiOrchestratorClient.SuggestedFix fix : suggestedFixes) {
-                        AiSuggestion suggestion = new AiSuggestion();
-                        suggestion.setScanIssue(issue);
-                        suggestion.setSuggestion(fix.suggestedFix());
-                        suggestion.setRationale(fix.explanation());
-                        issue.getAiSuggestions().add(suggestion);
-                        if (issue.getSuggestion() == null) {
-                            issue.setSuggestion(fix.suggestedFix());
-                        }
+                for (AiOrchestratorClient.SuggestedFix fix : suggestedFixes) {
+                    AiSuggestion suggestion = new AiSuggestion();
+                    suggestion.setScanIssue(issue);
+                    suggestion.setSuggestion(fix.suggestedFix());
+                    suggestion.setRationale(fix.explanation());
+                    issue.getAiSuggestions().add(suggestion);
+                    if (issue.getSuggestion() == null) {
+                        issue.setSuggestion(fix.suggestedFix());
                     }
                 }
             });
         }
-    }
-
-    private Map<String, List<AiOrchestratorClient.SuggestedFix>> fetchSuggestions(
-            ScannerClient.ScannerResponse scannerResponse) {
-        try {
-            List<AiOrchestratorClient.IssueContext> contexts = scannerResponse.issues().stream()
-                    .map(issue -> new AiOrchestratorClient.IssueContext(
-                            issue.id(), issue.type(), normalizeSeverity(issue.severity()), issue.description(), issue.selector(),
-                            scannerResponse.url()))
-                    .toList();
-
-            AiOrchestratorClient.SuggestionResponse suggestionResponse =
-                    aiOrchestratorClient.requestSuggestions(scannerResponse.url(), contexts, aiUseStub);
-            if (suggestionResponse == null || suggestionResponse.suggestions() == null) {
-                return Map.of();
-            }
-
-            return suggestionResponse.suggestions().stream()
-                    .collect(Collectors.groupingBy(AiOrchestratorClient.SuggestedFix::issueId));
-        } catch (UpstreamServiceException ex) {
-            log.warn("AI orchestrator unavailable for scan {}: {}", scannerResponse.url(), ex.getMessage());
-            return Map.of();
-        }
+        return issues;
     }
 
     private IssueSeverity mapSeverity(String severity) {
@@ -156,37 +458,61 @@ public class ScanService {
         return "error".equalsIgnoreCase(severity) ? IssueSeverity.ERROR : IssueSeverity.WARNING;
     }
 
-    private String normalizeSeverity(String severity) {
-        if (severity == null) {
-            return "MODERATE";
-        }
-        // Axe-core returns lowercase severity: critical, serious, moderate, minor
-        // Convert to uppercase to match the TypeScript IssueSeverity enum
-        String normalized = severity.toUpperCase();
-        // Validate it's one of the expected values
-        if (normalized.matches("CRITICAL|SERIOUS|MODERATE|MINOR")) {
-            return normalized;
-        }
-        // Default to MODERATE for unknown severity values
-        return "MODERATE";
+    private double calculateScore(List<ScannerClient.ScannerIssue> issues) {
+        return scoreFor(issues == null ? 0 : issues.size());
     }
 
-    private double calculateScore(List<ScannerClient.ScannerIssue> issues) {
-        int issueCount = issues == null ? 0 : issues.size();
+    private static double scoreFor(int issueCount) {
         return Math.max(0, 100 - issueCount * 5);
     }
 
     @Transactional(readOnly = true)
-    public List<Scan> listByUser(com.aiaca.api.model.User user) {
-        // Get all sites owned by the user, then get all scans for those sites
-        return siteRepository.findByOwner(user).stream()
-                .flatMap(site -> scanRepository.findBySiteWithIssues(site).stream())
-                .toList();
+    public ScanDtos.ScanPage listByUser(com.aiaca.api.model.User user, String cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        // Fetch one extra row to know whether another page exists
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        if (cursor == null) {
+            return toPage(scanRepository.findSummariesByOwner(user, page), pageSize);
+        }
+        ScanCursor after = ScanCursor.decode(cursor);
+        return toPage(scanRepository.findSummariesByOwnerAfter(user, after.createdAt(), after.id(), page), pageSize);
     }
 
     @Transactional(readOnly = true)
-    public List<Scan> listBySite(Site site) {
-        return scanRepository.findBySiteWithIssues(site);
+    public ScanDtos.ScanPage listBySite(Site site, String cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        if (cursor == null) {
+            return toPage(scanRepository.findSummariesBySite(site, page), pageSize);
+        }
+        ScanCursor after = ScanCursor.decode(cursor);
+        return toPage(scanRepository.findSummariesBySiteAfter(site, after.createdAt(), after.id(), page), pageSize);
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw new BadRequestException("limit must be at least 1");
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    private ScanDtos.ScanPage toPage(List<ScanSummaryView> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<ScanSummaryView> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+        List<ScanDtos.ScanSummary> items = pageRows.stream()
+                .map(row -> new ScanDtos.ScanSummary(row.getId(), row.getSiteId(), row.getCreatedAt(), row.getStatus(),
+                        row.getScore(), row.getIssueCount(), new ScanDtos.IssueCounts(row.getErrorCount(),
+                        row.getWarningCount(), row.getOpenIssueCount(), row.getFixedIssueCount())))
+                .toList();
+        String nextCursor = null;
+        if (hasMore) {
+            ScanSummaryView last = pageRows.get(pageRows.size() - 1);
+            nextCursor = new ScanCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new ScanDtos.ScanPage(items, nextCursor);
     }
 
     @Transactional(readOnly = true)
@@ -195,6 +521,12 @@ public class ScanService {
                 .orElseThrow(() -> new ResourceNotFoundException("Scan not found"));
     }
 
+    @Transactional(readOnly = true)
+    public UUID getOwnerId(UUID scanId) {
+        return scanRepository.findOwnerIdById(scanId)
+                .orElseThrow(() -> new ResourceNotFoundException("Scan not found"));
+    }
+
     @Transactional(readOnly = true)
     public Scan getByIdForSite(UUID scanId, Site site) {
         return scanRepository.findByIdAndSiteWithIssues(scanId, site)
@@ -220,8 +552,22 @@ public class ScanService {
         return toDetail(scan);
     }
 
+    @Transactional(readOnly = true)
+    public List<ScanDtos.ScanProgressEvent> getProgressSnapshot(UUID id) {
+        Scan scan = scanRepository.findByIdWithIssues(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Scan not found"));
+        List<ScanDtos.ScanProgressEvent> events = new ArrayList<>();
+        scan.getIssues().forEach(issue -> events.add(ScanDtos.ScanProgressEvent.issue(id, toIssueDto(issue, true))));
+        if (scan.getPagesTotal() != null) {
+            events.add(ScanDtos.ScanProgressEvent.progress(id, toCrawlProgress(scan)));
+        }
+        events.add(ScanDtos.ScanProgressEvent.status(id, scan.getStatus(), scan.getScore()));
+        return events;
+    }
+
     public ScanDtos.ScanSummary toSummary(Scan scan) {
-        return new ScanDtos.ScanSummary(scan.getId(), scan.getSite() != null ? scan.getSite().getId() : null, scan.getCreatedAt(), scan.getStatus(), scan.getScore(), scan.getIssues().size());
+        return new ScanDtos.ScanSummary(scan.getId(), scan.getSite() != null ? scan.getSite().getId() : null, scan.getCreatedAt(), scan.getStatus(), scan.getScore(), scan.getIssueCount(),
+                new ScanDtos.IssueCounts(scan.getErrorCount(), scan.getWarningCount(), scan.getOpenIssueCount(), scan.getFixedIssueCount()));
     }
 
     public ScanDtos.ScanDetail toDetail(Scan scan) {
@@ -230,12 +576,21 @@ public class ScanService {
 
     public ScanDtos.ScanDetail toDetail(Scan scan, boolean includeSuggestions) {
         List<ScanDtos.ScanIssueDto> issueDtos = scan.getIssues().stream()
-                .map(issue -> new ScanDtos.ScanIssueDto(issue.getId(), issue.getType(), issue.getSeverity(),
-                        issue.getDescription(), issue.getSelector(),
-                        includeSuggestions ? resolveSuggestion(issue) : null))
+                .map(issue -> toIssueDto(issue, includeSuggestions))
                 .toList();
         return new ScanDtos.ScanDetail(scan.getId(), scan.getSite() != null ? scan.getSite().getId() : null,
-                scan.getCreatedAt(), scan.getStatus(), scan.getScore(), issueDtos);
+                scan.getCreatedAt(), scan.getStatus(), scan.getScore(), issueDtos, toCrawlProgress(scan));
+    }
+
+    private ScanDtos.ScanIssueDto toIssueDto(ScanIssue issue, boolean includeSuggestions) {
+        return new ScanDtos.ScanIssueDto(issue.getId(), issue.getType(), issue.getSeverity(),
+                issue.getDescription(), issue.getSelector(),
+                includeSuggestions ? resolveSuggestion(issue) : null, issue.getPageUrl());
+    }
+
+    private ScanDtos.CrawlProgress toCrawlProgress(Scan scan) {
+        return scan.getPagesTotal() == null ? null
+                : new ScanDtos.CrawlProgress(scan.getPagesTotal(), scan.getPagesCompleted(), scan.getPagesFailed());
     }
 
     private String resolveSuggestion(ScanIssue issue) {
@@ -245,25 +600,28 @@ public class ScanService {
         return issue.getAiSuggestions().stream().findFirst().map(AiSuggestion::getSuggestion).orElse(null);
     }
 
-    public ScanDtos.ScanDetail createPublicScan(String url) {
-        Timer.Sample sample = Timer.start();
-        try {
-            ScannerClient.ScannerResponse scannerResponse = scannerClient.scan(url);
-
-            List<ScanDtos.ScanIssueDto> issueDtos = scannerResponse.issues().stream()
-                    .map(issue -> new ScanDtos.ScanIssueDto(null, issue.type(), mapSeverity(issue.severity()),
-                            issue.description(), issue.selector(),
-                            null))
-                    .toList();
-
-            publicScanCounter.increment();
-            return new ScanDtos.ScanDetail(null, null, LocalDateTime.now(), ScanStatus.COMPLETED,
-                    calculateScore(scannerResponse.issues()), issueDtos);
-        } finally {
-            sample.stop(scanTimer);
-        }
+    public Mono<ScanDtos.ScanDetail> createPublicScanAsync(String url) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return scanScheduler.scan(url, ScanPriority.PUBLIC, publicTenant(url))
+                    .map(scannerResponse -> {
+                        List<ScanDtos.ScanIssueDto> issueDtos = scannerResponse.issues().stream()
+                                .map(issue -> new ScanDtos.ScanIssueDto(null, issue.type(), mapSeverity(issue.severity()),
+                                        issue.description(), issue.selector(),
+                                        null, url))
+                                .toList();
+
+                        publicScanCounter.increment();
+                        return new ScanDtos.ScanDetail(null, null, LocalDateTime.now(), ScanStatus.COMPLETED,
+                                calculateScore(scannerResponse.issues()), issueDtos, null);
+                    })
+                    .doFinally(signal -> sample.stop(scanTimer))
+                    // The scanner request is built on whichever thread the scheduler admits it
+                    .contextWrite(CorrelationIdFilter.context(MDC.get(CorrelationIdFilter.CORRELATION_KEY)));
+        });
     }
 
+    @Transactional
     public ScanIssue updateIssueStatus(UUID scanId, UUID issueId, IssueStatus status, com.aiaca.api.model.User user) {
         ScanIssue issue = scanIssueRepository.findById(issueId)
                 .orElseThrow(() -> new ResourceNotFoundException("Issue not found"));
@@ -276,12 +634,30 @@ public class ScanService {
             throw new ResourceNotFoundException("Issue not found");
         }
 
+        IssueStatus previous = issue.getStatus();
+        if (previous == status) {
+            return issue;
+        }
         issue.setStatus(status);
-        return scanIssueRepository.save(issue);
+        ScanIssue saved = scanIssueRepository.save(issue);
+        // Relative SQL update so concurrent status changes on the same scan cannot lose counts
+        scanRepository.adjustIssueStatusCounts(scanId, statusDelta(IssueStatus.OPEN, previous, status),
+                statusDelta(IssueStatus.FIXED, previous, status));
+        return saved;
+    }
+
+    private int statusDelta(IssueStatus counted, IssueStatus previous, IssueStatus current) {
+        return (current == counted ? 1 : 0) - (previous == counted ? 1 : 0);
     }
 
     public ScanDtos.IssueDetail toIssueDetail(ScanIssue issue) {
         return new ScanDtos.IssueDetail(issue.getId(), issue.getType(), issue.getSeverity(),
                 issue.getStatus(), issue.getDescription(), issue.getSelector(), resolveSuggestion(issue));
     }
+
+    /**
+     * Issues persisted from one streamed batch, keyed by scanner issue id so later suggestions can find them.
+     */
+    public record RecordedIssues(Map<String, ScanIssue> byScannerIssueId, ScanIssue fallback, int issueCount,
+                                 int errorCount) {}
 }
@@ -1,30 +1,28 @@
 package com.aiaca.api.service;
 
-import com.aiaca.api.dto.EmbedConfigDto;
 import com.aiaca.api.dto.SiteDtos;
 import com.aiaca.api.exception.BadRequestException;
 import com.aiaca.api.exception.ResourceNotFoundException;
-import com.aiaca.api.model.Scan;
-import com.aiaca.api.model.ScanStatus;
 import com.aiaca.api.model.Site;
 import com.aiaca.api.model.User;
-import com.aiaca.api.repository.ScanRepository;
 import com.aiaca.api.repository.SiteRepository;
+import com.aiaca.api.security.EmbedKeyVerifier;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 @Service
 public class SiteService {
     private final SiteRepository siteRepository;
-    private final ScanRepository scanRepository;
+    private final EmbedConfigService embedConfigService;
+    private final EmbedKeyVerifier embedKeyVerifier;
 
-    public SiteService(SiteRepository siteRepository, ScanRepository scanRepository) {
+    public SiteService(SiteRepository siteRepository, EmbedConfigService embedConfigService,
+                       EmbedKeyVerifier embedKeyVerifier) {
         this.siteRepository = siteRepository;
-        this.scanRepository = scanRepository;
+        this.embedConfigService = embedConfigService;
+        this.embedKeyVerifier = embedKeyVerifier;
     }
 
     public Site createSite(User owner, SiteDtos.CreateSiteRequest request) {
@@ -71,59 +69,24 @@ public class SiteService {
     public void deleteSite(User owner, UUID id) {
         Site site = getSite(owner, id);
         siteRepository.delete(site);
+        embedKeyVerifier.revoke(site.getEmbedKey());
+        embedConfigService.evict(id);
     }
 
-    public Site getByEmbedKey(UUID id, String embedKey) {
-        return siteRepository.findByIdAndEmbedKey(id, embedKey)
-                .orElseThrow(() -> new ResourceNotFoundException("Site not found for embed key"));
+    public Site rotateEmbedKey(User owner, UUID id) {
+        Site site = getSite(owner, id);
+        String previousKey = site.getEmbedKey();
+        site.setEmbedKey(UUID.randomUUID().toString());
+        // The snapshot embeds the key, so force a rebuild on the next request
+        site.setEmbedConfigJson(null);
+        site.setEmbedConfigEtag(null);
+        Site saved = siteRepository.save(site);
+        embedKeyVerifier.revoke(previousKey);
+        embedConfigService.evict(id);
+        return saved;
     }
 
     public SiteDtos.SiteResponse toResponse(Site site) {
         return new SiteDtos.SiteResponse(site.getId(), site.getName(), site.getUrl(), site.getEmbedKey(), site.getCreatedAt());
     }
-
-    public EmbedConfigDto toEmbedConfig(Site site) {
-        // Fetch the latest completed scan for this site
-        Optional<Scan> latestScan = scanRepository.findFirstBySiteAndStatusOrderByCreatedAtDesc(
-            site,
-            ScanStatus.COMPLETED
-        );
-
-        List<EmbedConfigDto.AltTextSuggestion> altTextSuggestions = new ArrayList<>();
-
-        if (latestScan.isPresent()) {
-            Scan scan = latestScan.get();
-
-            // Extract alt text suggestions from scan issues
-            scan.getIssues().stream()
-                .filter(issue -> {
-                    // Look for issues related to missing alt text
-                    String type = issue.getType();
-                    return type != null && (
-                        type.contains("alt") ||
-                        type.contains("image") ||
-                        type.equals("missing_alt_text")
-                    );
-                })
-                .forEach(issue -> {
-                    if (issue.getSuggestion() != null && !issue.getSuggestion().isBlank()) {
-                        altTextSuggestions.add(new EmbedConfigDto.AltTextSuggestion(
-                            issue.getSelector(),  // CSS selector from issue
-                            null,                 // imageUrl - can be extracted if stored
-                            issue.getSuggestion() // AI-generated alt text
-                        ));
-                    }
-                });
-        }
-
-        return new EmbedConfigDto(
-            site.getId(),
-            site.getEmbedKey(),
-            List.of("alt_text", "focus_outline"),
-            true,  // enableSkipLink
-            altTextSuggestions,
-            "#1f6feb",  // Default GitHub blue color
-            "Skip to main content"
-        );
-    }
 }
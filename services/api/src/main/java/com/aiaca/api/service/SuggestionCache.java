@@ -0,0 +1,146 @@
+package com.aiaca.api.service;
+
+import com.aiaca.api.client.AiOrchestratorClient;
+import com.aiaca.api.model.CachedSuggestion;
+import com.aiaca.api.repository.CachedSuggestionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Two-tier cache of AI fixes keyed by issue fingerprint: a bounded in-memory tier in front of the
+ * {@code ai_suggestion_cache} table. Entries are scoped to {@code ai-orchestrator.suggestion-cache.model-version};
+ * bumping it when the orchestrator model changes makes old entries invisible. They are kept while any node may
+ * still use them (rolling deploys, rollbacks) and purged by a scheduled job once no node has written to their
+ * version for {@code ai-orchestrator.suggestion-cache.retired-version-retention-hours}.
+ * Lookups and writes are blocking and must not run on Netty threads.
+ */
+@Component
+public class SuggestionCache {
+    private static final Logger log = LoggerFactory.getLogger(SuggestionCache.class);
+
+    private final CachedSuggestionRepository repository;
+    private final boolean enabled;
+    private final String modelVersion;
+    private final Duration retiredVersionRetention;
+    private final Cache<String, AiOrchestratorClient.SuggestedFix> hot;
+    private final Counter memoryHitCounter;
+    private final Counter databaseHitCounter;
+    private final Counter missCounter;
+
+    public SuggestionCache(CachedSuggestionRepository repository,
+                           MeterRegistry meterRegistry,
+                           @Value("${ai-orchestrator.suggestion-cache.enabled:true}") boolean enabled,
+                           @Value("${ai-orchestrator.suggestion-cache.model-version:v1}") String modelVersion,
+                           @Value("${ai-orchestrator.suggestion-cache.max-entries:10000}") long maxEntries,
+                           @Value("${ai-orchestrator.suggestion-cache.retired-version-retention-hours:168}") long retiredVersionRetentionHours) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.modelVersion = modelVersion;
+        this.retiredVersionRetention = Duration.ofHours(retiredVersionRetentionHours);
+        this.hot = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+        new CaffeineCacheMetrics<>(hot, "ai_suggestions", Tags.empty()).bindTo(meterRegistry);
+        this.memoryHitCounter = meterRegistry.counter("api_ai_suggestion_cache_total", "result", "memory_hit");
+        this.databaseHitCounter = meterRegistry.counter("api_ai_suggestion_cache_total", "result", "database_hit");
+        this.missCounter = meterRegistry.counter("api_ai_suggestion_cache_total", "result", "miss");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Map<String, AiOrchestratorClient.SuggestedFix> getAll(Set<String> fingerprints) {
+        Map<String, AiOrchestratorClient.SuggestedFix> found = new HashMap<>(hot.getAllPresent(fingerprints));
+        memoryHitCounter.increment(found.size());
+        List<String> remaining = fingerprints.stream().filter(fingerprint -> !found.containsKey(fingerprint)).toList();
+        if (!remaining.isEmpty()) {
+            for (CachedSuggestion entry : repository.findByModelVersionAndFingerprintIn(modelVersion, remaining)) {
+                AiOrchestratorClient.SuggestedFix fix = new AiOrchestratorClient.SuggestedFix(null, null,
+                        entry.getExplanation(), entry.getSuggestedFix(), entry.getConfidence(), entry.getGrounded());
+                hot.put(entry.getFingerprint(), fix);
+                found.put(entry.getFingerprint(), fix);
+                databaseHitCounter.increment();
+            }
+        }
+        missCounter.increment(fingerprints.size() - found.size());
+        return found;
+    }
+
+    public void putAll(Map<String, AiOrchestratorClient.SuggestedFix> fixes) {
+        fixes.forEach((fingerprint, fix) -> {
+            if (fix.suggestedFix() == null) {
+                return;
+            }
+            hot.put(fingerprint, fix);
+            CachedSuggestion entry = new CachedSuggestion();
+            entry.setFingerprint(fingerprint);
+            entry.setModelVersion(modelVersion);
+            entry.setSuggestedFix(fix.suggestedFix());
+            entry.setExplanation(fix.explanation());
+            entry.setConfidence(fix.confidence());
+            entry.setGrounded(fix.grounded());
+            try {
+                repository.save(entry);
+            } catch (DataIntegrityViolationException ex) {
+                // Another scan cached the same fingerprint first; keep theirs
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${ai-orchestrator.suggestion-cache.purge-interval-ms:3600000}",
+            initialDelayString = "${ai-orchestrator.suggestion-cache.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeRetiredVersions() {
+        if (!enabled) {
+            return;
+        }
+        int purged = repository.deleteRetiredVersions(modelVersion, LocalDateTime.now().minus(retiredVersionRetention));
+        if (purged > 0) {
+            log.info("Purged {} cached AI suggestions from retired model versions", purged);
+        }
+    }
+
+    /**
+     * Fingerprint of the parts of an issue that determine its fix. Whitespace differences (and case, outside
+     * the selector) are ignored so the same shared-header issue matches across pages and sites.
+     */
+    public static String fingerprint(String type, String selector, String description) {
+        // Selectors keep their case: CSS ids and class names are case-sensitive
+        String normalized = normalize(type).toLowerCase(Locale.ROOT) + "|" + normalize(selector) + "|"
+                + normalize(description).toLowerCase(Locale.ROOT);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,21 @@
+package com.aiaca.api.service;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class WorkerThreads {
+    private WorkerThreads() {
+    }
+
+    static ThreadFactory factory(String namePrefix, boolean virtualThreads) {
+        if (virtualThreads) {
+            return Thread.ofVirtual().name(namePrefix, 1).factory();
+        }
+        AtomicInteger threadCounter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
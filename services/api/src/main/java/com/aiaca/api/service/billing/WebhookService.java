@@ -18,6 +18,7 @@ import com.aiaca.api.repository.billing.PriceRepository;
 import com.aiaca.api.repository.billing.SubscriptionItemRepository;
 import com.aiaca.api.repository.billing.SubscriptionRepository;
 import com.aiaca.api.repository.billing.WebhookEventRepository;
+import com.aiaca.api.security.UserCache;
 import com.stripe.model.Event;
 import com.stripe.model.checkout.Session;
 import com.stripe.model.Invoice;
@@ -48,6 +49,7 @@ public class WebhookService {
     private final SubscriptionRepository subscriptionRepository;
     private final SubscriptionItemRepository subscriptionItemRepository;
     private final PriceRepository priceRepository;
+    private final UserCache userCache;
     private final String webhookSecret;
     private final Long toleranceSeconds;
 
@@ -57,6 +59,7 @@ public class WebhookService {
                           SubscriptionRepository subscriptionRepository,
                           SubscriptionItemRepository subscriptionItemRepository,
                           PriceRepository priceRepository,
+                          UserCache userCache,
                           @Value("${billing.stripe.webhook-secret:}") String webhookSecret,
                           @Value("${billing.stripe.tolerance-seconds:300}") Long toleranceSeconds) {
         this.webhookEventRepository = webhookEventRepository;
@@ -65,6 +68,7 @@ public class WebhookService {
         this.subscriptionRepository = subscriptionRepository;
         this.subscriptionItemRepository = subscriptionItemRepository;
         this.priceRepository = priceRepository;
+        this.userCache = userCache;
         this.webhookSecret = webhookSecret;
         this.toleranceSeconds = toleranceSeconds;
     }
@@ -185,6 +189,7 @@ public class WebhookService {
 
         Account account = resolveOrCreateAccount(user, customerId, session.getCurrency(), email);
         userRepository.save(user);
+        userCache.evict(user.getId());
 
         String priceId = null;
         Map<String, String> metadata = session.getMetadata();
@@ -228,6 +233,7 @@ public class WebhookService {
         if (user != null) {
             user.setSubscriptionStatus(newStatus);
             userRepository.save(user);
+            userCache.evict(user.getId());
         }
 
         Subscription localSubscription = subscriptionRepository
@@ -277,6 +283,7 @@ public class WebhookService {
         if (user != null) {
             user.setSubscriptionStatus(SubscriptionStatus.CANCELED);
             userRepository.save(user);
+            userCache.evict(user.getId());
         }
 
         Subscription local = subscriptionRepository.findByStripeSubscriptionId(stripeSubscription.getId()).orElse(null);
@@ -307,6 +314,7 @@ public class WebhookService {
         if (user != null) {
             user.setSubscriptionStatus(SubscriptionStatus.PAST_DUE);
             userRepository.save(user);
+            userCache.evict(user.getId());
         }
 
         updateSubscriptionStatusFromInvoice(invoice, SubscriptionStatus.PAST_DUE);
@@ -331,6 +339,7 @@ public class WebhookService {
         if (user != null) {
             user.setSubscriptionStatus(SubscriptionStatus.ACTIVE);
             userRepository.save(user);
+            userCache.evict(user.getId());
         }
 
         updateSubscriptionStatusFromInvoice(invoice, SubscriptionStatus.ACTIVE);
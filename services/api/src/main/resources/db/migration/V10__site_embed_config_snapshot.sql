@@ -0,0 +1,6 @@
+-- Materialized embed-config payload per site, rebuilt when a scan completes, so the
+-- embed script's page-view traffic is served without querying scans and issues.
+
+ALTER TABLE sites
+ADD COLUMN embed_config_json TEXT,
+ADD COLUMN embed_config_etag VARCHAR(64);
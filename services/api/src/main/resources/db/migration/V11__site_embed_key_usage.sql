@@ -0,0 +1,6 @@
+-- Embed key usage, coalesced in memory and written in periodic batched UPDATEs
+-- instead of touching the site row on every embed-config request.
+
+ALTER TABLE sites
+ADD COLUMN embed_key_last_used_at TIMESTAMP,
+ADD COLUMN embed_key_request_count BIGINT DEFAULT 0;
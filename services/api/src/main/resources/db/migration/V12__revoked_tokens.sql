@@ -0,0 +1,11 @@
+-- Logged-out JWTs shared by all API nodes, keyed by the SHA-256 of the token.
+-- Nodes sync new rows by revoked_at; rows are purged once the token has expired.
+
+CREATE TABLE revoked_tokens (
+    token_digest VARCHAR(64) PRIMARY KEY,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
@@ -0,0 +1,10 @@
+-- Shared fixed-window request counts for distributed rate limiting. Nodes claim permits
+-- in chunks with an atomic upsert; rows are deleted once the window is long past.
+
+CREATE TABLE rate_limit_windows (
+    policy VARCHAR(50) NOT NULL,
+    bucket_key VARCHAR(255) NOT NULL,
+    window_start BIGINT NOT NULL,
+    used INTEGER NOT NULL,
+    PRIMARY KEY (policy, bucket_key, window_start)
+);
@@ -0,0 +1,10 @@
+-- Rotated and deleted embed keys shared by all API nodes, keyed by the SHA-256 of the key.
+-- Nodes sync new rows by revoked_at to drop the key from their verification cache; rows are
+-- purged once every node's cached entry for the key has expired.
+
+CREATE TABLE revoked_embed_keys (
+    key_digest VARCHAR(64) PRIMARY KEY,
+    revoked_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_revoked_embed_keys_revoked_at ON revoked_embed_keys (revoked_at);
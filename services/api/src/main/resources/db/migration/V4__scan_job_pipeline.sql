@@ -0,0 +1,6 @@
+-- Scans are now queued and executed asynchronously; keep the requested page so workers can pick it up
+
+ALTER TABLE scans
+ADD COLUMN page_url TEXT;
+
+CREATE INDEX idx_scans_site_id_status ON scans(site_id, status);
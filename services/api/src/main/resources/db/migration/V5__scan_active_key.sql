@@ -0,0 +1,10 @@
+-- Single-flight guard: at most one QUEUED/RUNNING scan per (site, page URL).
+-- The key is cleared when the scan completes or fails, so the unique constraint only covers active scans.
+
+ALTER TABLE scans
+ADD COLUMN active_scan_key VARCHAR(64);
+
+ALTER TABLE scans
+ADD CONSTRAINT uq_scans_active_scan_key UNIQUE (active_scan_key);
+
+CREATE INDEX idx_scans_status_created_at ON scans(status, created_at);
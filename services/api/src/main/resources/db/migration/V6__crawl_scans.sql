@@ -0,0 +1,6 @@
+-- Multi-page crawl scans aggregate into one parent scan; pages_total stays NULL for single-page scans.
+
+ALTER TABLE scans
+ADD COLUMN pages_total INTEGER,
+ADD COLUMN pages_completed INTEGER,
+ADD COLUMN pages_failed INTEGER;
@@ -0,0 +1,14 @@
+-- Reusable AI fixes keyed by a normalized issue fingerprint (type + selector + description).
+-- model_version scopes entries to the orchestrator model that produced them; bumping it invalidates the cache.
+
+CREATE TABLE ai_suggestion_cache (
+    id UUID PRIMARY KEY,
+    fingerprint VARCHAR(64) NOT NULL,
+    model_version VARCHAR(100) NOT NULL,
+    suggested_fix TEXT NOT NULL,
+    explanation TEXT,
+    confidence DOUBLE PRECISION,
+    grounded BOOLEAN,
+    created_at TIMESTAMPTZ NOT NULL,
+    CONSTRAINT uq_ai_suggestion_cache_fingerprint_version UNIQUE (fingerprint, model_version)
+);
@@ -0,0 +1,3 @@
+-- Keyset pagination for scan listings: newest first on (created_at, id) within a site.
+
+CREATE INDEX idx_scans_site_created_at_id ON scans(site_id, created_at DESC, id DESC);
@@ -0,0 +1,27 @@
+-- Denormalized issue counters on scans so listings and summaries never read scan_issues.
+-- Kept current by the API on write; backfilled here for existing rows.
+
+ALTER TABLE scans
+ADD COLUMN issue_count INTEGER NOT NULL DEFAULT 0,
+ADD COLUMN error_count INTEGER NOT NULL DEFAULT 0,
+ADD COLUMN warning_count INTEGER NOT NULL DEFAULT 0,
+ADD COLUMN open_issue_count INTEGER NOT NULL DEFAULT 0,
+ADD COLUMN fixed_issue_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE scans s
+SET issue_count = counts.total,
+    error_count = counts.errors,
+    warning_count = counts.warnings,
+    open_issue_count = counts.open_issues,
+    fixed_issue_count = counts.fixed_issues
+FROM (
+    SELECT scan_id,
+           COUNT(*) AS total,
+           COUNT(*) FILTER (WHERE severity = 'ERROR') AS errors,
+           COUNT(*) FILTER (WHERE severity = 'WARNING') AS warnings,
+           COUNT(*) FILTER (WHERE status = 'OPEN') AS open_issues,
+           COUNT(*) FILTER (WHERE status = 'FIXED') AS fixed_issues
+    FROM scan_issues
+    GROUP BY scan_id
+) counts
+WHERE counts.scan_id = s.id;
@@ -25,8 +25,10 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -127,11 +129,14 @@ class ApiIntegrationTest {
                         .header("Authorization", "Bearer " + token)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(scanRequest)))
-                .andExpect(status().isOk())
+                .andExpect(status().isAccepted())
                 .andReturn();
         JsonNode scanJson = objectMapper.readTree(scanResult.getResponse().getContentAsString());
         String scanId = scanJson.get("id").asText();
-        assertThat(scanJson.get("issues").get(0).get("suggestion").asText()).isEqualTo("Add alt text");
+        assertThat(scanJson.get("status").asText()).isEqualTo("QUEUED");
+
+        JsonNode completedScan = awaitScanStatus(token, scanId, "COMPLETED");
+        assertThat(completedScan.get("issues").get(0).get("suggestion").asText()).isEqualTo("Add alt text");
 
         mockMvc.perform(get("/api/v1/sites/" + siteId + "/scans")
                         .header("Authorization", "Bearer " + token))
@@ -220,9 +225,13 @@ class ApiIntegrationTest {
         failAi.set(true);
         String body = objectMapper.writeValueAsString(Map.of("url", "https://example.com"));
 
-        mockMvc.perform(post("/api/v1/public/scans")
+        MvcResult asyncResult = mockMvc.perform(post("/api/v1/public/scans")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(asyncResult))
                 .andExpect(status().isOk())
                 .andExpect(result -> {
                     JsonNode payload = objectMapper.readTree(result.getResponse().getContentAsString());
@@ -251,11 +260,34 @@ class ApiIntegrationTest {
         String siteId = objectMapper.readTree(siteResult.getResponse().getContentAsString()).get("id").asText();
 
         ScanDtos.CreateScanRequest scanRequest = new ScanDtos.CreateScanRequest("https://example.com/page");
-        mockMvc.perform(post("/api/v1/sites/" + siteId + "/scans")
+        MvcResult scanResult = mockMvc.perform(post("/api/v1/sites/" + siteId + "/scans")
                         .header("Authorization", "Bearer " + token)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(scanRequest)))
-                .andExpect(status().isBadGateway());
+                .andExpect(status().isAccepted())
+                .andReturn();
+        String scanId = objectMapper.readTree(scanResult.getResponse().getContentAsString()).get("id").asText();
+
+        awaitScanStatus(token, scanId, "FAILED");
+    }
+
+    private JsonNode awaitScanStatus(String token, String scanId, String expectedStatus) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        JsonNode scan = null;
+        while (System.currentTimeMillis() < deadline) {
+            MvcResult result = mockMvc.perform(get("/api/v1/scans/" + scanId)
+                            .header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            scan = objectMapper.readTree(result.getResponse().getContentAsString());
+            if (expectedStatus.equals(scan.get("status").asText())) {
+                return scan;
+            }
+            Thread.sleep(50);
+        }
+        assertThat(scan).isNotNull();
+        assertThat(scan.get("status").asText()).isEqualTo(expectedStatus);
+        return scan;
     }
 
     private String scannerPayload() {
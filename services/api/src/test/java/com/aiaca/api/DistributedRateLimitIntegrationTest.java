@@ -0,0 +1,77 @@
+package com.aiaca.api;
+
+import com.aiaca.api.service.RateLimiter;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application instances sharing one database must enforce a single cluster-wide limit.
+ */
+class DistributedRateLimitIntegrationTest {
+
+    private static final int MAX_REQUESTS = 10;
+    // Windows are epoch-aligned; at 30 days the test is all but certain to run inside a single one
+    private static final long WINDOW_MS = 30L * 24 * 60 * 60 * 1000;
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeEach
+    void startNodes() {
+        String url = "jdbc:h2:mem:ratelimit-" + UUID.randomUUID()
+                + ";MODE=PostgreSQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1;INIT=create domain if not exists jsonb as text";
+        nodeA = startNode(url);
+        nodeB = startNode(url);
+    }
+
+    @AfterEach
+    void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    void limitIsSharedAcrossNodes() {
+        RateLimiter limiterA = nodeA.getBean("publicScanRateLimiter", RateLimiter.class);
+        RateLimiter limiterB = nodeB.getBean("publicScanRateLimiter", RateLimiter.class);
+
+        int allowed = 0;
+        for (int i = 0; i < MAX_REQUESTS * 2; i++) {
+            RateLimiter limiter = i % 2 == 0 ? limiterA : limiterB;
+            if (limiter.tryAcquire("203.0.113.7") == 0) {
+                allowed++;
+            }
+        }
+
+        assertThat(allowed).isEqualTo(MAX_REQUESTS);
+        // Another client address has its own budget
+        assertThat(limiterB.tryAcquire("203.0.113.8")).isZero();
+    }
+
+    private static ConfigurableApplicationContext startNode(String url) {
+        return new SpringApplicationBuilder(ApiApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=" + url,
+                        "spring.jpa.hibernate.ddl-auto=update",
+                        "security.jwt.secret=integration-secret-value-with-entropy-0123456789",
+                        "security.rate-limit.distributed.enabled=true",
+                        "security.rate-limit.distributed.lease-fraction=0.2",
+                        "security.public-scan.rate-limit.max-requests=" + MAX_REQUESTS,
+                        "security.public-scan.rate-limit.window-ms=" + WINDOW_MS,
+                        // The cleanup job runs at startup and must not drop the current window
+                        "security.rate-limit.distributed.retention-ms=" + 2 * WINDOW_MS)
+                .run();
+    }
+}
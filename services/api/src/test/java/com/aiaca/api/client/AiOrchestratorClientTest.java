@@ -0,0 +1,169 @@
+package com.aiaca.api.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.aiaca.api.config.CorrelationIdFilter;
+import com.aiaca.api.exception.UpstreamServiceException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+class AiOrchestratorClientTest {
+    private static final String FIRST_FIX = "{\"issueId\":\"issue-1\",\"selector\":\"img.hero\","
+            + "\"explanation\":\"Add alt text\",\"suggestedFix\":\"<img alt=\\\"Hero\\\">\"}";
+    private static final String SECOND_FIX = "{\"issueId\":\"issue-2\",\"selector\":\"a.cta\","
+            + "\"explanation\":\"Name the link\",\"suggestedFix\":\"<a aria-label=\\\"Sign up\\\">\"}";
+    private static final List<AiOrchestratorClient.IssueContext> ISSUES = List.of(
+            new AiOrchestratorClient.IssueContext("issue-1", "image-alt", "SERIOUS", "Missing alt", "img.hero", "https://example.com"),
+            new AiOrchestratorClient.IssueContext("issue-2", "link-name", "SERIOUS", "Empty link", "a.cta", "https://example.com"));
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private AiOrchestratorClient client(long itemTimeoutMs) {
+        UpstreamGuard.Settings settings = new UpstreamGuard.Settings(50, 20, 10, Duration.ofSeconds(30), 2,
+                10, 1, 10, Duration.ofSeconds(10), 0.9);
+        UpstreamGuard guard = new UpstreamGuard("ai-orchestrator", settings, new SimpleMeterRegistry());
+        return new AiOrchestratorClient(WebClient.create(), server.url("/suggest-fixes").toString(), 2000, guard,
+                itemTimeoutMs);
+    }
+
+    @Test
+    void streamSuggestions_decodesChunkedNdjsonAndAsksForStreamingTypes() throws InterruptedException {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/x-ndjson")
+                .setChunkedBody(FIRST_FIX + "\n" + SECOND_FIX + "\n", 16));
+
+        List<AiOrchestratorClient.SuggestedFix> fixes = client(1000)
+                .streamSuggestions("https://example.com", ISSUES, false).collectList().block();
+
+        assertThat(fixes).extracting(AiOrchestratorClient.SuggestedFix::issueId).containsExactly("issue-1", "issue-2");
+        assertThat(fixes.get(1).suggestedFix()).isEqualTo("<a aria-label=\"Sign up\">");
+
+        RecordedRequest request = server.takeRequest();
+        assertThat(request.getHeader("Accept")).contains("application/x-ndjson", "text/event-stream");
+    }
+
+    @Test
+    void streamSuggestions_decodesServerSentEventsAndFailsOnErrorEvent() {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "text/event-stream")
+                .setChunkedBody("data:" + FIRST_FIX + "\n\nevent:error\ndata:{\"message\":\"model overloaded\"}\n\n", 32));
+
+        List<AiOrchestratorClient.SuggestedFix> received = new ArrayList<>();
+
+        assertThatThrownBy(() -> client(1000).streamSuggestions("https://example.com", ISSUES, false)
+                .doOnNext(received::add).blockLast())
+                .isInstanceOf(UpstreamServiceException.class)
+                .hasMessage("AI orchestrator stream failed");
+        assertThat(received).extracting(AiOrchestratorClient.SuggestedFix::issueId).containsExactly("issue-1");
+    }
+
+    @Test
+    void streamSuggestions_fallsBackToBufferedJson() {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody("{\"provider\":\"stub\",\"requestId\":\"req-1\",\"suggestions\":[" + FIRST_FIX + "," + SECOND_FIX + "]}"));
+
+        List<AiOrchestratorClient.SuggestedFix> fixes = client(1000)
+                .streamSuggestions("https://example.com", ISSUES, false).collectList().block();
+
+        assertThat(fixes).extracting(AiOrchestratorClient.SuggestedFix::issueId).containsExactly("issue-1", "issue-2");
+    }
+
+    @Test
+    void streamSuggestions_doesNotTimeOutWhileTheConsumerIsBusy() {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/x-ndjson")
+                .setChunkedBody(FIRST_FIX + "\n" + SECOND_FIX + "\n", 16));
+
+        List<AiOrchestratorClient.SuggestedFix> fixes = client(200)
+                .streamSuggestions("https://example.com", ISSUES, false)
+                .concatMap(fix -> Mono.delay(Duration.ofMillis(400)).thenReturn(fix), 1)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertThat(fixes).hasSize(2);
+    }
+
+    @Test
+    void streamSuggestions_keepsEarlierFixesWhenNextOneTimesOut() {
+        String firstLine = FIRST_FIX + "\n";
+        // The first line arrives at once; every further line waits a second, well past the item timeout
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/x-ndjson")
+                .setBody(firstLine + SECOND_FIX + "\n")
+                .throttleBody(firstLine.length(), 1, TimeUnit.SECONDS));
+
+        List<AiOrchestratorClient.SuggestedFix> received = new ArrayList<>();
+
+        assertThatThrownBy(() -> client(200).streamSuggestions("https://example.com", ISSUES, false)
+                .doOnNext(received::add).blockLast(Duration.ofSeconds(5)))
+                .isInstanceOf(UpstreamServiceException.class);
+        assertThat(received).extracting(AiOrchestratorClient.SuggestedFix::issueId).containsExactly("issue-1");
+    }
+
+    @Test
+    void requestSuggestionsAsync_decodesTheResponseAndSendsTheCorrelationId() throws InterruptedException {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody("{\"provider\":\"stub\",\"suggestions\":[" + FIRST_FIX + "]}"));
+
+        AiOrchestratorClient.SuggestionResponse response = client(1000)
+                .requestSuggestionsAsync("https://example.com", ISSUES, false)
+                .contextWrite(CorrelationIdFilter.context("scan-request"))
+                .block(Duration.ofSeconds(5));
+
+        assertThat(response.suggestions()).extracting(AiOrchestratorClient.SuggestedFix::issueId).containsExactly("issue-1");
+        assertThat(server.takeRequest().getHeader(CorrelationIdFilter.CORRELATION_HEADER)).isEqualTo("scan-request");
+    }
+
+    @Test
+    void requestSuggestionsAsync_mapsAnErrorStatusToBadGateway() {
+        server.enqueue(new MockResponse().setResponseCode(503).setBody("overloaded"));
+
+        assertThatThrownBy(() -> client(1000).requestSuggestionsAsync("https://example.com", ISSUES, false)
+                .block(Duration.ofSeconds(5)))
+                .isInstanceOf(UpstreamServiceException.class)
+                .hasMessageContaining("overloaded")
+                .satisfies(ex -> assertThat(((UpstreamServiceException) ex).getStatus()).isEqualTo(HttpStatus.BAD_GATEWAY));
+    }
+
+    @Test
+    void requestSuggestionsAsync_timesOutAsBadGateway() {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody("{\"suggestions\":[]}")
+                .setHeadersDelay(4, TimeUnit.SECONDS));
+
+        // The client's overall timeout is 2000 ms
+        assertThatThrownBy(() -> client(1000).requestSuggestionsAsync("https://example.com", ISSUES, false)
+                .block(Duration.ofSeconds(10)))
+                .isInstanceOf(UpstreamServiceException.class)
+                .hasMessageContaining("Failed to contact AI orchestrator")
+                .satisfies(ex -> assertThat(((UpstreamServiceException) ex).getStatus()).isEqualTo(HttpStatus.BAD_GATEWAY));
+    }
+}
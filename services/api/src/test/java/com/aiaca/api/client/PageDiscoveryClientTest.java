@@ -0,0 +1,63 @@
+package com.aiaca.api.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+class PageDiscoveryClientTest {
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void discover_refusesToFetchAnInternalSeed() {
+        server.enqueue(new MockResponse().setHeader("Content-Type", "text/html")
+                .setBody("<a href=\"/admin\">Admin</a>"));
+        String seed = server.url("/").toString();
+
+        List<String> pages = new PageDiscoveryClient(WebClient.create(), 2000).discover(seed, 10)
+                .block(Duration.ofSeconds(5));
+
+        assertThat(pages).containsExactly(seed);
+        assertThat(server.getRequestCount()).isZero();
+    }
+
+    @Test
+    void isPublic_rejectsLoopbackPrivateLinkLocalAndUniqueLocalAddresses() throws UnknownHostException {
+        for (String address : List.of("127.0.0.1", "0.0.0.0", "10.1.2.3", "172.16.0.1", "192.168.1.1",
+                "169.254.169.254", "100.64.0.1", "::1", "fe80::1", "fd00::1")) {
+            assertThat(PageDiscoveryClient.isPublic(InetAddress.getByName(address))).as(address).isFalse();
+        }
+        for (String address : List.of("93.184.216.34", "2606:4700::1111")) {
+            assertThat(PageDiscoveryClient.isPublic(InetAddress.getByName(address))).as(address).isTrue();
+        }
+    }
+
+    @Test
+    void extractLinks_keepsSameHostPagesOnly() {
+        String html = "<a href=\"/pricing\">Pricing</a><a href='https://other.example/x'>x</a>"
+                + "<a href=\"mailto:hi@example.com\">Mail</a><a href=\"docs#intro\">Docs</a>";
+
+        assertThat(PageDiscoveryClient.extractLinks("https://example.com/", html, 10))
+                .containsExactly("https://example.com/", "https://example.com/pricing", "https://example.com/docs");
+    }
+}
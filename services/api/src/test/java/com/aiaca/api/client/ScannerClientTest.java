@@ -0,0 +1,134 @@
+package com.aiaca.api.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.aiaca.api.config.CorrelationIdFilter;
+import com.aiaca.api.exception.UpstreamServiceException;
+import com.aiaca.api.service.ScanPriority;
+import com.aiaca.api.service.ScanScheduler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+class ScannerClientTest {
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private ScannerClient client(long timeoutMs) {
+        UpstreamGuard.Settings settings = new UpstreamGuard.Settings(50, 20, 10, Duration.ofSeconds(30), 2,
+                10, 1, 10, Duration.ofSeconds(10), 0.9);
+        UpstreamGuard guard = new UpstreamGuard("scanner", settings, new SimpleMeterRegistry());
+        return new ScannerClient(WebClient.create(), server.url("/scan").toString(), timeoutMs, guard, new ObjectMapper());
+    }
+
+    private static String scannerBody(int issues) {
+        StringBuilder body = new StringBuilder("{\"url\":\"https://example.com\",\"issues\":[");
+        for (int i = 0; i < issues; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append("{\"id\":\"issue-").append(i).append("\",\"type\":\"image-alt\",\"severity\":\"serious\",")
+                    .append("\"selector\":\"img:nth-of-type(").append(i).append(")\",\"description\":\"Missing alt\"}");
+        }
+        return body.append("]}").toString();
+    }
+
+    @Test
+    void scanIssuesAsync_doesNotTimeOutWhileDownstreamIsSlowerThanTheTimeout() {
+        // Small chunks so the body arrives as many buffers, each requested only after the previous batch is done
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setChunkedBody(scannerBody(6), 64));
+
+        List<List<ScannerClient.ScannerIssue>> batches = client(200).scanIssuesAsync("https://example.com", 2)
+                .concatMap(batch -> Mono.delay(Duration.ofMillis(400)).thenReturn(batch), 1)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(batches).hasSize(3);
+        assertThat(batches.get(2)).extracting(ScannerClient.ScannerIssue::id).containsExactly("issue-4", "issue-5");
+    }
+
+    @Test
+    void scanIssuesAsync_timesOutWhenTheScannerStallsWhileIssuesAreWanted() {
+        String body = scannerBody(4);
+        int firstIssueEnd = body.indexOf("},") + 2;
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody(body)
+                .throttleBody(firstIssueEnd, 2, TimeUnit.SECONDS));
+
+        assertThatThrownBy(() -> client(200).scanIssuesAsync("https://example.com", 10)
+                .blockLast(Duration.ofSeconds(5)))
+                .isInstanceOf(UpstreamServiceException.class);
+    }
+
+    @Test
+    void scanAsync_mapsAnErrorStatusToBadGateway() {
+        server.enqueue(new MockResponse().setResponseCode(500).setBody("Scan failed"));
+
+        assertThatThrownBy(() -> client(2000).scanAsync("https://example.com").block(Duration.ofSeconds(5)))
+                .isInstanceOf(UpstreamServiceException.class)
+                .hasMessageContaining("Scan failed")
+                .satisfies(ex -> assertThat(((UpstreamServiceException) ex).getStatus()).isEqualTo(HttpStatus.BAD_GATEWAY))
+                .satisfies(ex -> assertThat(((UpstreamServiceException) ex).getUpstreamStatus()).isEqualTo(500));
+    }
+
+    @Test
+    void scanAsync_timesOutAsBadGateway() {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody(scannerBody(1))
+                .setHeadersDelay(2, TimeUnit.SECONDS));
+
+        assertThatThrownBy(() -> client(200).scanAsync("https://example.com").block(Duration.ofSeconds(5)))
+                .isInstanceOf(UpstreamServiceException.class)
+                .hasMessageContaining("Failed to contact scanner service")
+                .satisfies(ex -> assertThat(((UpstreamServiceException) ex).getStatus()).isEqualTo(HttpStatus.BAD_GATEWAY));
+    }
+
+    @Test
+    void scanAsync_sendsTheCorrelationIdOfAScanAdmittedOnAnotherThread() throws InterruptedException {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody(scannerBody(1))
+                .setHeadersDelay(300, TimeUnit.MILLISECONDS));
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody(scannerBody(1)));
+        // One slot: the second scan is admitted on the thread that completes the first
+        ScanScheduler scheduler = new ScanScheduler(client(2000), new SimpleMeterRegistry(), 1, 4, 10, 8, 3, 1, 30);
+
+        Mono.zip(
+                scheduler.scan("https://example.com/a", ScanPriority.INTERACTIVE, "a")
+                        .contextWrite(CorrelationIdFilter.context("first-request")),
+                scheduler.scan("https://example.com/b", ScanPriority.INTERACTIVE, "b")
+                        .contextWrite(CorrelationIdFilter.context("second-request")))
+                .block(Duration.ofSeconds(5));
+
+        assertThat(server.takeRequest().getHeader(CorrelationIdFilter.CORRELATION_HEADER)).isEqualTo("first-request");
+        assertThat(server.takeRequest().getHeader(CorrelationIdFilter.CORRELATION_HEADER)).isEqualTo("second-request");
+    }
+}
@@ -0,0 +1,61 @@
+package com.aiaca.api.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.aiaca.api.exception.UpstreamServiceException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+class ScannerIssueStreamDecoderTest {
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private List<ScannerClient.ScannerIssue> decodeInChunks(String json, int chunkSize) {
+        ScannerIssueStreamDecoder decoder = new ScannerIssueStreamDecoder(objectMapper);
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        List<ScannerClient.ScannerIssue> issues = new ArrayList<>();
+        for (int from = 0; from < bytes.length; from += chunkSize) {
+            int to = Math.min(bytes.length, from + chunkSize);
+            byte[] chunk = Arrays.copyOfRange(bytes, from, to);
+            issues.addAll(decoder.decode(DefaultDataBufferFactory.sharedInstance.wrap(chunk)));
+        }
+        issues.addAll(decoder.finish());
+        return issues;
+    }
+
+    @Test
+    void decode_emitsIssuesAcrossChunkBoundaries() {
+        String json = "{\"url\":\"https://example.com\",\"issues\":["
+                + "{\"id\":\"issue-1\",\"type\":\"image-alt\",\"severity\":\"error\",\"selector\":\"img\","
+                + "\"description\":\"Missing alt\",\"nodes\":[{\"html\":\"<img>\"}]},"
+                + "{\"id\":\"issue-2\",\"type\":\"label\",\"severity\":\"warning\",\"selector\":\"input\","
+                + "\"description\":\"Missing label \\u00e9\"}"
+                + "],\"meta\":{\"issueCount\":2,\"issues\":[{\"id\":\"not-an-issue\"}]}}";
+
+        for (int chunkSize : new int[] {1, 7, json.length()}) {
+            List<ScannerClient.ScannerIssue> issues = decodeInChunks(json, chunkSize);
+            assertThat(issues).extracting(ScannerClient.ScannerIssue::id).containsExactly("issue-1", "issue-2");
+            assertThat(issues.get(1).description()).isEqualTo("Missing label \u00e9");
+        }
+    }
+
+    @Test
+    void decode_handlesMissingOrNullIssues() {
+        assertThat(decodeInChunks("{\"url\":\"https://example.com\",\"issues\":null}", 5)).isEmpty();
+        assertThat(decodeInChunks("{\"url\":\"https://example.com\"}", 5)).isEmpty();
+    }
+
+    @Test
+    void finish_rejectsTruncatedResponses() {
+        assertThatThrownBy(() -> decodeInChunks("{\"issues\":[{\"id\":\"issue-1\"}", 4))
+                .isInstanceOf(UpstreamServiceException.class)
+                .hasMessage("Malformed scanner response");
+    }
+}
@@ -0,0 +1,146 @@
+package com.aiaca.api.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.aiaca.api.exception.UpstreamServiceException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class UpstreamGuardTest {
+    private final AtomicLong clock = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UpstreamGuard guard(int initialLimit, int maxLimit) {
+        UpstreamGuard.Settings settings = new UpstreamGuard.Settings(50, 4, 4, Duration.ofSeconds(30), 2,
+                initialLimit, 1, maxLimit, Duration.ofSeconds(1), 0.5);
+        return new UpstreamGuard("scanner", settings, meterRegistry, clock::get);
+    }
+
+    private static Mono<String> failing() {
+        return Mono.error(new UpstreamServiceException("boom", HttpStatus.BAD_GATEWAY));
+    }
+
+    @Test
+    void protect_opensAfterFailureRateAndFailsFast() {
+        UpstreamGuard guard = guard(10, 10);
+        guard.protect(Mono.just("ok")).block();
+        guard.protect(Mono.just("ok")).block();
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> guard.protect(failing()).block()).hasMessage("boom");
+        }
+
+        assertThat(guard.state()).isEqualTo(UpstreamGuard.State.OPEN);
+        assertThatThrownBy(() -> guard.protect(Mono.just("ok")).block())
+                .isInstanceOfSatisfying(UpstreamServiceException.class,
+                        ex -> assertThat(ex.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(meterRegistry.get("api_upstream_rejected_total").tag("reason", "circuit_open").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void protect_closesAfterSuccessfulProbes() {
+        UpstreamGuard guard = guard(10, 10);
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> guard.protect(failing()).block());
+        }
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        assertThat(guard.state()).isEqualTo(UpstreamGuard.State.HALF_OPEN);
+        guard.protect(Mono.just("ok")).block();
+        guard.protect(Mono.just("ok")).block();
+        assertThat(guard.state()).isEqualTo(UpstreamGuard.State.CLOSED);
+    }
+
+    @Test
+    void protect_reopensWhenAProbeFails() {
+        UpstreamGuard guard = guard(10, 10);
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> guard.protect(failing()).block());
+        }
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        assertThatThrownBy(() -> guard.protect(failing()).block()).hasMessage("boom");
+        assertThat(guard.state()).isEqualTo(UpstreamGuard.State.OPEN);
+    }
+
+    @Test
+    void protect_leavesTheBreakerClosedOnClientAndTargetSiteErrors() {
+        UpstreamGuard guard = guard(10, 10);
+        for (int status : new int[] {400, 500, 404, 500, 400, 500}) {
+            assertThatThrownBy(() -> guard.protect(Mono.<String>error(new UpstreamServiceException(
+                    "Scanner service error", HttpStatus.BAD_GATEWAY, status))).block())
+                    .isInstanceOf(UpstreamServiceException.class);
+        }
+
+        assertThat(guard.state()).isEqualTo(UpstreamGuard.State.CLOSED);
+        assertThat(guard.limit()).isEqualTo(10);
+
+        // An overloaded upstream still counts
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> guard.protect(Mono.<String>error(new UpstreamServiceException(
+                    "Scanner service error", HttpStatus.BAD_GATEWAY, 503))).block());
+        }
+        assertThat(guard.state()).isEqualTo(UpstreamGuard.State.OPEN);
+    }
+
+    @Test
+    void protect_rejectsCallsOverTheConcurrencyLimit() {
+        UpstreamGuard guard = guard(1, 4);
+        Sinks.One<String> pending = Sinks.one();
+        guard.protect(pending.asMono()).subscribe();
+
+        assertThatThrownBy(() -> guard.protect(Mono.just("ok")).block())
+                .isInstanceOf(UpstreamServiceException.class);
+        pending.tryEmitValue("done");
+        assertThat(guard.protect(Mono.just("ok")).block()).isEqualTo("ok");
+    }
+
+    @Test
+    void protect_adaptsTheLimitToLatency() {
+        UpstreamGuard guard = guard(4, 8);
+        Sinks.One<String> first = Sinks.one();
+        Sinks.One<String> second = Sinks.one();
+        Sinks.One<String> third = Sinks.one();
+        guard.protect(first.asMono()).subscribe();
+        guard.protect(second.asMono()).subscribe();
+        guard.protect(third.asMono()).subscribe();
+
+        // Fast completion while busy grows the limit
+        first.tryEmitValue("ok");
+        assertThat(guard.limit()).isEqualTo(5);
+
+        // A slow call halves it
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+        second.tryEmitValue("ok");
+        assertThat(guard.limit()).isEqualTo(2);
+        third.tryEmitValue("ok");
+        assertThat(meterRegistry.get("api_upstream_concurrency_limit").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void protect_judgesStreamsByTimeToFirstElementNotByHowLongTheyAreConsumed() {
+        UpstreamGuard guard = guard(4, 8);
+        Sinks.Many<String> slowlyConsumed = Sinks.many().unicast().onBackpressureBuffer();
+        guard.protect(slowlyConsumed.asFlux()).subscribe();
+
+        slowlyConsumed.tryEmitNext("first batch");
+        // The consumer takes far longer than the latency threshold to work through the rest
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        slowlyConsumed.tryEmitNext("second batch");
+        slowlyConsumed.tryEmitComplete();
+        assertThat(guard.limit()).isEqualTo(4);
+
+        Sinks.Many<String> slowToStart = Sinks.many().unicast().onBackpressureBuffer();
+        guard.protect(slowToStart.asFlux()).subscribe();
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+        slowToStart.tryEmitNext("first batch");
+        slowToStart.tryEmitComplete();
+        assertThat(guard.limit()).isEqualTo(2);
+    }
+}
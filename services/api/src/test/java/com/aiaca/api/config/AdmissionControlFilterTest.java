@@ -0,0 +1,62 @@
+package com.aiaca.api.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class AdmissionControlFilterTest {
+    private final AdmissionControlFilter filter = new AdmissionControlFilter(new SimpleMeterRegistry(), true, 7,
+            1, 2000, 1, 500, 1, 2000, 1, 1000);
+
+    @Test
+    void classify_mapsRoutesToClasses() {
+        assertThat(AdmissionControlFilter.classify(new MockHttpServletRequest("POST", "/api/v1/sites/abc/scans")))
+                .isEqualTo(AdmissionControlFilter.RouteClass.SCAN_CREATE);
+        assertThat(AdmissionControlFilter.classify(new MockHttpServletRequest("POST", "/api/v1/sites/abc/scans/crawl")))
+                .isEqualTo(AdmissionControlFilter.RouteClass.SCAN_CREATE);
+        assertThat(AdmissionControlFilter.classify(new MockHttpServletRequest("POST", "/api/v1/public/scans")))
+                .isEqualTo(AdmissionControlFilter.RouteClass.SCAN_CREATE);
+        assertThat(AdmissionControlFilter.classify(new MockHttpServletRequest("GET", "/api/v1/sites/abc/scans")))
+                .isEqualTo(AdmissionControlFilter.RouteClass.READ);
+        assertThat(AdmissionControlFilter.classify(new MockHttpServletRequest("GET", "/api/v1/billing/invoices")))
+                .isEqualTo(AdmissionControlFilter.RouteClass.BILLING);
+        assertThat(AdmissionControlFilter.classify(new MockHttpServletRequest("POST", "/api/v1/webhooks/stripe")))
+                .isEqualTo(AdmissionControlFilter.RouteClass.WEBHOOK);
+        assertThat(AdmissionControlFilter.classify(new MockHttpServletRequest("POST", "/api/v1/auth/login")))
+                .isEqualTo(AdmissionControlFilter.RouteClass.OTHER);
+    }
+
+    @Test
+    void doFilter_shedsOverTheLimitUntilTheAsyncRequestCompletes() throws Exception {
+        MockHttpServletRequest pending = new MockHttpServletRequest("POST", "/api/v1/public/scans");
+        pending.setAsyncSupported(true);
+        filter.doFilter(pending, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/sites/abc/scans"), shed, new MockFilterChain());
+        assertThat(shed.getStatus()).isEqualTo(503);
+        assertThat(shed.getHeader("Retry-After")).isEqualTo("7");
+
+        pending.getAsyncContext().complete();
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/sites/abc/scans"), admitted, new MockFilterChain());
+        assertThat(admitted.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void doFilter_neverShedsWebhooksOrProbes() throws Exception {
+        for (String path : new String[] {"/api/v1/webhooks/stripe", "/health/readiness"}) {
+            for (int i = 0; i < 3; i++) {
+                MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+                request.setAsyncSupported(true);
+                MockHttpServletResponse response = new MockHttpServletResponse();
+                filter.doFilter(request, response, (req, res) -> req.startAsync());
+                assertThat(response.getStatus()).isEqualTo(200);
+            }
+        }
+    }
+}
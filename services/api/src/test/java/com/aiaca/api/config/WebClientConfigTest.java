@@ -0,0 +1,104 @@
+package com.aiaca.api.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+
+/**
+ * Both upstreams point at one server, so the only thing keeping them apart is their named pool.
+ */
+class WebClientConfigTest {
+    private final CountDownLatch releaseSuggestions = new CountDownLatch(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MockWebServer server;
+    private WebClientConfig config;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                if ("/suggest".equals(request.getPath())) {
+                    // Holds the orchestrator connection until the test is done
+                    releaseSuggestions.await(10, TimeUnit.SECONDS);
+                }
+                return new MockResponse().setBody("ok");
+            }
+        });
+        server.start();
+        // Pool gauges go to the global registry, which only reports values once it has a backing registry
+        Metrics.addRegistry(meterRegistry);
+        config = new WebClientConfig(8000, 4000, 300000);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        releaseSuggestions.countDown();
+        config.disposePools();
+        Metrics.removeRegistry(meterRegistry);
+        server.shutdown();
+    }
+
+    private String get(WebClient client, String path) {
+        return client.get().uri(server.url(path).toString()).retrieve().bodyToMono(String.class)
+                .block(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void anExhaustedOrchestratorPoolDoesNotHoldUpScannerCalls() throws InterruptedException {
+        WebClient aiOrchestrator = config.aiOrchestratorWebClient(1, 4, 200, "http1");
+        WebClient scanner = config.scannerWebClient(2, 8, 2000, "http1");
+
+        Disposable slow = aiOrchestrator.get().uri(server.url("/suggest").toString()).retrieve()
+                .bodyToMono(String.class).subscribe();
+        try {
+            assertThat(server.takeRequest(5, TimeUnit.SECONDS)).isNotNull();
+
+            assertThatThrownBy(() -> get(aiOrchestrator, "/suggest"))
+                    .rootCause()
+                    .hasMessageContaining("pending for more than the configured timeout of 200ms");
+
+            assertThat(get(scanner, "/scan")).isEqualTo("ok");
+        } finally {
+            slow.dispose();
+        }
+    }
+
+    @Test
+    void poolsPublishGaugesUnderTheirOwnName() {
+        get(config.scannerWebClient(2, 8, 2000, "http1"), "/scan");
+        get(config.aiOrchestratorWebClient(3, 4, 2000, "http1"), "/health");
+
+        assertThat(maxConnections("scanner")).isEqualTo(2.0);
+        assertThat(maxConnections("ai_orchestrator")).isEqualTo(3.0);
+        assertThat(meterRegistry.find("reactor.netty.connection.provider.active.connections")
+                .tag("name", "ai_orchestrator").gauges()).isNotEmpty();
+    }
+
+    private double maxConnections(String pool) {
+        return meterRegistry.find("reactor.netty.connection.provider.max.connections")
+                .tag("name", pool)
+                .gauges().stream()
+                .filter(gauge -> gauge.getId().getTag("remote.address").endsWith(":" + server.getPort()))
+                .mapToDouble(Gauge::value)
+                .findFirst()
+                .orElse(Double.NaN);
+    }
+}
@@ -0,0 +1,139 @@
+package com.aiaca.api.jobs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.aiaca.api.client.ScannerClient;
+import com.aiaca.api.model.Scan;
+import com.aiaca.api.model.ScanStatus;
+import com.aiaca.api.model.Site;
+import com.aiaca.api.model.User;
+import com.aiaca.api.repository.ScanRepository;
+import com.aiaca.api.repository.SiteRepository;
+import com.aiaca.api.repository.UserRepository;
+import com.aiaca.api.service.CrawlScanRunner;
+import com.aiaca.api.service.ScanJobRunner;
+import com.aiaca.api.service.ScanService;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+/**
+ * The runners are mocked, so each test drives the scan through its states by hand and backdates the timestamps
+ * the job looks at.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class StaleScanJobTest {
+    private static final String PAGE_URL = "https://example.com/checkout";
+
+    @MockitoBean
+    private ScanJobRunner scanJobRunner;
+
+    @MockitoBean
+    private CrawlScanRunner crawlScanRunner;
+
+    @Autowired
+    private StaleScanJob staleScanJob;
+
+    @Autowired
+    private ScanService scanService;
+
+    @Autowired
+    private ScanRepository scanRepository;
+
+    @Autowired
+    private SiteRepository siteRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Site site;
+
+    @BeforeEach
+    void createSite() {
+        User owner = new User();
+        owner.setEmail("stale-" + UUID.randomUUID() + "@example.com");
+        owner.setPasswordHash("hash");
+        owner = userRepository.save(owner);
+        Site newSite = new Site();
+        newSite.setName("Stale Site");
+        newSite.setUrl("https://example.com");
+        newSite.setOwner(owner);
+        site = siteRepository.save(newSite);
+    }
+
+    private void backdate(UUID scanId, String column, int minutes) {
+        jdbcTemplate.update("UPDATE scans SET " + column + " = ? WHERE id = ?",
+                LocalDateTime.now().minusMinutes(minutes), scanId);
+    }
+
+    private Scan reload(UUID scanId) {
+        return scanRepository.findById(scanId).orElseThrow();
+    }
+
+    @Test
+    void aScanThatQueuedLongButStartedRecentlyIsNotStale() {
+        UUID scanId = scanService.createScan(site, PAGE_URL).getId();
+        backdate(scanId, "created_at", 60);
+        scanService.markRunning(scanId);
+
+        staleScanJob.failStaleScans();
+
+        assertThat(reload(scanId).getStatus()).isEqualTo(ScanStatus.RUNNING);
+        assertThat(reload(scanId).getActiveScanKey()).isNotNull();
+        assertThat(scanService.createScan(site, PAGE_URL).getId()).isEqualTo(scanId);
+    }
+
+    @Test
+    void aScanRunningPastTheTimeoutIsFailedAndItsLateResultDropped() {
+        UUID scanId = scanService.createScan(site, PAGE_URL).getId();
+        scanService.markRunning(scanId);
+        backdate(scanId, "created_at", 60);
+        backdate(scanId, "started_at", 60);
+
+        staleScanJob.failStaleScans();
+        scanService.completeScan(scanId, new ScannerClient.ScannerResponse(PAGE_URL, List.of(
+                new ScannerClient.ScannerIssue("a", "image-alt", "error", "img.a", "Missing alt", null)), null),
+                Map.of());
+
+        Scan scan = reload(scanId);
+        assertThat(scan.getStatus()).isEqualTo(ScanStatus.FAILED);
+        assertThat(scan.getActiveScanKey()).isNull();
+        assertThat(scan.getIssueCount()).isZero();
+        assertThat(scanService.getById(scanId).getIssues()).isEmpty();
+    }
+
+    @Test
+    void aScanFailedWhileQueuedCannotStartRunning() {
+        UUID scanId = scanService.createScan(site, PAGE_URL).getId();
+        backdate(scanId, "created_at", 60);
+
+        staleScanJob.failStaleScans();
+
+        assertThat(reload(scanId).getStatus()).isEqualTo(ScanStatus.FAILED);
+        assertThatThrownBy(() -> scanService.markRunning(scanId)).isInstanceOf(IllegalStateException.class);
+        assertThat(reload(scanId).getStatus()).isEqualTo(ScanStatus.FAILED);
+    }
+
+    @Test
+    void markFailedLeavesACompletedScanAlone() {
+        UUID scanId = scanService.createScan(site, PAGE_URL).getId();
+        scanService.markRunning(scanId);
+        scanService.completeScan(scanId, new ScannerClient.ScannerResponse(PAGE_URL, List.of(), null), Map.of());
+
+        assertThat(scanService.markFailed(scanId)).isFalse();
+        assertThat(reload(scanId).getStatus()).isEqualTo(ScanStatus.COMPLETED);
+    }
+}
@@ -0,0 +1,90 @@
+package com.aiaca.api.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Runs the {@code ON CONFLICT ... RETURNING} upsert against a real PostgreSQL; H2 only ever takes the
+ * update-then-insert path.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RateLimitWindowStorePostgresTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final long WINDOW_START = 1_700_000_000_000L;
+
+    private RateLimitWindowStore store;
+    private JdbcTemplate jdbcTemplate;
+    private String key;
+
+    @BeforeEach
+    void createStore() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        if (jdbcTemplate.queryForObject("SELECT to_regclass('rate_limit_windows') IS NULL", Boolean.class)) {
+            new ResourceDatabasePopulator(new ClassPathResource("db/migration/V13__rate_limit_windows.sql")).execute(dataSource);
+        }
+        store = new RateLimitWindowStore(jdbcTemplate, new DataSourceTransactionManager(dataSource));
+        key = "203.0.113." + UUID.randomUUID();
+    }
+
+    @Test
+    void claim_grantsWholeChunksThenTheRemainderThenNothing() {
+        assertThat(store.claim("public_scan", key, WINDOW_START, 4, 10)).isEqualTo(4);
+        assertThat(store.claim("public_scan", key, WINDOW_START, 4, 10)).isEqualTo(4);
+        assertThat(store.claim("public_scan", key, WINDOW_START, 4, 10)).isEqualTo(2);
+        assertThat(store.claim("public_scan", key, WINDOW_START, 4, 10)).isZero();
+        assertThat(store.claim("public_scan", key, WINDOW_START, 1, 10)).isZero();
+
+        // An exhausted window stops counting rather than growing with every rejected claim
+        assertThat(jdbcTemplate.queryForObject("SELECT used FROM rate_limit_windows "
+                + "WHERE policy = ? AND bucket_key = ? AND window_start = ?", Integer.class,
+                "public_scan", key, WINDOW_START)).isEqualTo(12);
+    }
+
+    @Test
+    void claim_countsWindowsAndPoliciesSeparately() {
+        assertThat(store.claim("public_scan", key, WINDOW_START, 5, 5)).isEqualTo(5);
+        assertThat(store.claim("public_scan", key, WINDOW_START, 1, 5)).isZero();
+
+        assertThat(store.claim("public_scan", key, WINDOW_START + 60_000, 5, 5)).isEqualTo(5);
+        assertThat(store.claim("auth", key, WINDOW_START, 5, 5)).isEqualTo(5);
+    }
+
+    @Test
+    void claim_neverGrantsMoreThanTheLimitToConcurrentClaims() {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<Integer>> claims = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                claims.add(CompletableFuture.supplyAsync(
+                        () -> store.claim("public_scan", key, WINDOW_START, 3, 50), executor));
+            }
+
+            int granted = claims.stream().mapToInt(CompletableFuture::join).sum();
+
+            assertThat(granted).isEqualTo(50);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.aiaca.api.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.aiaca.api.model.AiSuggestion;
+import com.aiaca.api.model.IssueSeverity;
+import com.aiaca.api.model.Scan;
+import com.aiaca.api.model.ScanIssue;
+import com.aiaca.api.model.ScanStatus;
+import com.aiaca.api.model.Site;
+import com.aiaca.api.model.User;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * H2 is not a {@code PGConnection}, so these runs exercise the JDBC batch path rather than COPY.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ScanIssueBulkWriter.class)
+class ScanIssueBulkWriterTest {
+
+    @Autowired
+    private ScanIssueBulkWriter writer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SiteRepository siteRepository;
+
+    @Autowired
+    private ScanRepository scanRepository;
+
+    @Autowired
+    private ScanIssueRepository scanIssueRepository;
+
+    @Autowired
+    private AiSuggestionRepository aiSuggestionRepository;
+
+    private UUID scanId;
+
+    @BeforeEach
+    void createScan() {
+        User owner = new User();
+        owner.setEmail("bulk-" + UUID.randomUUID() + "@example.com");
+        owner.setPasswordHash("hash");
+        owner = userRepository.save(owner);
+        Site site = new Site();
+        site.setName("Bulk Site");
+        site.setUrl("https://example.com");
+        site.setOwner(owner);
+        site = siteRepository.save(site);
+        Scan scan = new Scan();
+        scan.setSite(site);
+        scan.setPageUrl("https://example.com/");
+        scan.setStatus(ScanStatus.RUNNING);
+        scanId = scanRepository.saveAndFlush(scan).getId();
+    }
+
+    private static ScanIssue issue(String selector, String suggestion) {
+        ScanIssue issue = new ScanIssue();
+        issue.setType("image-alt");
+        issue.setSeverity(IssueSeverity.ERROR);
+        issue.setDescription("Images must have alternate text");
+        issue.setSelector(selector);
+        issue.setSuggestion(suggestion);
+        issue.setPageUrl("https://example.com/");
+        return issue;
+    }
+
+    private static AiSuggestion suggestion(ScanIssue issue, String text, LocalDateTime createdAt) {
+        AiSuggestion suggestion = new AiSuggestion();
+        suggestion.setScanIssue(issue);
+        suggestion.setSuggestion(text);
+        suggestion.setCreatedAt(createdAt);
+        issue.getAiSuggestions().add(suggestion);
+        return suggestion;
+    }
+
+    @Test
+    void insert_assignsIdsAndWritesIssuesWithTheirSuggestions() {
+        ScanIssue hero = issue("img.hero", "Team photo");
+        ScanIssue logo = issue("img.logo", null);
+        AiSuggestion heroFix = suggestion(hero, "Team photo", LocalDateTime.of(2026, 3, 1, 12, 0));
+
+        writer.insert(scanId, List.of(hero, logo));
+
+        assertThat(hero.getId()).isNotNull();
+        assertThat(logo.getId()).isNotNull();
+        assertThat(heroFix.getId()).isNotNull();
+        entityManager.clear();
+        assertThat(scanIssueRepository.findAllById(List.of(hero.getId(), logo.getId())))
+                .extracting(ScanIssue::getSelector, ScanIssue::getSuggestion)
+                .containsExactlyInAnyOrder(
+                        tuple("img.hero", "Team photo"),
+                        tuple("img.logo", null));
+        assertThat(aiSuggestionRepository.findById(heroFix.getId())).get()
+                .extracting(stored -> stored.getScanIssue().getId()).isEqualTo(hero.getId());
+    }
+
+    @Test
+    void insert_storesSuggestionTimesTheWayJpaDoes() {
+        TimeZone original = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+        try {
+            LocalDateTime createdAt = LocalDateTime.of(2026, 3, 1, 12, 0);
+            ScanIssue hero = issue("img.hero", null);
+            AiSuggestion heroFix = suggestion(hero, "Team photo", createdAt);
+
+            writer.insert(scanId, List.of(hero));
+
+            // hibernate.jdbc.time_zone=UTC: the column holds UTC wall-clock time, JPA reads it back as local time
+            LocalDateTime stored = jdbcTemplate.queryForObject("SELECT created_at FROM ai_suggestions WHERE id = ?",
+                    LocalDateTime.class, heroFix.getId());
+            assertThat(stored).isEqualTo(LocalDateTime.of(2026, 3, 1, 17, 0));
+            entityManager.clear();
+            assertThat(aiSuggestionRepository.findById(heroFix.getId())).get()
+                    .extracting(AiSuggestion::getCreatedAt).isEqualTo(createdAt);
+        } finally {
+            TimeZone.setDefault(original);
+        }
+    }
+
+    @Test
+    void insertSuggestions_fillsTheIssueSuggestionOnlyWhereItIsMissing() {
+        ScanIssue withoutSuggestion = issue("img.hero", null);
+        ScanIssue withSuggestion = issue("img.logo", "Company logo");
+        writer.insert(scanId, List.of(withoutSuggestion, withSuggestion));
+
+        LocalDateTime now = LocalDateTime.now();
+        writer.insertSuggestions(List.of(
+                suggestion(withoutSuggestion, "Team photo", now),
+                suggestion(withoutSuggestion, "Our team", now),
+                suggestion(withSuggestion, "Logo", now)));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT suggestion FROM scan_issues WHERE id = ?", String.class,
+                withoutSuggestion.getId())).isEqualTo("Team photo");
+        assertThat(jdbcTemplate.queryForObject("SELECT suggestion FROM scan_issues WHERE id = ?", String.class,
+                withSuggestion.getId())).isEqualTo("Company logo");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ai_suggestions WHERE scan_issue_id IN (?, ?)",
+                Integer.class, withoutSuggestion.getId(), withSuggestion.getId())).isEqualTo(3);
+    }
+}
@@ -0,0 +1,36 @@
+package com.aiaca.api.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    private static String digest(String value) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void mightContain_hasNoFalseNegativesAndAboutTheConfiguredFalsePositiveRate() throws NoSuchAlgorithmException {
+        BloomFilter bloom = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            bloom.put(digest("revoked-" + i));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(bloom.mightContain(digest("revoked-" + i))).isTrue();
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (bloom.mightContain(digest("live-" + i))) {
+                falsePositives++;
+            }
+        }
+        // 1% expected; leave room for variance without letting a broken hash scheme through
+        assertThat(falsePositives).isLessThan(300);
+    }
+}
@@ -0,0 +1,142 @@
+package com.aiaca.api.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.aiaca.api.model.RevokedEmbedKey;
+import com.aiaca.api.model.Site;
+import com.aiaca.api.repository.RevokedEmbedKeyRepository;
+import com.aiaca.api.repository.SiteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class EmbedKeyVerifierTest {
+    private static final String KEY = "embed-key-a";
+    private static final UUID SITE_ID = UUID.randomUUID();
+
+    private final SiteRepository siteRepository = mock(SiteRepository.class);
+    private final RevokedEmbedKeyRepository revokedKeyRepository = mock(RevokedEmbedKeyRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private EmbedKeyVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        Site site = new Site();
+        site.setId(SITE_ID);
+        site.setEmbedKey(KEY);
+        when(siteRepository.findByEmbedKey(KEY)).thenReturn(Optional.of(site));
+        when(siteRepository.findByEmbedKey("unknown")).thenReturn(Optional.empty());
+        verifier = new EmbedKeyVerifier(siteRepository, revokedKeyRepository, jdbcTemplate, new SimpleMeterRegistry(),
+                60, 10, 1000, 30);
+    }
+
+    @Test
+    void verify_acceptsOnlyTheKeyOfTheRequestedSite() {
+        assertThat(verifier.verify(SITE_ID, KEY)).isTrue();
+        assertThat(verifier.verify(UUID.randomUUID(), KEY)).isFalse();
+        assertThat(verifier.verify(SITE_ID, "unknown")).isFalse();
+        assertThat(verifier.verify(SITE_ID, " ")).isFalse();
+        assertThat(verifier.verify(SITE_ID, null)).isFalse();
+
+        assertThat(verifier.verify(SITE_ID, KEY)).isTrue();
+        verify(siteRepository, times(1)).findByEmbedKey(KEY);
+    }
+
+    @Test
+    void verify_remembersUnknownKeys() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(verifier.verify(SITE_ID, "unknown")).isFalse();
+        }
+
+        verify(siteRepository, times(1)).findByEmbedKey("unknown");
+    }
+
+    @Test
+    void revoke_dropsTheKeyHereAndRecordsItForOtherNodes() {
+        assertThat(verifier.verify(SITE_ID, KEY)).isTrue();
+        when(siteRepository.findByEmbedKey(KEY)).thenReturn(Optional.empty());
+
+        verifier.revoke(KEY);
+
+        assertThat(verifier.verify(SITE_ID, KEY)).isFalse();
+        ArgumentCaptor<RevokedEmbedKey> saved = ArgumentCaptor.forClass(RevokedEmbedKey.class);
+        verify(revokedKeyRepository).saveAndFlush(saved.capture());
+        assertThat(saved.getValue().getKeyDigest()).isEqualTo(sha256(KEY));
+    }
+
+    @Test
+    void syncRevocations_dropsKeysRevokedOnAnotherNode() {
+        assertThat(verifier.verify(SITE_ID, KEY)).isTrue();
+        when(siteRepository.findByEmbedKey(KEY)).thenReturn(Optional.empty());
+        RevokedEmbedKey revoked = new RevokedEmbedKey();
+        revoked.setKeyDigest(sha256(KEY));
+        revoked.setRevokedAt(LocalDateTime.now());
+        when(revokedKeyRepository.findRevokedSince(any())).thenReturn(List.of(revoked));
+
+        assertThat(verifier.verify(SITE_ID, KEY)).isTrue();
+        verifier.syncRevocations();
+
+        assertThat(verifier.verify(SITE_ID, KEY)).isFalse();
+        verify(revokedKeyRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void flushUsage_writesOneRowPerSiteWithTheCoalescedCount() {
+        UUID otherSiteId = UUID.randomUUID();
+        Site other = new Site();
+        other.setId(otherSiteId);
+        when(siteRepository.findByEmbedKey("embed-key-b")).thenReturn(Optional.of(other));
+        for (int i = 0; i < 3; i++) {
+            verifier.verify(SITE_ID, KEY);
+        }
+        verifier.verify(otherSiteId, "embed-key-b");
+        verifier.verify(SITE_ID, "unknown");
+
+        verifier.flushUsage();
+        verifier.flushUsage();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), rows.capture());
+        Map<Object, Object> countsBySite = rows.getValue().stream()
+                .collect(Collectors.toMap(row -> row[3], row -> row[2]));
+        assertThat(countsBySite).containsExactlyInAnyOrderEntriesOf(Map.of(SITE_ID, 3L, otherSiteId, 1L));
+    }
+
+    @Test
+    void flushUsage_skipsTheDatabaseWhenNothingWasVerified() {
+        verifier.verify(SITE_ID, "unknown");
+
+        verifier.flushUsage();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.aiaca.api.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.aiaca.api.model.RevokedToken;
+import com.aiaca.api.model.User;
+import com.aiaca.api.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+class JwtAuthenticationFilterTest {
+    private final RevokedTokenRepository revokedTokenRepository = mock(RevokedTokenRepository.class);
+    private final UserCache userCache = mock(UserCache.class);
+    private final JwtService jwtService = new JwtService("filter-test-secret-value-with-enough-entropy-0123456789",
+            3_600_000, new SimpleMeterRegistry(), true, 100);
+    private final TokenBlacklist tokenBlacklist = new TokenBlacklist(revokedTokenRepository, new SimpleMeterRegistry(),
+            1000, 0.01, 30);
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, userCache, tokenBlacklist);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private boolean authenticates(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/sites");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication() != null;
+    }
+
+    @Test
+    void doFilter_rejectsARevokedTokenWhoseClaimsAreStillCached() throws Exception {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("cached@example.com");
+        when(userCache.get(user.getId())).thenReturn(Optional.of(user));
+        String token = jwtService.generateToken(user);
+
+        assertThat(authenticates(token)).isTrue();
+        Claims cached = jwtService.parseClaims(token);
+
+        // Revoked on another node: this node's claims cache is not evicted, only its blacklist learns about it
+        RevokedToken revoked = new RevokedToken();
+        revoked.setExpiresAt(LocalDateTime.now().plusHours(1));
+        revoked.setRevokedAt(LocalDateTime.now());
+        when(revokedTokenRepository.existsById(anyString())).thenReturn(false);
+        when(revokedTokenRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(revokedTokenRepository.findById(anyString())).thenReturn(Optional.of(revoked));
+        tokenBlacklist.blacklist(token, jwtService.extractExpiration(token));
+
+        assertThat(jwtService.parseClaims(token)).isSameAs(cached);
+        assertThat(authenticates(token)).isFalse();
+    }
+}
@@ -0,0 +1,91 @@
+package com.aiaca.api.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.aiaca.api.model.User;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class JwtServiceTest {
+    private static final String SECRET = "jwt-service-test-secret-with-enough-entropy-0123456789";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JwtService jwtService = new JwtService(SECRET, 3_600_000, meterRegistry, true, 100);
+
+    private static User user() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("jwt@example.com");
+        return user;
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "jwt_claims").tag("result", result)
+                .functionCounter().count();
+    }
+
+    @Test
+    void parseClaims_servesRepeatCallsFromTheCache() {
+        User user = user();
+        String token = jwtService.generateToken(user);
+
+        assertThat(jwtService.extractUserId(token)).isEqualTo(user.getId());
+        assertThat(jwtService.extractUserId(token)).isEqualTo(user.getId());
+
+        assertThat(cacheGets("miss")).isEqualTo(1);
+        assertThat(cacheGets("hit")).isEqualTo(1);
+    }
+
+    @Test
+    void parseClaims_neverServesATokenFromTheCachePastItsExpiry() throws InterruptedException {
+        // exp has second precision, so this token expires between 0.5 and 1.5 seconds from now
+        String token = Jwts.builder()
+                .subject(UUID.randomUUID().toString())
+                .expiration(new Date(System.currentTimeMillis() + 1500))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        jwtService.parseClaims(token);
+        jwtService.parseClaims(token);
+        assertThat(cacheGets("hit")).isEqualTo(1);
+
+        Thread.sleep(2000);
+
+        // The entry expired with the token, so this call verifies again and sees the expiry
+        assertThatThrownBy(() -> jwtService.parseClaims(token)).isInstanceOf(ExpiredJwtException.class);
+        assertThat(cacheGets("miss")).isEqualTo(2);
+    }
+
+    @Test
+    void parseClaims_doesNotCacheInvalidTokens() {
+        String forged = Jwts.builder()
+                .subject(UUID.randomUUID().toString())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor("some-other-secret-with-enough-entropy-0123456789".getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> jwtService.parseClaims(forged)).isInstanceOf(JwtException.class);
+        }
+        assertThat(cacheGets("hit")).isZero();
+    }
+
+    @Test
+    void evict_dropsTheCachedClaims() {
+        String token = jwtService.generateToken(user());
+        jwtService.parseClaims(token);
+
+        jwtService.evict(token);
+        jwtService.parseClaims(token);
+
+        assertThat(cacheGets("miss")).isEqualTo(2);
+        assertThat(cacheGets("hit")).isZero();
+    }
+}
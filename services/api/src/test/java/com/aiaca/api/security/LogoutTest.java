@@ -0,0 +1,53 @@
+package com.aiaca.api.security;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.aiaca.api.model.User;
+import com.aiaca.api.model.billing.enums.SubscriptionStatus;
+import com.aiaca.api.repository.UserRepository;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LogoutTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Test
+    void logout_rejectsATokenWhoseClaimsWereCached() throws Exception {
+        User user = new User();
+        user.setEmail("logout-" + UUID.randomUUID() + "@example.com");
+        user.setPasswordHash("hash");
+        user.setSubscriptionStatus(SubscriptionStatus.ACTIVE);
+        user = userRepository.save(user);
+        String authorization = "Bearer " + jwtService.generateToken(user);
+
+        // Twice, so the second request is authenticated from the claims cache
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/v1/scans").header(HttpHeaders.AUTHORIZATION, authorization))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(post("/api/v1/auth/logout").header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/v1/scans").header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,124 @@
+package com.aiaca.api.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.aiaca.api.model.RevokedToken;
+import com.aiaca.api.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Each {@link TokenBlacklist} instance stands in for one API node; all of them share the test database.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TokenBlacklistTest {
+
+    @Autowired
+    private RevokedTokenRepository repository;
+
+    private TokenBlacklist node(MeterRegistry meterRegistry) {
+        TokenBlacklist node = new TokenBlacklist(repository, meterRegistry, 1000, 0.01, 30);
+        node.load();
+        return node;
+    }
+
+    private static Date inHours(int hours) {
+        return new Date(System.currentTimeMillis() + hours * 3_600_000L);
+    }
+
+    private static String digest(String token) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private void insertRevocation(String token, LocalDateTime revokedAt) throws NoSuchAlgorithmException {
+        RevokedToken revoked = new RevokedToken();
+        revoked.setTokenDigest(digest(token));
+        revoked.setRevokedAt(revokedAt);
+        revoked.setExpiresAt(LocalDateTime.now().plusHours(1));
+        repository.saveAndFlush(revoked);
+    }
+
+    @Test
+    void isBlacklisted_skipsTheDatabaseOnBloomNegativesAndConfirmsHits() {
+        node(new SimpleMeterRegistry()).blacklist("revoked-token", inHours(1));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // A fresh node only knows the revocation from its Bloom filter, so the hit is confirmed against the table
+        TokenBlacklist node = node(meterRegistry);
+
+        assertThat(node.isBlacklisted("live-token")).isFalse();
+        assertThat(node.isBlacklisted("revoked-token")).isTrue();
+        assertThat(meterRegistry.get("api_token_revocation_checks_total").tag("result", "bloom_negative").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("api_token_revocation_checks_total").tag("result", "revoked").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void sync_propagatesRevocationsToOtherNodesIncludingLateCommitsInsideTheOverlap() throws NoSuchAlgorithmException {
+        TokenBlacklist nodeA = node(new SimpleMeterRegistry());
+        TokenBlacklist nodeB = node(new SimpleMeterRegistry());
+
+        nodeA.blacklist("logged-out-on-a", inHours(1));
+        assertThat(nodeB.isBlacklisted("logged-out-on-a")).isFalse();
+        nodeB.sync();
+        assertThat(nodeB.isBlacklisted("logged-out-on-a")).isTrue();
+
+        // Revoked before B's high-water mark but committed after B's last sync
+        insertRevocation("late-commit", LocalDateTime.now().minusSeconds(10));
+        nodeB.sync();
+        assertThat(nodeB.isBlacklisted("late-commit")).isTrue();
+
+        // Older than the overlap: missed by sync, picked up by the next rebuild
+        insertRevocation("very-late-commit", LocalDateTime.now().minusMinutes(5));
+        nodeB.sync();
+        assertThat(nodeB.isBlacklisted("very-late-commit")).isFalse();
+        nodeB.purgeExpired();
+        assertThat(nodeB.isBlacklisted("very-late-commit")).isTrue();
+    }
+
+    @Test
+    void purgeExpired_dropsExpiredRevocationsAndKeepsLiveOnes() throws NoSuchAlgorithmException {
+        TokenBlacklist node = node(new SimpleMeterRegistry());
+        node.blacklist("expired-token", new Date(System.currentTimeMillis() - 60_000));
+        node.blacklist("live-token", inHours(1));
+
+        node.purgeExpired();
+
+        assertThat(repository.findAll()).extracting(RevokedToken::getTokenDigest).containsExactly(digest("live-token"));
+        assertThat(node.isBlacklisted("live-token")).isTrue();
+        assertThat(node.isBlacklisted("expired-token")).isFalse();
+    }
+
+    @Test
+    void migration_createsTheTableTheEntityMaps() throws NoSuchAlgorithmException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:revoked-tokens-" + UUID.randomUUID() + ";MODE=PostgreSQL;DATABASE_TO_UPPER=false", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V12__revoked_tokens.sql")).execute(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.update("INSERT INTO revoked_tokens (token_digest, expires_at, revoked_at) VALUES (?, ?, ?)",
+                digest("token"), LocalDateTime.now().plusHours(1), LocalDateTime.now());
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM revoked_tokens WHERE expires_at > ? AND revoked_at <= ?", Integer.class,
+                LocalDateTime.now(), LocalDateTime.now())).isEqualTo(1);
+    }
+}
@@ -0,0 +1,99 @@
+package com.aiaca.api.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.aiaca.api.model.User;
+import com.aiaca.api.model.billing.enums.SubscriptionStatus;
+import com.aiaca.api.repository.UserRepository;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserCacheTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        User newUser = new User();
+        newUser.setEmail("cache-" + UUID.randomUUID() + "@example.com");
+        newUser.setPasswordHash("hash");
+        user = userRepository.save(newUser);
+    }
+
+    // What the webhook and billing handlers do: load, change, save and evict inside their transaction
+    private void activateSubscription(Runnable beforeCommit) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User stored = userRepository.findById(user.getId()).orElseThrow();
+            stored.setSubscriptionStatus(SubscriptionStatus.ACTIVE);
+            userRepository.save(stored);
+            userCache.evict(stored.getId());
+            beforeCommit.run();
+        });
+    }
+
+    @Test
+    void evict_invalidatesAgainAfterCommitWhatARacingReadCachedMeanwhile() {
+        assertThat(userCache.require(user.getId()).getSubscriptionStatus()).isEqualTo(SubscriptionStatus.NONE);
+
+        activateSubscription(() -> {
+            // Another request between the evict and the commit still sees, and re-caches, the old row
+            User racing = CompletableFuture.supplyAsync(() -> userCache.require(user.getId())).join();
+            assertThat(racing.getSubscriptionStatus()).isEqualTo(SubscriptionStatus.NONE);
+        });
+
+        assertThat(userCache.require(user.getId()).getSubscriptionStatus()).isEqualTo(SubscriptionStatus.ACTIVE);
+    }
+
+    @Test
+    void evict_outsideATransactionInvalidatesImmediately() {
+        userCache.require(user.getId());
+        User stored = userRepository.findById(user.getId()).orElseThrow();
+        stored.setSubscriptionStatus(SubscriptionStatus.ACTIVE);
+        userRepository.save(stored);
+
+        assertThat(userCache.require(user.getId()).getSubscriptionStatus()).isEqualTo(SubscriptionStatus.NONE);
+        userCache.evict(user.getId());
+        assertThat(userCache.require(user.getId()).getSubscriptionStatus()).isEqualTo(SubscriptionStatus.ACTIVE);
+    }
+
+    @Test
+    void aBillingUpdateIsVisibleToTheNextAuthenticatedRequest() throws Exception {
+        String token = "Bearer " + jwtService.generateToken(user);
+        mockMvc.perform(get("/api/v1/scans").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isPaymentRequired());
+
+        activateSubscription(() -> { });
+
+        mockMvc.perform(get("/api/v1/scans").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,84 @@
+package com.aiaca.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.aiaca.api.client.AiOrchestratorClient;
+import com.aiaca.api.client.ScannerClient;
+import com.aiaca.api.exception.UpstreamServiceException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+
+class AiSuggestionServiceTest {
+    private static final String URL = "https://example.com";
+
+    @Test
+    void chunk_splitsByIssueCountAndTokenBudget() {
+        List<AiOrchestratorClient.IssueContext> contexts = IntStream.range(0, 5)
+                .mapToObj(i -> context("issue-" + i, "x".repeat(400)))
+                .toList();
+
+        assertThat(AiSuggestionService.chunk(contexts, 2, 10_000)).extracting(List::size).containsExactly(2, 2, 1);
+        // Each issue is ~125 tokens, so a 300-token budget fits two per chunk
+        assertThat(AiSuggestionService.chunk(contexts, 25, 300)).extracting(List::size).containsExactly(2, 2, 1);
+        // A single issue over budget still gets its own chunk
+        assertThat(AiSuggestionService.chunk(contexts, 25, 10)).hasSize(5);
+    }
+
+    @Test
+    void fetchSuggestionsAsync_dropsOnlyTheFailedChunk() {
+        AiOrchestratorClient client = mock(AiOrchestratorClient.class);
+        when(client.requestSuggestionsAsync(eq(URL), argThat(chunk -> chunk.get(0).id().equals("issue-0")), anyBoolean()))
+                .thenReturn(Mono.just(new AiOrchestratorClient.SuggestionResponse("stub", "req-1", List.of(fix("issue-0")))));
+        when(client.requestSuggestionsAsync(eq(URL), argThat(chunk -> chunk.get(0).id().equals("issue-1")), anyBoolean()))
+                .thenReturn(Mono.error(new UpstreamServiceException("timeout", HttpStatus.BAD_GATEWAY)));
+        SuggestionCache cache = mock(SuggestionCache.class);
+        AiSuggestionService service = new AiSuggestionService(client, cache, new SimpleMeterRegistry(), false, 1, 6000, 2);
+
+        ScannerClient.ScannerResponse response = new ScannerClient.ScannerResponse(URL, List.of(
+                new ScannerClient.ScannerIssue("issue-0", "image-alt", "serious", "img", "Missing alt", null),
+                new ScannerClient.ScannerIssue("issue-1", "label", "critical", "input", "Missing label", null)), null);
+
+        Map<String, List<AiOrchestratorClient.SuggestedFix>> suggestions = service.fetchSuggestionsAsync(response).block();
+
+        assertThat(suggestions).containsOnlyKeys("issue-0");
+    }
+
+    @Test
+    void fetchSuggestionsAsync_reusesCachedFixesWithoutCallingOrchestrator() {
+        AiOrchestratorClient client = mock(AiOrchestratorClient.class);
+        SuggestionCache cache = mock(SuggestionCache.class);
+        when(cache.isEnabled()).thenReturn(true);
+        String fingerprint = SuggestionCache.fingerprint("image-alt", "header img.logo", "Missing alt");
+        when(cache.getAll(anySet())).thenReturn(Map.of(fingerprint, fix(null)));
+        AiSuggestionService service = new AiSuggestionService(client, cache, new SimpleMeterRegistry(), false, 25, 6000, 2);
+
+        ScannerClient.ScannerResponse response = new ScannerClient.ScannerResponse(URL, List.of(
+                new ScannerClient.ScannerIssue("issue-0", "Image-Alt", "serious", "header  img.logo", "missing alt ", null)), null);
+
+        Map<String, List<AiOrchestratorClient.SuggestedFix>> suggestions = service.fetchSuggestionsAsync(response).block();
+
+        assertThat(suggestions.get("issue-0")).singleElement()
+                .satisfies(suggestion -> assertThat(suggestion.issueId()).isEqualTo("issue-0"));
+        verifyNoInteractions(client);
+    }
+
+    private static AiOrchestratorClient.IssueContext context(String id, String description) {
+        return new AiOrchestratorClient.IssueContext(id, "image-alt", "SERIOUS", description, "img", URL);
+    }
+
+    private static AiOrchestratorClient.SuggestedFix fix(String issueId) {
+        return new AiOrchestratorClient.SuggestedFix(issueId, "img", "Add alt text", "<img alt=\"\">", 0.9, true);
+    }
+}
@@ -0,0 +1,104 @@
+package com.aiaca.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.aiaca.api.client.PageDiscoveryClient;
+import com.aiaca.api.client.ScannerClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class CrawlScanRunnerTest {
+    private static final int PER_SITE = 2;
+
+    private final ScanService scanService = mock(ScanService.class);
+    private final ScanScheduler scanScheduler = mock(ScanScheduler.class);
+    private final AiSuggestionService aiSuggestionService = mock(AiSuggestionService.class);
+    private final BlockingQueue<Sinks.One<ScannerClient.ScannerResponse>> outstanding = new LinkedBlockingQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final CrawlScanRunner runner = new CrawlScanRunner(scanService, scanScheduler, aiSuggestionService,
+            mock(IssueStreamProcessor.class), mock(PageDiscoveryClient.class), new UrlSanitizer(),
+            new SimpleMeterRegistry(), 2, 20, PER_SITE, 32, 30, false);
+
+    @AfterEach
+    void shutdown() {
+        runner.shutdown();
+    }
+
+    private void stubScanner() {
+        when(aiSuggestionService.fetchSuggestionsAsync(any())).thenReturn(Mono.just(Map.of()));
+        when(scanScheduler.scan(anyString(), eq(ScanPriority.SCHEDULED), anyString())).thenAnswer(invocation -> {
+            Sinks.One<ScannerClient.ScannerResponse> sink = Sinks.one();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            outstanding.add(sink);
+            return sink.asMono().doOnNext(response -> inFlight.decrementAndGet());
+        });
+    }
+
+    private static CrawlScanQueuedEvent crawl(UUID siteId, String prefix) {
+        List<String> pages = List.of(prefix + "/1", prefix + "/2", prefix + "/3", prefix + "/4");
+        return new CrawlScanQueuedEvent(UUID.randomUUID(), siteId, null, pages, 10, "tenant");
+    }
+
+    @Test
+    void concurrentCrawlsOfOneSiteShareItsLimit() throws InterruptedException {
+        stubScanner();
+        UUID siteId = UUID.randomUUID();
+        CrawlScanQueuedEvent pricing = crawl(siteId, "https://example.com/pricing");
+        CrawlScanQueuedEvent docs = crawl(siteId, "https://example.com/docs");
+
+        runner.onCrawlQueued(pricing);
+        runner.onCrawlQueued(docs);
+
+        for (int finished = 0; finished < 8; finished++) {
+            Sinks.One<ScannerClient.ScannerResponse> next = outstanding.poll(5, TimeUnit.SECONDS);
+            assertThat(next).as("page %d was scanned", finished + 1).isNotNull();
+            // Give the other coordinator the chance to overshoot before a permit frees up
+            Thread.sleep(50);
+            next.tryEmitValue(new ScannerClient.ScannerResponse("https://example.com", List.of(), null));
+        }
+
+        verify(scanService, timeout(5000)).completeCrawl(pricing.scanId());
+        verify(scanService, timeout(5000)).completeCrawl(docs.scanId());
+        assertThat(maxInFlight.get()).isEqualTo(PER_SITE);
+    }
+
+    @Test
+    void crawlsOfDifferentSitesDoNotShareALimit() throws InterruptedException {
+        stubScanner();
+
+        runner.onCrawlQueued(crawl(UUID.randomUUID(), "https://example.com"));
+        runner.onCrawlQueued(crawl(UUID.randomUUID(), "https://example.org"));
+
+        List<Sinks.One<ScannerClient.ScannerResponse>> started = new ArrayList<>();
+        for (int i = 0; i < 2 * PER_SITE; i++) {
+            started.add(outstanding.poll(5, TimeUnit.SECONDS));
+        }
+
+        assertThat(started).doesNotContainNull();
+        assertThat(maxInFlight.get()).isEqualTo(2 * PER_SITE);
+        for (int i = 0; i < 8; i++) {
+            Sinks.One<ScannerClient.ScannerResponse> next = i < started.size() ? started.get(i)
+                    : outstanding.poll(5, TimeUnit.SECONDS);
+            next.tryEmitValue(new ScannerClient.ScannerResponse("https://example.com", List.of(), null));
+        }
+    }
+}
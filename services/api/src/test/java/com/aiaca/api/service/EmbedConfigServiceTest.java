@@ -0,0 +1,213 @@
+package com.aiaca.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.aiaca.api.dto.EmbedConfigDto;
+import com.aiaca.api.exception.ResourceNotFoundException;
+import com.aiaca.api.model.IssueSeverity;
+import com.aiaca.api.model.Scan;
+import com.aiaca.api.model.ScanIssue;
+import com.aiaca.api.model.ScanStatus;
+import com.aiaca.api.model.Site;
+import com.aiaca.api.model.User;
+import com.aiaca.api.model.billing.enums.SubscriptionStatus;
+import com.aiaca.api.repository.ScanRepository;
+import com.aiaca.api.repository.SiteRepository;
+import com.aiaca.api.repository.UserRepository;
+import com.aiaca.api.security.EmbedKeyVerifier;
+import com.aiaca.api.security.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EmbedConfigServiceTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmbedConfigService embedConfigService;
+
+    @Autowired
+    private SiteService siteService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private EmbedKeyVerifier embedKeyVerifier;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SiteRepository siteRepository;
+
+    @Autowired
+    private ScanRepository scanRepository;
+
+    private User owner;
+    private Site site;
+
+    @BeforeEach
+    void createSite() {
+        User user = new User();
+        user.setEmail("embed-" + UUID.randomUUID() + "@example.com");
+        user.setPasswordHash("hash");
+        owner = userRepository.save(user);
+        Site newSite = new Site();
+        newSite.setName("Embed Site");
+        newSite.setUrl("https://example.com");
+        newSite.setOwner(owner);
+        site = siteRepository.save(newSite);
+    }
+
+    @Test
+    void getEmbedConfig_answersAMatchingIfNoneMatchWith304() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/sites/{id}/embed-config", site.getId())
+                        .header("X-Embed-Key", site.getEmbedKey()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(etag).isNotBlank();
+        mockMvc.perform(get("/api/v1/sites/{id}/embed-config", site.getId())
+                        .header("X-Embed-Key", site.getEmbedKey())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        mockMvc.perform(get("/api/v1/sites/{id}/embed-config", site.getId())
+                        .header("X-Embed-Key", site.getEmbedKey())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getEmbedConfig_isPublicForEmbedKeysAndPrivateForOwners() throws Exception {
+        mockMvc.perform(get("/api/v1/sites/{id}/embed-config", site.getId())
+                        .header("X-Embed-Key", site.getEmbedKey()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, public"));
+
+        mockMvc.perform(get("/api/v1/sites/{id}/embed-config", site.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateToken(owner)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, private"));
+    }
+
+    @Test
+    void onScanCompleted_rebuildsTheSnapshot() {
+        EmbedConfigSnapshot before = embedConfigService.getForOwner(site.getId(), owner.getId());
+        assertThat(before.config().altTextSuggestions()).isEmpty();
+
+        Scan scan = new Scan();
+        scan.setSite(site);
+        scan.setPageUrl("https://example.com/");
+        scan.setStatus(ScanStatus.COMPLETED);
+        ScanIssue issue = new ScanIssue();
+        issue.setScan(scan);
+        issue.setType("image-alt");
+        issue.setSeverity(IssueSeverity.ERROR);
+        issue.setDescription("Images must have alternate text");
+        issue.setSelector("img.hero");
+        issue.setSuggestion("Team photo");
+        scan.getIssues().add(issue);
+        scan = scanRepository.save(scan);
+        eventPublisher.publishEvent(new ScanCompletedEvent(scan.getId(), site.getId()));
+
+        EmbedConfigSnapshot after = embedConfigService.getForOwner(site.getId(), owner.getId());
+        assertThat(after.etag()).isNotEqualTo(before.etag());
+        assertThat(after.config().altTextSuggestions())
+                .extracting(EmbedConfigDto.AltTextSuggestion::selector)
+                .containsExactly("img.hero");
+        assertThat(siteRepository.findById(site.getId())).get()
+                .extracting(Site::getEmbedConfigEtag).isEqualTo(after.etag());
+    }
+
+    @Test
+    void rotateEmbedKey_evictsTheSnapshotAndTheOldKey() {
+        String oldKey = site.getEmbedKey();
+        EmbedConfigSnapshot before = embedConfigService.getForEmbedKey(site.getId(), oldKey);
+
+        Site rotated = siteService.rotateEmbedKey(owner, site.getId());
+
+        EmbedConfigSnapshot after = embedConfigService.getForEmbedKey(site.getId(), rotated.getEmbedKey());
+        assertThat(after.config().embedKey()).isEqualTo(rotated.getEmbedKey());
+        assertThat(after.etag()).isNotEqualTo(before.etag());
+        assertThatThrownBy(() -> embedConfigService.getForEmbedKey(site.getId(), oldKey))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void deleteSite_evictsTheSnapshot() {
+        embedConfigService.getForOwner(site.getId(), owner.getId());
+
+        siteService.deleteSite(owner, site.getId());
+
+        assertThatThrownBy(() -> embedConfigService.getForOwner(site.getId(), owner.getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> embedConfigService.getForEmbedKey(site.getId(), site.getEmbedKey()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void rotateEndpoint_issuesANewKeyAndTheOldOneStopsServingTheConfig() throws Exception {
+        owner.setSubscriptionStatus(SubscriptionStatus.ACTIVE);
+        owner = userRepository.save(owner);
+        String oldKey = site.getEmbedKey();
+        mockMvc.perform(get("/api/v1/sites/{id}/embed-config", site.getId()).header("X-Embed-Key", oldKey))
+                .andExpect(status().isOk());
+
+        MvcResult rotated = mockMvc.perform(post("/api/v1/sites/{id}/embed-key/rotate", site.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateToken(owner)))
+                .andExpect(status().isOk())
+                .andReturn();
+        String newKey = objectMapper.readTree(rotated.getResponse().getContentAsString()).get("embedKey").asText();
+
+        assertThat(newKey).isNotEqualTo(oldKey);
+        mockMvc.perform(get("/api/v1/sites/{id}/embed-config", site.getId()).header("X-Embed-Key", oldKey))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/sites/{id}/embed-config", site.getId()).header("X-Embed-Key", newKey))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.embedKey").value(newKey));
+    }
+
+    @Test
+    void getForEmbedKey_rebuildsASnapshotThatStillCarriesAKeyRotatedElsewhere() {
+        String oldKey = site.getEmbedKey();
+        embedConfigService.getForEmbedKey(site.getId(), oldKey);
+
+        // What another replica's rotation leaves behind here: a new key in the database, the old snapshot in memory
+        Site stored = siteRepository.findById(site.getId()).orElseThrow();
+        stored.setEmbedKey(UUID.randomUUID().toString());
+        stored.setEmbedConfigJson(null);
+        stored.setEmbedConfigEtag(null);
+        siteRepository.save(stored);
+        embedKeyVerifier.syncRevocations();
+
+        assertThat(embedConfigService.getForEmbedKey(site.getId(), stored.getEmbedKey()).config().embedKey())
+                .isEqualTo(stored.getEmbedKey());
+    }
+}
@@ -0,0 +1,111 @@
+package com.aiaca.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.aiaca.api.client.ScannerClient;
+import com.aiaca.api.model.IssueStatus;
+import com.aiaca.api.model.Scan;
+import com.aiaca.api.model.ScanIssue;
+import com.aiaca.api.model.Site;
+import com.aiaca.api.model.User;
+import com.aiaca.api.repository.ScanRepository;
+import com.aiaca.api.repository.SiteRepository;
+import com.aiaca.api.repository.UserRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+/**
+ * The open/fixed counters on the scan row are maintained by relative updates; after any sequence of status
+ * changes they must match a recount of the issue rows.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class IssueStatusCountTest {
+    @MockitoBean
+    private ScanJobRunner scanJobRunner;
+
+    @Autowired
+    private ScanService scanService;
+
+    @Autowired
+    private ScanRepository scanRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SiteRepository siteRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private UUID scanId;
+    private List<UUID> issueIds;
+
+    @BeforeEach
+    void createCompletedScan() {
+        User user = new User();
+        user.setEmail("counts-" + UUID.randomUUID() + "@example.com");
+        user.setPasswordHash("hash");
+        owner = userRepository.save(user);
+        Site site = new Site();
+        site.setName("Counts Site");
+        site.setUrl("https://example.com");
+        site.setOwner(owner);
+        site = siteRepository.save(site);
+
+        String pageUrl = "https://example.com/counts";
+        scanId = scanService.createScan(site, pageUrl).getId();
+        scanService.markRunning(scanId);
+        scanService.completeScan(scanId, new ScannerClient.ScannerResponse(pageUrl, List.of(
+                new ScannerClient.ScannerIssue("a", "image-alt", "error", "img.a", "Missing alt", null),
+                new ScannerClient.ScannerIssue("b", "link-name", "error", "a.b", "Empty link", null),
+                new ScannerClient.ScannerIssue("c", "color-contrast", "warning", "p.c", "Low contrast", null)), null),
+                Map.of());
+        issueIds = scanService.getById(scanId).getIssues().stream().map(ScanIssue::getId).toList();
+    }
+
+    @Test
+    void updateIssueStatus_keepsTheScanCountersEqualToARecount() {
+        assertCountersMatchRecount(3, 0);
+
+        scanService.updateIssueStatus(scanId, issueIds.get(0), IssueStatus.FIXED, owner);
+        assertCountersMatchRecount(2, 1);
+
+        scanService.updateIssueStatus(scanId, issueIds.get(1), IssueStatus.FIXED, owner);
+        scanService.updateIssueStatus(scanId, issueIds.get(0), IssueStatus.OPEN, owner);
+        assertCountersMatchRecount(2, 1);
+
+        // Setting the current status again is a no-op, not a second adjustment
+        scanService.updateIssueStatus(scanId, issueIds.get(1), IssueStatus.FIXED, owner);
+        assertCountersMatchRecount(2, 1);
+
+        for (int i = 0; i < 3; i++) {
+            scanService.updateIssueStatus(scanId, issueIds.get(2), IssueStatus.FIXED, owner);
+            scanService.updateIssueStatus(scanId, issueIds.get(2), IssueStatus.OPEN, owner);
+        }
+        scanService.updateIssueStatus(scanId, issueIds.get(1), IssueStatus.OPEN, owner);
+        assertCountersMatchRecount(3, 0);
+    }
+
+    private void assertCountersMatchRecount(int open, int fixed) {
+        Scan scan = scanRepository.findById(scanId).orElseThrow();
+        assertThat(scan.getOpenIssueCount()).isEqualTo(recount(IssueStatus.OPEN)).isEqualTo(open);
+        assertThat(scan.getFixedIssueCount()).isEqualTo(recount(IssueStatus.FIXED)).isEqualTo(fixed);
+        assertThat(scan.getOpenIssueCount() + scan.getFixedIssueCount()).isEqualTo(scan.getIssueCount());
+    }
+
+    private int recount(IssueStatus status) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM scan_issues WHERE scan_id = ? AND status = ?",
+                Integer.class, scanId, status.name());
+    }
+}
@@ -0,0 +1,57 @@
+package com.aiaca.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.aiaca.api.dto.ScanDtos;
+import com.aiaca.api.exception.UpstreamServiceException;
+import com.aiaca.api.model.ScanStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class PublicScanCacheTest {
+    private static final String URL = "https://example.com";
+
+    private final ScanDtos.ScanDetail detail = new ScanDtos.ScanDetail(null, null, LocalDateTime.now(),
+            ScanStatus.COMPLETED, 95.0, List.of(), null);
+
+    @Test
+    void get_collapsesConcurrentRequestsAndServesHitsFromCache() {
+        ScanService scanService = mock(ScanService.class);
+        Sinks.One<ScanDtos.ScanDetail> scannerResult = Sinks.one();
+        when(scanService.createPublicScanAsync(URL)).thenReturn(scannerResult.asMono());
+        PublicScanCache cache = new PublicScanCache(scanService, new SimpleMeterRegistry(), 300, 100);
+
+        CompletableFuture<ScanDtos.ScanDetail> first = cache.get(URL).toFuture();
+        CompletableFuture<ScanDtos.ScanDetail> second = cache.get(URL).toFuture();
+        scannerResult.tryEmitValue(detail);
+
+        assertThat(first.join()).isSameAs(detail);
+        assertThat(second.join()).isSameAs(detail);
+        assertThat(cache.get(URL).block()).isSameAs(detail);
+        verify(scanService, times(1)).createPublicScanAsync(URL);
+    }
+
+    @Test
+    void get_doesNotCacheFailures() {
+        ScanService scanService = mock(ScanService.class);
+        when(scanService.createPublicScanAsync(URL))
+                .thenReturn(Mono.error(new UpstreamServiceException("scanner down", HttpStatus.BAD_GATEWAY)))
+                .thenReturn(Mono.just(detail));
+        PublicScanCache cache = new PublicScanCache(scanService, new SimpleMeterRegistry(), 300, 100);
+
+        assertThatThrownBy(() -> cache.get(URL).block()).isInstanceOf(UpstreamServiceException.class);
+        assertThat(cache.get(URL).block()).isSameAs(detail);
+        verify(scanService, times(2)).createPublicScanAsync(URL);
+    }
+}
@@ -0,0 +1,46 @@
+package com.aiaca.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.aiaca.api.repository.RateLimitWindowStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class RateLimiterSharedWindowTest {
+
+    private static final long WINDOW_MS = 60_000;
+
+    @Test
+    void tryAcquire_refundsTheLocalSlotWhenTheSharedWindowRejects() {
+        RateLimitWindowStore store = mock(RateLimitWindowStore.class);
+        when(store.claim(eq("test"), eq("203.0.113.7"), eq(2 * WINDOW_MS), anyInt(), eq(2))).thenReturn(1, 0);
+        when(store.claim(eq("test"), eq("203.0.113.7"), eq(3 * WINDOW_MS), anyInt(), eq(2))).thenReturn(1);
+        AtomicLong wallClock = new AtomicLong(2 * WINDOW_MS + 1_000);
+        RateLimiter limiter = new RateLimiter("test", 2, WINDOW_MS, 100, new SimpleMeterRegistry(), store, 1,
+                wallClock::get);
+
+        assertThat(limiter.tryAcquire("203.0.113.7")).isZero();
+        // Other nodes used the rest of the shared window
+        assertThat(limiter.tryAcquire("203.0.113.7")).isPositive();
+        assertThat(limiter.tryAcquire("203.0.113.7")).isPositive();
+
+        wallClock.set(3 * WINDOW_MS);
+        assertThat(limiter.tryAcquire("203.0.113.7")).isZero();
+    }
+
+    @Test
+    void tryAcquire_waitsForTheNextSharedWindow() {
+        RateLimitWindowStore store = mock(RateLimitWindowStore.class);
+        when(store.claim(eq("test"), eq("203.0.113.7"), eq(2 * WINDOW_MS), anyInt(), eq(2))).thenReturn(0);
+        AtomicLong wallClock = new AtomicLong(2 * WINDOW_MS + 45_000);
+        RateLimiter limiter = new RateLimiter("test", 2, WINDOW_MS, 100, new SimpleMeterRegistry(), store, 1,
+                wallClock::get);
+
+        assertThat(limiter.tryAcquire("203.0.113.7")).isEqualTo(15_000_000_000L);
+    }
+}
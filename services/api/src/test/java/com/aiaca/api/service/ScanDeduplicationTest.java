@@ -0,0 +1,171 @@
+package com.aiaca.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.aiaca.api.client.ScannerClient;
+import com.aiaca.api.model.Scan;
+import com.aiaca.api.model.Site;
+import com.aiaca.api.model.User;
+import com.aiaca.api.repository.ScanRepository;
+import com.aiaca.api.repository.SiteRepository;
+import com.aiaca.api.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+/**
+ * Runs against the real unique {@code active_scan_key} constraint; the runners are mocked so queued scans stay
+ * QUEUED until the test completes or fails them.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ScanDeduplicationTest {
+    private static final String PAGE_URL = "https://example.com/pricing";
+
+    @MockitoBean
+    private ScanJobRunner scanJobRunner;
+
+    @MockitoBean
+    private CrawlScanRunner crawlScanRunner;
+
+    @Autowired
+    private ScanService scanService;
+
+    @Autowired
+    private ScanRepository scanRepository;
+
+    @Autowired
+    private SiteRepository siteRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QueuedEvents queuedEvents;
+
+    private Site site;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        QueuedEvents queuedEvents() {
+            return new QueuedEvents();
+        }
+    }
+
+    static class QueuedEvents {
+        private final List<UUID> scanIds = new CopyOnWriteArrayList<>();
+
+        @EventListener
+        public void onScanQueued(ScanQueuedEvent event) {
+            scanIds.add(event.scanId());
+        }
+
+        @EventListener
+        public void onCrawlQueued(CrawlScanQueuedEvent event) {
+            scanIds.add(event.scanId());
+        }
+
+        long count(UUID scanId) {
+            return scanIds.stream().filter(scanId::equals).count();
+        }
+    }
+
+    @BeforeEach
+    void createSite() {
+        User owner = new User();
+        owner.setEmail("dedup-" + UUID.randomUUID() + "@example.com");
+        owner.setPasswordHash("hash");
+        owner = userRepository.save(owner);
+        Site newSite = new Site();
+        newSite.setName("Dedup Site");
+        newSite.setUrl("https://example.com");
+        newSite.setOwner(owner);
+        site = siteRepository.save(newSite);
+    }
+
+    @Test
+    void createScan_concurrentRequestsForTheSameUrlShareOneScan() throws Exception {
+        int callers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<UUID>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return scanService.createScan(site, PAGE_URL).getId();
+                }));
+            }
+            start.countDown();
+            Set<UUID> ids = new HashSet<>();
+            for (Future<UUID> result : results) {
+                ids.add(result.get());
+            }
+
+            assertThat(ids).hasSize(1);
+            UUID scanId = ids.iterator().next();
+            assertThat(scanRepository.findBySite(site)).extracting(Scan::getId).containsExactly(scanId);
+            assertThat(queuedEvents.count(scanId)).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void createScan_queuesANewScanOnceTheActiveOneCompletesOrFails() {
+        Scan first = scanService.createScan(site, PAGE_URL);
+        assertThat(scanService.createScan(site, PAGE_URL).getId()).isEqualTo(first.getId());
+
+        scanService.markRunning(first.getId());
+        scanService.completeScan(first.getId(), new ScannerClient.ScannerResponse(PAGE_URL, List.of(), null), Map.of());
+        Scan second = scanService.createScan(site, PAGE_URL);
+        assertThat(second.getId()).isNotEqualTo(first.getId());
+
+        scanService.markFailed(second.getId());
+        Scan third = scanService.createScan(site, PAGE_URL);
+        assertThat(third.getId()).isNotIn(first.getId(), second.getId());
+
+        assertThat(scanRepository.findById(first.getId())).get().extracting(Scan::getActiveScanKey).isNull();
+        assertThat(scanRepository.findById(second.getId())).get().extracting(Scan::getActiveScanKey).isNull();
+        assertThat(scanRepository.findBySite(site)).hasSize(3);
+        assertThat(queuedEvents.count(first.getId()) + queuedEvents.count(second.getId()) + queuedEvents.count(third.getId()))
+                .isEqualTo(3);
+    }
+
+    @Test
+    void createCrawlScan_joinsOnlyARequestForTheSamePages() {
+        Scan crawl = scanService.createCrawlScan(site, null,
+                List.of("https://example.com/a", "https://example.com/b"), null);
+
+        Scan reordered = scanService.createCrawlScan(site, null,
+                List.of("https://example.com/b", "https://example.com/a"), null);
+        Scan otherPages = scanService.createCrawlScan(site, null, List.of("https://example.com/c"), null);
+        Scan seeded = scanService.createCrawlScan(site, "https://example.com/", null, 10);
+        Scan sameSeedOtherLimit = scanService.createCrawlScan(site, "https://example.com/", null, 20);
+
+        assertThat(reordered.getId()).isEqualTo(crawl.getId());
+        assertThat(otherPages.getId()).isNotEqualTo(crawl.getId());
+        assertThat(seeded.getId()).isNotIn(crawl.getId(), otherPages.getId());
+        assertThat(sameSeedOtherLimit.getId()).isNotIn(crawl.getId(), otherPages.getId(), seeded.getId());
+        assertThat(scanService.createCrawlScan(site, "https://example.com/", null, 10).getId()).isEqualTo(seeded.getId());
+        assertThat(queuedEvents.count(otherPages.getId())).isEqualTo(1);
+    }
+}
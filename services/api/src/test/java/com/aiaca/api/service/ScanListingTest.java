@@ -0,0 +1,181 @@
+package com.aiaca.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.aiaca.api.client.ScannerClient;
+import com.aiaca.api.exception.BadRequestException;
+import com.aiaca.api.model.Scan;
+import com.aiaca.api.model.Site;
+import com.aiaca.api.model.User;
+import com.aiaca.api.model.billing.enums.SubscriptionStatus;
+import com.aiaca.api.repository.SiteRepository;
+import com.aiaca.api.repository.UserRepository;
+import com.aiaca.api.security.JwtService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ScanListingTest {
+    private static final String NEXT_CURSOR = "X-Next-Cursor";
+
+    @MockitoBean
+    private ScanJobRunner scanJobRunner;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ScanService scanService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SiteRepository siteRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Site site;
+    private String token;
+
+    @BeforeEach
+    void createSite() {
+        User user = new User();
+        user.setEmail("listing-" + UUID.randomUUID() + "@example.com");
+        user.setPasswordHash("hash");
+        user.setSubscriptionStatus(SubscriptionStatus.ACTIVE);
+        user = userRepository.save(user);
+        Site newSite = new Site();
+        newSite.setName("Listing Site");
+        newSite.setUrl("https://example.com");
+        newSite.setOwner(user);
+        site = siteRepository.save(newSite);
+        token = jwtService.generateToken(user);
+    }
+
+    @Test
+    void cursor_roundTrips() {
+        ScanCursor cursor = new ScanCursor(LocalDateTime.of(2026, 3, 1, 12, 30, 5, 123_456_000), UUID.randomUUID());
+
+        assertThat(ScanCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void cursor_rejectsMalformedInput() {
+        String noSeparator = Base64.getUrlEncoder().encodeToString("2026-03-01T12:30".getBytes(StandardCharsets.UTF_8));
+        String badDate = Base64.getUrlEncoder().encodeToString(("yesterday|" + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : List.of("not base64!", noSeparator, badDate)) {
+            assertThatThrownBy(() -> ScanCursor.decode(cursor)).isInstanceOf(BadRequestException.class);
+        }
+    }
+
+    @Test
+    void listScans_pagesThroughScansThatShareACreatedAt() throws Exception {
+        List<UUID> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(scanService.createScan(site, "https://example.com/page-" + i).getId());
+        }
+        jdbcTemplate.update("UPDATE scans SET created_at = ? WHERE site_id = ?",
+                LocalDateTime.of(2026, 3, 1, 12, 0), site.getId());
+
+        List<UUID> listed = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var request = get("/api/v1/sites/{id}/scans", site.getId())
+                    .param("limit", "2")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            MvcResult page = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+            for (JsonNode item : objectMapper.readTree(page.getResponse().getContentAsString())) {
+                listed.add(UUID.fromString(item.get("id").asText()));
+            }
+            cursor = page.getResponse().getHeader(NEXT_CURSOR);
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(listed).hasSize(5).containsExactlyInAnyOrderElementsOf(created);
+        assertThat(new HashSet<>(listed)).hasSize(5);
+    }
+
+    @Test
+    void listScans_omitsTheNextCursorOnTheLastPage() throws Exception {
+        scanService.createScan(site, "https://example.com/only");
+
+        mockMvc.perform(get("/api/v1/sites/{id}/scans", site.getId())
+                        .param("limit", "1")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().doesNotExist(NEXT_CURSOR));
+    }
+
+    @Test
+    void listScans_rejectsAMalformedCursor() throws Exception {
+        mockMvc.perform(get("/api/v1/sites/{id}/scans", site.getId())
+                        .param("cursor", "not-a-cursor")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/scans")
+                        .param("cursor", "not-a-cursor")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void listScans_reportsIssueCountsAggregatedOnTheScanRow() throws Exception {
+        Scan scan = scanService.createScan(site, "https://example.com/counted");
+        scanService.markRunning(scan.getId());
+        scanService.completeScan(scan.getId(), new ScannerClient.ScannerResponse("https://example.com/counted", List.of(
+                new ScannerClient.ScannerIssue("a", "image-alt", "error", "img.a", "Missing alt", null),
+                new ScannerClient.ScannerIssue("b", "image-alt", "error", "img.b", "Missing alt", null),
+                new ScannerClient.ScannerIssue("c", "color-contrast", "warning", "p.c", "Low contrast", null)), null),
+                Map.of());
+
+        mockMvc.perform(get("/api/v1/scans").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(scan.getId().toString()))
+                .andExpect(jsonPath("$[0].issueCount").value(3))
+                .andExpect(jsonPath("$[0].issueCounts.error").value(2))
+                .andExpect(jsonPath("$[0].issueCounts.warning").value(1))
+                .andExpect(jsonPath("$[0].issueCounts.open").value(3))
+                .andExpect(jsonPath("$[0].issueCounts.fixed").value(0));
+    }
+}
@@ -0,0 +1,41 @@
+package com.aiaca.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.aiaca.api.dto.ScanDtos;
+import com.aiaca.api.model.IssueSeverity;
+import com.aiaca.api.model.ScanStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+
+class ScanProgressPublisherTest {
+    private final ScanProgressPublisher publisher = new ScanProgressPublisher(new SimpleMeterRegistry(), 16);
+    private final UUID scanId = UUID.randomUUID();
+
+    @Test
+    void stream_emitsSnapshotThenLiveEventsUntilTerminalStatus() {
+        List<ScanDtos.ScanProgressEvent> received = new CopyOnWriteArrayList<>();
+        publisher.stream(scanId, () -> List.of(ScanDtos.ScanProgressEvent.status(scanId, ScanStatus.RUNNING, null)))
+                .subscribe(received::add);
+
+        ScanDtos.ScanIssueDto issue = new ScanDtos.ScanIssueDto(UUID.randomUUID(), "image-alt", IssueSeverity.ERROR,
+                "Missing alt", "img", null, "https://example.com");
+        publisher.onProgress(ScanDtos.ScanProgressEvent.issue(scanId, issue));
+        publisher.onProgress(ScanDtos.ScanProgressEvent.status(scanId, ScanStatus.COMPLETED, 95.0));
+        publisher.onProgress(ScanDtos.ScanProgressEvent.status(scanId, ScanStatus.COMPLETED, 95.0));
+
+        assertThat(received).extracting(ScanDtos.ScanProgressEvent::type).containsExactly("status", "issue", "status");
+        assertThat(received.get(2).status()).isEqualTo(ScanStatus.COMPLETED);
+    }
+
+    @Test
+    void stream_completesAfterSnapshotForFinishedScan() {
+        List<ScanDtos.ScanProgressEvent> events = publisher.stream(scanId,
+                () -> List.of(ScanDtos.ScanProgressEvent.status(scanId, ScanStatus.FAILED, null))).collectList().block();
+
+        assertThat(events).hasSize(1);
+    }
+}
@@ -0,0 +1,134 @@
+package com.aiaca.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.aiaca.api.client.ScannerClient;
+import com.aiaca.api.exception.ServiceUnavailableException;
+import com.aiaca.api.model.billing.enums.SubscriptionStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Sinks;
+
+class ScanSchedulerTest {
+    private final Map<String, Sinks.One<ScannerClient.ScannerResponse>> inFlight = new LinkedHashMap<>();
+    private final List<String> started = new ArrayList<>();
+
+    private ScanScheduler scheduler(int maxConcurrent, int perTenantMax, int maxQueued) {
+        ScannerClient scannerClient = mock(ScannerClient.class);
+        when(scannerClient.scanAsync(anyString())).thenAnswer(invocation -> {
+            String url = invocation.getArgument(0);
+            Sinks.One<ScannerClient.ScannerResponse> sink = Sinks.one();
+            inFlight.put(url, sink);
+            started.add(url);
+            return sink.asMono();
+        });
+        return new ScanScheduler(scannerClient, new SimpleMeterRegistry(), maxConcurrent, perTenantMax, maxQueued,
+                8, 3, 1, 30);
+    }
+
+    private void finish(String url) {
+        inFlight.remove(url).tryEmitValue(new ScannerClient.ScannerResponse(url, List.of(), null));
+    }
+
+    @Test
+    void scan_takesTenantsInTurnWithinAClass() {
+        ScanScheduler scheduler = scheduler(1, 4, 100);
+        scheduler.scan("a1", ScanPriority.SCHEDULED, "a").subscribe();
+        scheduler.scan("a2", ScanPriority.SCHEDULED, "a").subscribe();
+        scheduler.scan("a3", ScanPriority.SCHEDULED, "a").subscribe();
+        scheduler.scan("b1", ScanPriority.SCHEDULED, "b").subscribe();
+
+        finish("a1");
+        finish("a2");
+        finish("b1");
+
+        assertThat(started).containsExactly("a1", "a2", "b1", "a3");
+    }
+
+    @Test
+    void scan_capsConcurrentCallsPerTenant() {
+        ScanScheduler scheduler = scheduler(10, 2, 100);
+        scheduler.scan("a1", ScanPriority.INTERACTIVE, "a").subscribe();
+        scheduler.scan("a2", ScanPriority.INTERACTIVE, "a").subscribe();
+        scheduler.scan("a3", ScanPriority.INTERACTIVE, "a").subscribe();
+        scheduler.scan("b1", ScanPriority.INTERACTIVE, "b").subscribe();
+
+        assertThat(started).containsExactly("a1", "a2", "b1");
+        finish("a1");
+        assertThat(started).containsExactly("a1", "a2", "b1", "a3");
+    }
+
+    @Test
+    void scan_favoursHigherClassesWithoutStarvingLowerOnes() {
+        ScanScheduler scheduler = scheduler(1, 100, 100);
+        scheduler.scan("blocker", ScanPriority.INTERACTIVE, "x").subscribe();
+        for (int i = 0; i < 10; i++) {
+            scheduler.scan("public-" + i, ScanPriority.PUBLIC, "public").subscribe();
+            scheduler.scan("paid-" + i, ScanPriority.INTERACTIVE, "tenant-" + i).subscribe();
+        }
+
+        finish("blocker");
+        for (int i = 0; i < 9; i++) {
+            finish(started.get(started.size() - 1));
+        }
+
+        // Weights 8:1 give the public class one slot in every nine
+        List<String> served = started.subList(1, started.size());
+        assertThat(served).hasSize(10);
+        assertThat(served.stream().filter(url -> url.startsWith("paid-")).count()).isEqualTo(8);
+    }
+
+    @Test
+    void scan_doesNotLetAFreeAccountOutrankAPaidOne() {
+        ScanScheduler scheduler = scheduler(1, 100, 100);
+        scheduler.scan("blocker", ScanPriority.INTERACTIVE, "x").subscribe();
+        // The free account queues first; in one class the two accounts would simply alternate
+        for (int i = 0; i < 8; i++) {
+            scheduler.scan("free-" + i, ScanPriority.forSubscription(SubscriptionStatus.NONE), "free-account").subscribe();
+        }
+        for (int i = 0; i < 8; i++) {
+            scheduler.scan("paid-" + i, ScanPriority.forSubscription(SubscriptionStatus.ACTIVE), "paid-account").subscribe();
+        }
+
+        finish("blocker");
+        for (int i = 0; i < 8; i++) {
+            finish(started.get(started.size() - 1));
+        }
+
+        List<String> served = started.subList(1, started.size());
+        assertThat(served).hasSize(9);
+        assertThat(served.stream().filter(url -> url.startsWith("paid-")).count()).isEqualTo(8);
+    }
+
+    @Test
+    void scan_cancelledWhileQueuedGivesUpItsPlace() {
+        ScanScheduler scheduler = scheduler(1, 4, 100);
+        scheduler.scan("a1", ScanPriority.INTERACTIVE, "a").subscribe();
+        Disposable queued = scheduler.scan("a2", ScanPriority.INTERACTIVE, "a").subscribe();
+        scheduler.scan("b1", ScanPriority.INTERACTIVE, "b").subscribe();
+
+        queued.dispose();
+        finish("a1");
+
+        assertThat(started).containsExactly("a1", "b1");
+    }
+
+    @Test
+    void scan_rejectsWhenTheQueueIsFull() {
+        ScanScheduler scheduler = scheduler(1, 4, 1);
+        scheduler.scan("a1", ScanPriority.INTERACTIVE, "a").subscribe();
+        scheduler.scan("a2", ScanPriority.INTERACTIVE, "a").subscribe();
+
+        assertThatThrownBy(() -> scheduler.scan("a3", ScanPriority.INTERACTIVE, "a").block())
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+}
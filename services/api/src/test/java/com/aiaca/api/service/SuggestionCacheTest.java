@@ -0,0 +1,55 @@
+package com.aiaca.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.aiaca.api.model.CachedSuggestion;
+import com.aiaca.api.repository.CachedSuggestionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SuggestionCacheTest {
+
+    @Autowired
+    private CachedSuggestionRepository repository;
+
+    private void cache(String modelVersion, LocalDateTime createdAt) {
+        CachedSuggestion entry = new CachedSuggestion();
+        entry.setFingerprint(UUID.randomUUID().toString().replace("-", ""));
+        entry.setModelVersion(modelVersion);
+        entry.setSuggestedFix("<img alt=\"Logo\">");
+        entry.setCreatedAt(createdAt);
+        repository.saveAndFlush(entry);
+    }
+
+    private long count(String modelVersion) {
+        return repository.findAll().stream().filter(entry -> entry.getModelVersion().equals(modelVersion)).count();
+    }
+
+    @Test
+    void purgeRetiredVersions_keepsVersionsThatAreStillWrittenTo() {
+        LocalDateTime now = LocalDateTime.now();
+        cache("v3", now.minusDays(30));
+        // v2: old entries, but a node (rolling deploy or rollback) wrote one recently
+        cache("v2", now.minusDays(30));
+        cache("v2", now.minusHours(1));
+        // v1: nobody has written to it for longer than the retention
+        cache("v1", now.minusDays(30));
+        cache("v1", now.minusDays(10));
+        SuggestionCache cache = new SuggestionCache(repository, new SimpleMeterRegistry(), true, "v3", 100, 168);
+
+        cache.purgeRetiredVersions();
+
+        assertThat(count("v3")).isEqualTo(1);
+        assertThat(count("v2")).isEqualTo(2);
+        assertThat(count("v1")).isZero();
+    }
+}
@@ -1,20 +1,33 @@
 package com.aiaca.api.service.billing;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import com.aiaca.api.exception.RateLimitExceededException;
 import com.aiaca.api.service.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
 class RateLimiterTest {
 
     @Test
     void assertWithinLimit_throwsAfterExceedingWindow() {
-        RateLimiter limiter = new RateLimiter(2, 10_000);
+        RateLimiter limiter = new RateLimiter("test", 2, 10_000, 100, new SimpleMeterRegistry());
 
         limiter.assertWithinLimit("account-1");
         limiter.assertWithinLimit("account-1");
 
         assertThatThrownBy(() -> limiter.assertWithinLimit("account-1"))
-                .isInstanceOf(com.aiaca.api.exception.RateLimitExceededException.class);
+                .isInstanceOf(RateLimitExceededException.class)
+                .satisfies(ex -> assertThat(((RateLimitExceededException) ex).getRetryAfterSeconds()).isBetween(1L, 5L));
+    }
+
+    @Test
+    void tryAcquire_tracksKeysIndependently() {
+        RateLimiter limiter = new RateLimiter("test", 1, 10_000, 100, new SimpleMeterRegistry());
+
+        assertThat(limiter.tryAcquire("203.0.113.1")).isZero();
+        assertThat(limiter.tryAcquire("203.0.113.1")).isPositive();
+        assertThat(limiter.tryAcquire("203.0.113.2")).isZero();
     }
 }